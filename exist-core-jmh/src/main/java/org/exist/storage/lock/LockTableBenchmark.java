@@ -32,9 +32,12 @@
  */
 package org.exist.storage.lock;
 
+import org.exist.util.LockException;
+import org.exist.xmldb.XmldbURI;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
 
 /**
  * @author <a href="mailto:adam@evolvedbinary.com">Adam Retter</a>
@@ -55,6 +58,17 @@ public class LockTableBenchmark {
         private final LockTable lockTable = new LockTable(null);
     }
 
+    @State(Scope.Benchmark)
+    public static class LockManagerState {
+        private final LockManager lockManager = new LockManager(16);
+        private final XmldbURI[] dataSubCollections = new XmldbURI[DATA_SUB_COLLECTIONS];
+        {
+            for (int i = 0; i < DATA_SUB_COLLECTIONS; i++) {
+                dataSubCollections[i] = XmldbURI.create("/db/apps/docs/data/" + i);
+            }
+        }
+    }
+
     @State(Scope.Thread)
     public static class EventsState {
         private int btreeReads = 0;
@@ -186,6 +200,22 @@ public class LockTableBenchmark {
         }
     }
 
+    /**
+     * Acquires and releases a Collection READ_LOCK, i.e. an INTENTION_READ lock on each ancestor
+     * Collection, with no lock event listeners registered.
+     */
+    @Benchmark
+    public void testCollectionReadLock(final LockManagerState lockManagerState, final EventsState eventsState, final Blackhole blackhole) throws LockException {
+        if (eventsState.dataSubCollectionIndex >= DATA_SUB_COLLECTIONS) {
+            eventsState.dataSubCollectionIndex = 0;
+        }
+        final XmldbURI dataSubCollection = lockManagerState.dataSubCollections[eventsState.dataSubCollectionIndex++];
+
+        try (final ManagedCollectionLock collectionLock = lockManagerState.lockManager.acquireCollectionReadLock(dataSubCollection)) {
+            blackhole.consume(collectionLock);
+        }
+    }
+
     public static void main(final String args[]) {
         // NOTE: just for running with the java debugger
         LockTableBenchmark lockTableBenchmark = new LockTableBenchmark();
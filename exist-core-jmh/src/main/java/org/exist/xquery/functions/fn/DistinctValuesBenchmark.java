@@ -0,0 +1,97 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery.functions.fn;
+
+import com.ibm.icu.text.Collator;
+import org.exist.util.Collations;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.value.AtomicValue;
+import org.exist.xquery.value.AtomicValueHashSet;
+import org.exist.xquery.value.IntegerValue;
+import org.exist.xquery.value.StringValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Benchmarks the duplicate detection of fn:distinct-values,
+ * comparing a sorted set of values against a hash set of values.
+ */
+@State(Scope.Benchmark)
+public class DistinctValuesBenchmark {
+
+    @Param({ "100", "10000", "1000000" })
+    private int numOfValues;
+
+    /**
+     * The fraction of values which are duplicates of another value.
+     */
+    @Param({ "0.1", "0.9" })
+    private double duplicates;
+
+    @Param({ "string", "integer" })
+    private String valueType;
+
+    @Param({ "codepoint", "uca" })
+    private String collation;
+
+    private AtomicValue[] values;
+    private Collator collator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws XPathException {
+        collator = "uca".equals(collation) ? Collations.getCollationFromURI(Collations.UCA_COLLATION_URI) : null;
+
+        final int numOfDistinct = Math.max(1, (int) (numOfValues * (1 - duplicates)));
+        final Random random = new Random(numOfValues);
+        values = new AtomicValue[numOfValues];
+        for (int i = 0; i < numOfValues; i++) {
+            final int n = random.nextInt(numOfDistinct);
+            values[i] = "integer".equals(valueType) ? new IntegerValue(n) : new StringValue("value-" + n);
+        }
+    }
+
+    @Benchmark
+    public int treeSet() {
+        final TreeSet<AtomicValue> set = new TreeSet<>(new FunDistinctValues.ValueComparator(collator));
+        int distinct = 0;
+        for (final AtomicValue value : values) {
+            if (set.add(value)) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    @Benchmark
+    public int hashSet() throws XPathException {
+        final AtomicValueHashSet set = new AtomicValueHashSet(collator);
+        int distinct = 0;
+        for (final AtomicValue value : values) {
+            if (set.add(value)) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+}
@@ -190,7 +190,7 @@ public class Indexer implements ContentHandler, LexicalHandler, ErrorHandler {
 
     public void setValidating(final boolean validate) {
         this.validate = validate;
-        if (!validate) {
+        if (!validate && broker.isIndexingEnabled()) {
             this.indexListener = broker.getIndexController()
                 .getStreamListener(document, ReindexMode.STORE);
         }
@@ -23,8 +23,11 @@ package org.exist.backup;
 
 import org.exist.EXistException;
 import org.exist.backup.restore.AppRestoreUtils;
+import org.exist.backup.restore.ParallelRestoreExecutor;
+import org.exist.backup.restore.ParallelRestoreHandler;
 import org.exist.backup.restore.RestoreHandler;
 import org.exist.backup.restore.listener.RestoreListener;
+import org.exist.backup.restore.listener.SynchronizedRestoreListener;
 import org.exist.security.Account;
 import org.exist.security.PermissionDeniedException;
 import org.exist.security.SecurityManager;
@@ -33,7 +36,10 @@ import org.exist.storage.DBBroker;
 import org.exist.storage.txn.Txn;
 import org.exist.util.EXistInputSource;
 import org.exist.util.FileUtils;
+import org.exist.util.LockException;
 import org.exist.util.XMLReaderPool;
+import org.exist.xmldb.XmldbURI;
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
@@ -58,7 +64,43 @@ public class Restore {
 
     public void restore(final DBBroker broker, @Nullable final Txn transaction, final String newAdminPass, final Path f,
                         final RestoreListener listener, final boolean overwriteApps) throws EXistException, IOException, SAXException, PermissionDeniedException {
-        
+        restore(broker, transaction, newAdminPass, f, listener, overwriteApps, 1);
+    }
+
+    /**
+     * Restores a backup into the database.
+     *
+     * When {@code parallelism} is greater than 1, the collections of each backup descriptor
+     * are restored concurrently by up to {@code parallelism} threads. In that mode
+     * documents are stored with indexing disabled, and each restored collection
+     * is reindexed once all of its documents have been stored.
+     *
+     * @param broker the database broker
+     * @param transaction the transaction to use for the entire restore,
+     *                    or null if restoring each collection/resource
+     *                    should occur in its own transaction
+     * @param newAdminPass the new password for the admin user, or null to leave it unchanged
+     * @param f the backup directory, zip file, or backup descriptor
+     * @param listener the listener to report restore events to
+     * @param overwriteApps true if newer versions of apps in the database should be overwritten
+     * @param parallelism the maximum number of collections to restore concurrently
+     *
+     * @throws EXistException if the restore fails
+     * @throws IOException if the backup cannot be read
+     * @throws SAXException if a backup descriptor cannot be processed
+     * @throws PermissionDeniedException if the user does not have sufficient permissions
+     */
+    public void restore(final DBBroker broker, @Nullable final Txn transaction, final String newAdminPass, final Path f,
+                        RestoreListener listener, final boolean overwriteApps, final int parallelism) throws EXistException, IOException, SAXException, PermissionDeniedException {
+
+        @Nullable final ParallelRestoreExecutor executor;
+        if (parallelism > 1) {
+            listener = new SynchronizedRestoreListener(listener);
+            executor = new ParallelRestoreExecutor(broker.getBrokerPool(), broker.getCurrentSubject(), parallelism);
+        } else {
+            executor = null;
+        }
+
         //set the admin password
         if (newAdminPass != null) {
             setAdminCredentials(broker, newAdminPass);
@@ -77,11 +119,18 @@ public class Restore {
 
         // continue restore
         final XMLReaderPool parserPool = broker.getBrokerPool().getParserPool();
+        final boolean indexingEnabled = broker.isIndexingEnabled();
         XMLReader reader = null;
         try {
             reader = parserPool.borrowXMLReader();
             listener.started(totalNrOfFiles);
 
+            final List<XmldbURI> restoredCollections = new ArrayList<>();
+            if (executor != null) {
+                // indexing is deferred until all documents have been stored
+                broker.setIndexingEnabled(false);
+            }
+
             while(!descriptors.isEmpty()) {
                 final BackupDescriptor descriptor = descriptors.pop();
                 if (appsToSkip.contains(descriptor.getSymbolicPath())) {
@@ -91,14 +140,38 @@ public class Restore {
                     final EXistInputSource is = descriptor.getInputSource();
                     is.setEncoding(UTF_8.displayName());
 
-                    final RestoreHandler handler = new RestoreHandler(broker, transaction, descriptor, listener, appsToSkip);
+                    if (executor == null) {
+                        final RestoreHandler handler = new RestoreHandler(broker, transaction, descriptor, listener, appsToSkip);
+
+                        reader.setContentHandler(handler);
+                        reader.parse(is);
+                    } else {
+                        final RootCollectionRestoreHandler handler = new RootCollectionRestoreHandler(broker, transaction, descriptor, listener, appsToSkip, executor);
+
+                        reader.setContentHandler(handler);
+                        reader.parse(is);
+
+                        // descriptors must be restored in order, e.g. /db/system/security before /db
+                        executor.awaitCompletion();
 
-                    reader.setContentHandler(handler);
-                    reader.parse(is);
+                        if (handler.rootCollectionUri != null) {
+                            restoredCollections.add(handler.rootCollectionUri);
+                        }
+                    }
                 }
             }
 
+            if (executor != null) {
+                broker.setIndexingEnabled(indexingEnabled);
+                reindex(broker, transaction, restoredCollections, listener);
+            }
+
         } finally {
+            if (executor != null) {
+                executor.close();
+                broker.setIndexingEnabled(indexingEnabled);
+            }
+
             listener.finished();
 
             if (reader != null) {
@@ -106,7 +179,56 @@ public class Restore {
             }
         }
     }
-    
+
+    /**
+     * Reindexes the collections which were restored with indexing disabled.
+     *
+     * Each collection is reindexed only once, i.e. a collection which is
+     * a descendant of another restored collection is skipped.
+     */
+    private void reindex(final DBBroker broker, @Nullable final Txn transaction, final List<XmldbURI> restoredCollections,
+            final RestoreListener listener) throws EXistException, IOException, PermissionDeniedException {
+        restoredCollections.sort(Comparator.comparingInt(uri -> uri.getPathSegments().length));
+
+        final List<XmldbURI> reindexed = new ArrayList<>();
+        try (final Txn txn = transaction == null ? broker.continueOrBeginTransaction() : new Txn.ReusableTxn(transaction)) {
+            for (final XmldbURI collectionUri : restoredCollections) {
+                if (reindexed.stream().anyMatch(collectionUri::startsWith)) {
+                    continue;
+                }
+
+                listener.reindexingCollection(collectionUri.getCollectionPath());
+                broker.reindexCollection(txn, collectionUri);
+                reindexed.add(collectionUri);
+            }
+
+            txn.commit();
+        } catch (final LockException e) {
+            throw new EXistException("Unable to reindex restored collections: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Restores the root collection of a backup descriptor,
+     * and records its URI so that it can be reindexed later.
+     */
+    private static class RootCollectionRestoreHandler extends ParallelRestoreHandler {
+        @Nullable private XmldbURI rootCollectionUri;
+
+        RootCollectionRestoreHandler(final DBBroker broker, @Nullable final Txn transaction,
+                final BackupDescriptor descriptor, final RestoreListener listener,
+                final Set<String> pathsToIgnore, final ParallelRestoreExecutor executor) {
+            super(broker, transaction, descriptor, listener, pathsToIgnore, executor);
+        }
+
+        @Override
+        protected void notifyStartCollectionRestore(final XmldbURI collectionUri, final Attributes attributes) {
+            if (rootCollectionUri == null) {
+                rootCollectionUri = collectionUri;
+            }
+        }
+    }
+
     private Deque<BackupDescriptor> getBackupDescriptors(Path contents) throws IOException {
         final Deque<BackupDescriptor> descriptors = new ArrayDeque<>();
         
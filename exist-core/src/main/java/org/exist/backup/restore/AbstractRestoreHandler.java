@@ -272,32 +272,80 @@ public abstract class AbstractRestoreHandler extends DefaultHandler {
                         "is already installed.", subDescriptor.getNumberOfFiles());
                 return;
             }
-            final XMLReaderPool parserPool = broker.getBrokerPool().getXmlReaderPool();
-            XMLReader reader = null;
-            try {
-                reader = parserPool.borrowXMLReader();
-
-                final EXistInputSource is = subDescriptor.getInputSource();
-                is.setEncoding(UTF_8.displayName());
-
-                final AbstractRestoreHandler handler = newSelf(broker, transaction, subDescriptor, listener, pathsToIgnore);
-
-                reader.setContentHandler(handler);
-                reader.parse(is);
-            } catch(final SAXParseException se) {
-                listener.error("SAX exception while reading sub-collection " + subDescriptor.getSymbolicPath() + " for processing: " + se.getMessage());
-            } catch(final IOException ioe) {
-                listener.error("Could not read sub-collection for processing: " + ioe.getMessage());
-            } finally {
-                if (reader != null) {
-                    parserPool.returnXMLReader(reader);
-                }
-            }
+            restoreSubCollection(subDescriptor);
         } else {
             listener.error("Collection " + descriptor.getSymbolicPath(name, false) + " does not exist or is not readable.");
         }
     }
 
+    /**
+     * Restores a sub-collection by parsing its backup descriptor.
+     *
+     * By default the sub-collection is restored synchronously
+     * using the broker and transaction of this handler.
+     * Subclasses may override this to restore the sub-collection
+     * by other means.
+     *
+     * @param subDescriptor the backup descriptor of the sub-collection
+     *
+     * @throws SAXException if the sub-collection cannot be restored
+     */
+    protected void restoreSubCollection(final BackupDescriptor subDescriptor) throws SAXException {
+        restoreDescriptor(broker, subDescriptor, newSelf(broker, transaction, subDescriptor, listener, pathsToIgnore), listener);
+    }
+
+    /**
+     * Parses a backup descriptor and restores its
+     * contents using the provided handler.
+     *
+     * @param broker the database broker
+     * @param descriptor the backup descriptor to restore
+     * @param handler the handler to restore the descriptor with
+     * @param listener the listener to report restore events to
+     *
+     * @throws SAXException if the descriptor cannot be restored
+     */
+    static void restoreDescriptor(final DBBroker broker, final BackupDescriptor descriptor, final AbstractRestoreHandler handler, final RestoreListener listener)
+            throws SAXException {
+        final XMLReaderPool parserPool = broker.getBrokerPool().getXmlReaderPool();
+        XMLReader reader = null;
+        try {
+            reader = parserPool.borrowXMLReader();
+
+            final EXistInputSource is = descriptor.getInputSource();
+            is.setEncoding(UTF_8.displayName());
+
+            reader.setContentHandler(handler);
+            reader.parse(is);
+        } catch(final SAXParseException se) {
+            listener.error("SAX exception while reading sub-collection " + descriptor.getSymbolicPath() + " for processing: " + se.getMessage());
+        } catch(final IOException ioe) {
+            listener.error("Could not read sub-collection for processing: " + ioe.getMessage());
+        } finally {
+            if (reader != null) {
+                parserPool.returnXMLReader(reader);
+            }
+        }
+    }
+
+    /**
+     * Get the listener that restore events are reported to.
+     *
+     * @return the restore listener
+     */
+    protected RestoreListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Get the database paths to ignore in the backup.
+     *
+     * @return the paths to ignore, or null
+     */
+    protected @Nullable Set<String> getPathsToIgnore() {
+        return pathsToIgnore;
+    }
+
     private DeferredPermission restoreResourceEntry(final Attributes attributes) throws SAXException {
         final EntryCommonMetadataAttributes commonAttributes = EntryCommonMetadataAttributes.fromAttributes(attributes);
 
@@ -0,0 +1,124 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.backup.restore;
+
+import org.exist.EXistException;
+import org.exist.backup.BackupDescriptor;
+import org.exist.backup.restore.listener.RestoreListener;
+import org.exist.security.Subject;
+import org.exist.storage.BrokerPool;
+import org.exist.storage.DBBroker;
+import org.exist.util.NamedThreadFactory;
+import org.xml.sax.SAXException;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Restores the collections of a backup concurrently.
+ *
+ * Each collection descriptor is restored by a task
+ * which borrows its own broker from the pool. The
+ * broker has indexing disabled whilst documents are
+ * stored, the caller is expected to reindex the restored
+ * collections once {@link #awaitCompletion()} returns.
+ */
+public class ParallelRestoreExecutor implements AutoCloseable {
+
+    private final BrokerPool brokerPool;
+    private final Subject subject;
+    private final ExecutorService executorService;
+    private final Queue<Future<Void>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param brokerPool the database
+     * @param subject the subject to restore the collections as
+     * @param parallelism the maximum number of collections to restore concurrently
+     */
+    public ParallelRestoreExecutor(final BrokerPool brokerPool, final Subject subject, final int parallelism) {
+        this.brokerPool = brokerPool;
+        this.subject = subject;
+        this.executorService = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory(brokerPool, "restore"));
+    }
+
+    /**
+     * Schedules the restore of a collection descriptor.
+     *
+     * @param descriptor the backup descriptor of the collection
+     * @param listener the listener to report restore events to
+     * @param pathsToIgnore database paths to ignore in the backup
+     */
+    void submit(final BackupDescriptor descriptor, final RestoreListener listener, @Nullable final Set<String> pathsToIgnore) {
+        pending.add(executorService.submit(() -> {
+            try (final DBBroker broker = brokerPool.get(Optional.of(subject))) {
+                final boolean indexingEnabled = broker.isIndexingEnabled();
+                try {
+                    broker.setIndexingEnabled(false);
+                    final AbstractRestoreHandler handler = new ParallelRestoreHandler(broker, null, descriptor, listener, pathsToIgnore, this);
+                    AbstractRestoreHandler.restoreDescriptor(broker, descriptor, handler, listener);
+                } finally {
+                    broker.setIndexingEnabled(indexingEnabled);
+                }
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Waits until all scheduled collections, and any
+     * sub-collections that they in turn schedule,
+     * have been restored.
+     *
+     * @throws EXistException if a collection could not be restored
+     * @throws SAXException if a backup descriptor could not be processed
+     */
+    public void awaitCompletion() throws EXistException, SAXException {
+        // NOTE: a task schedules its sub-collections before it completes, so once the queue is drained all tasks are done
+        Future<Void> future;
+        while ((future = pending.poll()) != null) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EXistException("Interrupted whilst waiting for restore to complete", e);
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof SAXException) {
+                    throw (SAXException) cause;
+                }
+                throw new EXistException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.backup.restore;
+
+import org.exist.backup.BackupDescriptor;
+import org.exist.backup.restore.listener.RestoreListener;
+import org.exist.storage.DBBroker;
+import org.exist.storage.txn.Txn;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * SAX Content Handler that restores the contents
+ * of a Backup Descriptor into the database, whilst
+ * handing each of its sub-collections to a
+ * {@link ParallelRestoreExecutor} so that they may
+ * be restored concurrently.
+ */
+public class ParallelRestoreHandler extends AbstractRestoreHandler {
+
+    private final ParallelRestoreExecutor executor;
+
+    /**
+     * @param broker the database broker
+     * @param transaction the transaction to use for the entire restore,
+     *                    or null if restoring each collection/resource
+     *                    should occur in its own transaction
+     * @param descriptor the backup descriptor to start restoring from
+     * @param listener the listener to report restore events to
+     * @param pathsToIgnore database paths to ignore in the backup
+     * @param executor the executor to restore sub-collections with
+     */
+    public ParallelRestoreHandler(final DBBroker broker, @Nullable final Txn transaction,
+            final BackupDescriptor descriptor, final RestoreListener listener,
+            @Nullable final Set<String> pathsToIgnore, final ParallelRestoreExecutor executor) {
+        super(broker, transaction, descriptor, listener, pathsToIgnore);
+        this.executor = executor;
+    }
+
+    @Override
+    protected void restoreSubCollection(final BackupDescriptor subDescriptor) {
+        executor.submit(subDescriptor, getListener(), getPathsToIgnore());
+    }
+
+    @Override
+    protected AbstractRestoreHandler newSelf(final DBBroker broker, @Nullable final Txn transaction,
+            final BackupDescriptor descriptor, final RestoreListener listener,
+            @Nullable final Set<String> pathsToIgnore) {
+        return new ParallelRestoreHandler(broker, transaction, descriptor, listener, pathsToIgnore, executor);
+    }
+}
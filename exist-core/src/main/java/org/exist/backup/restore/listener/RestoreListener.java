@@ -42,5 +42,15 @@ public interface RestoreListener {
 
     void error(String message);
 
+    /**
+     * Called when the indexes of a restored collection,
+     * whose indexing was deferred during the restore, are being rebuilt.
+     *
+     * @param collection the path of the collection being reindexed
+     */
+    default void reindexingCollection(final String collection) {
+        info("Reindexing collection " + collection);
+    }
+
     void finished();
 }
\ No newline at end of file
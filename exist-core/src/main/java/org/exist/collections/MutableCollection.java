@@ -1089,6 +1089,8 @@ public class MutableCollection implements Collection {
 
                     trigger.afterDeleteDocument(broker, transaction, doc.getURI());
 
+                    broker.getBrokerPool().getNotificationService().notifyUpdate(doc, UpdateListener.REMOVE);
+
                 } finally {
                     broker.getBrokerPool().getProcessMonitor().endJob();
                 }
@@ -91,12 +91,12 @@ public class AttrImpl extends NodeImpl implements Attr {
 
     @Override
     public String getValue() {
-        return document.attrValue[nodeNumber];
+        return document.getAttrValue(nodeNumber);
     }
 
     @Override
     public void setValue(final String value) throws DOMException {
-        document.attrValue[nodeNumber] = value;
+        document.setAttrValue(nodeNumber, value);
     }
 
     @Override
@@ -113,7 +113,7 @@ public class AttrImpl extends NodeImpl implements Attr {
 
     @Override
     public String getStringValue() throws DOMException {
-        return document.attrValue[nodeNumber];
+        return document.getAttrValue(nodeNumber);
     }
 
     @Override
@@ -203,7 +203,7 @@ public class AttrImpl extends NodeImpl implements Attr {
 
         if(obj instanceof AttrImpl other) {
             return other.getQName().equals(getQName())
-                    && other.document.attrValue[nodeNumber].equals(document.attrValue[nodeNumber]);
+                    && other.document.getAttrValue(nodeNumber).equals(document.getAttrValue(nodeNumber));
         }
 
         return false;
@@ -197,7 +197,7 @@ public class DOMIndexer {
                     break;
                 }
                 final ElementImpl last = stack.peek();
-                text.setData(new String(doc.characters, doc.alpha[nodeNr], doc.alphaLen[nodeNr]));
+                text.setData(doc.getChars(nodeNr));
                 text.setOwnerDocument(targetDoc);
                 last.appendChildInternal(prevNode, text);
                 setPrevious(text);
@@ -208,7 +208,8 @@ public class DOMIndexer {
             case Node.CDATA_SECTION_NODE: {
                 final ElementImpl last = stack.peek();
                 final org.exist.dom.persistent.CDATASectionImpl cdata = (org.exist.dom.persistent.CDATASectionImpl) NodePool.getInstance().borrowNode(Node.CDATA_SECTION_NODE);
-                cdata.setData(doc.characters, doc.alpha[nodeNr], doc.alphaLen[nodeNr]);
+                final char[] data = doc.getCharArray(nodeNr);
+                cdata.setData(data, 0, data.length);
                 cdata.setOwnerDocument(targetDoc);
                 last.appendChildInternal(prevNode, cdata);
                 setPrevious(cdata);
@@ -217,7 +218,8 @@ public class DOMIndexer {
             }
 
             case Node.COMMENT_NODE: {
-                comment.setData(doc.characters, doc.alpha[nodeNr], doc.alphaLen[nodeNr]);
+                final char[] data = doc.getCharArray(nodeNr);
+                comment.setData(data, 0, data.length);
                 comment.setOwnerDocument(targetDoc);
                 if(stack.isEmpty()) {
                     comment.setNodeId(NodeId.DOCUMENT_NODE);
@@ -235,7 +237,7 @@ public class DOMIndexer {
             case Node.PROCESSING_INSTRUCTION_NODE: {
                 final QName qn = doc.nodeName[nodeNr];
                 pi.setTarget(qn.getLocalPart());
-                pi.setData(new String(doc.characters, doc.alpha[nodeNr], doc.alphaLen[nodeNr]));
+                pi.setData(doc.getChars(nodeNr));
                 pi.setOwnerDocument(targetDoc);
                 if(stack.isEmpty()) {
                     pi.setNodeId(NodeId.DOCUMENT_NODE);
@@ -311,7 +313,7 @@ public class DOMIndexer {
                 final QName qn = doc.attrName[attr];
                 final AttrImpl attrib = (AttrImpl) NodePool.getInstance().borrowNode(Node.ATTRIBUTE_NODE);
                 attrib.setNodeName(qn, broker.getBrokerPool().getSymbols());
-                attrib.setValue(doc.attrValue[attr]);
+                attrib.setValue(doc.getAttrValue(attr));
                 attrib.setOwnerDocument(targetDoc);
                 elem.appendChildInternal(prevNode, attrib);
                 setPrevious(attrib);
@@ -28,6 +28,7 @@ import org.exist.util.serializer.AttrList;
 import org.exist.util.serializer.Receiver;
 import org.exist.xquery.Expression;
 import org.exist.xquery.XQueryContext;
+import org.exist.xquery.value.NodeValue;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.xml.sax.Attributes;
@@ -189,6 +190,14 @@ public class DocumentBuilderReceiver implements ContentHandler, LexicalHandler,
         builder.addReferenceNode(proxy);
     }
 
+    public void addReferenceNode(final NodeValue node) throws SAXException {
+        if(node instanceof NodeProxy) {
+            builder.addReferenceNode((NodeProxy) node);
+        } else {
+            builder.addReferenceNode((NodeImpl) node);
+        }
+    }
+
     public void addNamespaceNode(final QName qname) throws SAXException {
         builder.namespaceNode(qname, checkNS);
     }
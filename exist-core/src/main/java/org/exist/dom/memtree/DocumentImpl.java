@@ -42,6 +42,7 @@ import org.exist.xquery.Expression;
 import org.exist.xquery.NodeTest;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.XQueryContext;
+import org.exist.xquery.value.NodeValue;
 import org.exist.xquery.value.Sequence;
 import org.exist.xquery.value.Type;
 import org.w3c.dom.*;
@@ -49,7 +50,6 @@ import org.xml.sax.SAXException;
 
 import javax.xml.XMLConstants;
 import java.util.Arrays;
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -95,7 +95,6 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
 
     private static final int NODE_SIZE = 16;
     private static final int ATTR_SIZE = 8;
-    private static final int CHAR_BUF_SIZE = 256;
     private static final int REF_SIZE = 8;
 
     // holds the node type of a node
@@ -115,15 +114,16 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
     //alphanumeric content
     protected int[] alpha;
     protected int[] alphaLen;
-    protected char[] characters = null;
-    protected int nextChar = 0;
+    protected TextBuffer characters = null;
 
     // attributes
     protected QName[] attrName;
     protected int[] attrType;
     protected NodeId[] attrNodeId;
     protected int[] attrParent;
-    protected String[] attrValue;
+    protected int[] attrValue;
+    protected int[] attrValueLen;
+    protected TextBuffer attrValueChars = null;
     protected int nextAttr = 0;
 
     // namespaces
@@ -138,9 +138,11 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
 
     protected String documentURI = null;
 
-    // reference nodes (link to an external, persistent document fragment)
-    protected NodeProxy[] references = null;
+    // reference nodes (link to an external, persistent or in-memory, document fragment)
+    protected NodeValue[] references = null;
     protected int nextReferenceIdx = 0;
+    // the number of the first reference node, or -1 if there is none
+    protected int firstReferenceNode = -1;
     // end reference nodes
 
 
@@ -192,9 +194,12 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         alpha = new int[NODE_SIZE];
         alphaLen = new int[NODE_SIZE];
         Arrays.fill(alphaLen, -1);
+        characters = new TextBuffer();
         attrName = new QName[ATTR_SIZE];
         attrParent = new int[ATTR_SIZE];
-        attrValue = new String[ATTR_SIZE];
+        attrValue = new int[ATTR_SIZE];
+        attrValueLen = new int[ATTR_SIZE];
+        attrValueChars = new TextBuffer();
         attrType = new int[ATTR_SIZE];
         attrNodeId = new NodeId[NODE_SIZE];
         treeLevel[0] = 0;
@@ -204,10 +209,12 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
 
     public void reset() {
         size = 0;
-        nextChar = 0;
+        characters = new TextBuffer();
         nextAttr = 0;
+        attrValueChars = new TextBuffer();
         nextReferenceIdx = 0;
         references = null;
+        firstReferenceNode = -1;
     }
 
     public int getSize() {
@@ -241,91 +248,152 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         if(nodeKind == null) {
             init();
         }
-        if(characters == null) {
-            characters = new char[len > CHAR_BUF_SIZE ? len : CHAR_BUF_SIZE];
-        } else if((nextChar + len) >= characters.length) {
-            int newLen = (characters.length * 3) / 2;
-            if(newLen < (nextChar + len)) {
-                newLen = nextChar + len;
-            }
-            final char[] nc = new char[newLen];
-            System.arraycopy(characters, 0, nc, 0, characters.length);
-            characters = nc;
-        }
-        alpha[nodeNum] = nextChar;
+        alpha[nodeNum] = characters.append(ch, start, len);
         alphaLen[nodeNum] = len;
-        System.arraycopy(ch, start, characters, nextChar, len);
-        nextChar += len;
     }
 
     public void addChars(final int nodeNum, final CharSequence s) {
         if(nodeKind == null) {
             init();
         }
-        int len = (s == null) ? 0 : s.length();
-        if(characters == null) {
-            characters = new char[(len > CHAR_BUF_SIZE) ? len : CHAR_BUF_SIZE];
-        } else if((nextChar + len) >= characters.length) {
-            int newLen = (characters.length * 3) / 2;
-            if(newLen < (nextChar + len)) {
-                newLen = nextChar + len;
-            }
-            final char[] nc = new char[newLen];
-            System.arraycopy(characters, 0, nc, 0, characters.length);
-            characters = nc;
-        }
-        alpha[nodeNum] = nextChar;
-        alphaLen[nodeNum] = len;
-        for(int i = 0; i < len; i++) {
-            characters[nextChar++] = s.charAt(i);
-        }
+        alpha[nodeNum] = s == null ? characters.length() : characters.append(s);
+        alphaLen[nodeNum] = s == null ? 0 : s.length();
     }
 
     public void appendChars(final int nodeNum, final char[] ch, final int start, final int len) {
-        if(characters == null) {
-            characters = new char[(len > CHAR_BUF_SIZE) ? len : CHAR_BUF_SIZE];
-        } else if((nextChar + len) >= characters.length) {
-            int newLen = (characters.length * 3) / 2;
-            if(newLen < (nextChar + len)) {
-                newLen = nextChar + len;
-            }
-            final char[] nc = new char[newLen];
-            System.arraycopy(characters, 0, nc, 0, characters.length);
-            characters = nc;
-        }
+        relocateChars(nodeNum);
+        characters.append(ch, start, len);
         alphaLen[nodeNum] = alphaLen[nodeNum] + len;
-        System.arraycopy(ch, start, characters, nextChar, len);
-        nextChar += len;
     }
 
     public void appendChars(final int nodeNum, final CharSequence s) {
-        final int len = s.length();
-        if(characters == null) {
-            characters = new char[(len > CHAR_BUF_SIZE) ? len : CHAR_BUF_SIZE];
-        } else if((nextChar + len) >= characters.length) {
-            int newLen = (characters.length * 3) / 2;
-            if(newLen < (nextChar + len)) {
-                newLen = nextChar + len;
-            }
-            final char[] nc = new char[newLen];
-            System.arraycopy(characters, 0, nc, 0, characters.length);
-            characters = nc;
+        relocateChars(nodeNum);
+        characters.append(s);
+        alphaLen[nodeNum] = alphaLen[nodeNum] + s.length();
+    }
+
+    /**
+     * Replace the characters of a node.
+     *
+     * The characters buffer is append-only, so the new
+     * characters are appended and the node is pointed at them.
+     *
+     * @param nodeNum the node
+     * @param s the new characters of the node
+     */
+    void replaceChars(final int nodeNum, final CharSequence s) {
+        alpha[nodeNum] = characters.append(s);
+        alphaLen[nodeNum] = s.length();
+    }
+
+    /**
+     * Ensures that the characters of a node are at the end of
+     * the characters buffer, so that they may be appended to.
+     *
+     * @param nodeNum the node
+     */
+    private void relocateChars(final int nodeNum) {
+        if(alpha[nodeNum] + alphaLen[nodeNum] != characters.length()) {
+            alpha[nodeNum] = characters.append(characters.getString(alpha[nodeNum], alphaLen[nodeNum]));
         }
-        alphaLen[nodeNum] = alphaLen[nodeNum] + len;
-        for(int i = 0; i < len; i++) {
-            characters[nextChar++] = s.charAt(i);
+    }
+
+    /**
+     * Get the characters of a node as a string.
+     *
+     * @param nodeNum the node
+     *
+     * @return the characters of the node
+     */
+    String getChars(final int nodeNum) {
+        return characters.getString(alpha[nodeNum], alphaLen[nodeNum]);
+    }
+
+    /**
+     * Get a copy of the characters of a node.
+     *
+     * @param nodeNum the node
+     *
+     * @return the characters of the node
+     */
+    char[] getCharArray(final int nodeNum) {
+        return characters.getChars(alpha[nodeNum], alphaLen[nodeNum]);
+    }
+
+    /**
+     * Get the value of an attribute.
+     *
+     * @param attrNum the attribute
+     *
+     * @return the value of the attribute, or null if it has no value
+     */
+    String getAttrValue(final int attrNum) {
+        final int len = attrValueLen[attrNum];
+        return len < 0 ? null : attrValueChars.getString(attrValue[attrNum], len);
+    }
+
+    /**
+     * Compare the value of an attribute with a string,
+     * without creating a string from the attribute value.
+     *
+     * @param attrNum the attribute
+     * @param value the string
+     *
+     * @return true if the attribute has a value equal to the string
+     */
+    boolean attrValueEquals(final int attrNum, final String value) {
+        final int len = attrValueLen[attrNum];
+        return len >= 0 && attrValueChars.contentEquals(attrValue[attrNum], len, value);
+    }
+
+    /**
+     * Set the value of an attribute.
+     *
+     * The attribute values buffer is append-only, so a
+     * replaced value remains in the buffer unreferenced.
+     *
+     * @param attrNum the attribute
+     * @param value the value of the attribute
+     */
+    void setAttrValue(final int attrNum, final String value) {
+        if(value == null) {
+            attrValue[attrNum] = attrValueChars.length();
+            attrValueLen[attrNum] = -1;
+        } else {
+            attrValue[attrNum] = attrValueChars.append(value);
+            attrValueLen[attrNum] = value.length();
         }
     }
 
-    public void addReferenceNode(final int nodeNum, final NodeProxy proxy) {
+    public void addReferenceNode(final int nodeNum, final NodeValue node) {
         if(nodeKind == null) {
             init();
         }
         if((references == null) || (nextReferenceIdx == references.length)) {
             growReferences();
         }
-        references[nextReferenceIdx] = proxy;
+        references[nextReferenceIdx] = node;
         alpha[nodeNum] = nextReferenceIdx++;
+        if(firstReferenceNode < 0 || nodeNum < firstReferenceNode) {
+            firstReferenceNode = nodeNum;
+        }
+    }
+
+    /**
+     * Determines if a node of this document may be referenced from another
+     * in-memory document instead of being copied into it.
+     *
+     * Expanding the reference nodes of this document renumbers the nodes
+     * which follow them, so only a node which is not preceded by a
+     * reference node keeps its number.
+     *
+     * @param nodeNum the node
+     *
+     * @return true if the node may be referenced
+     */
+    public boolean isReferenceable(final int nodeNum) {
+        // a reference node which was replaced by text may still be recorded, which only errs on the side of copying
+        return firstReferenceNode < 0 || nodeNum < firstReferenceNode;
     }
 
     public boolean hasReferenceNodes() {
@@ -354,7 +422,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
             final QName prevQn = attrName[attrN];
             if(prevQn.equals(qname)) {
                 if(replaceAttribute) {
-                    attrValue[attrN] = value;
+                    setAttrValue(attrN, value);
                     attrType[attrN] = type;
                     return attrN;
                 } else {
@@ -369,7 +437,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         final QName attrQname = new QName(qname.getLocalPart(), qname.getNamespaceURI(), qname.getPrefix(), ElementValue.ATTRIBUTE);
         attrParent[nextAttr] = nodeNum;
         attrName[nextAttr] = namePool.getSharedName(attrQname);
-        attrValue[nextAttr] = value;
+        setAttrValue(nextAttr, value);
         attrType[nextAttr] = type;
         if(alpha[nodeNum] < 0) {
             alpha[nodeNum] = nextAttr;
@@ -461,10 +529,14 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         System.arraycopy(attrParent, 0, newAttrParent, 0, size);
         attrParent = newAttrParent;
 
-        final String[] newAttrValue = new String[newSize];
+        final int[] newAttrValue = new int[newSize];
         System.arraycopy(attrValue, 0, newAttrValue, 0, size);
         attrValue = newAttrValue;
 
+        final int[] newAttrValueLen = new int[newSize];
+        System.arraycopy(attrValueLen, 0, newAttrValueLen, 0, size);
+        attrValueLen = newAttrValueLen;
+
         final int[] newAttrType = new int[newSize];
         System.arraycopy(attrType, 0, newAttrType, 0, size);
         attrType = newAttrType;
@@ -476,11 +548,11 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
 
     private void growReferences() {
         if(references == null) {
-            references = new NodeProxy[REF_SIZE];
+            references = new NodeValue[REF_SIZE];
         } else {
             final int size = references.length;
             final int newSize = (size * 3) / 2;
-            final NodeProxy[] newReferences = new NodeProxy[newSize];
+            final NodeValue[] newReferences = new NodeValue[newSize];
             System.arraycopy(references, 0, newReferences, 0, size);
             references = newReferences;
         }
@@ -769,10 +841,10 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         if(-1 < attr) {
             while((attr < document.nextAttr) && (document.attrParent[attr] == nodeNumber)) {
                 if((document.attrType[attr] == AttrImpl.ATTR_ID_TYPE) &&
-                        id.equals(document.attrValue[attr])) {
+                        document.attrValueEquals(attr, id)) {
                     return true;
                 } else if (document.attrName[attr].getLocalPart().equals("id") &&
-                           Objects.equals(document.attrValue[attr], id)) {
+                           document.attrValueEquals(attr, id)) {
                     return true;
                 }
                 ++attr;
@@ -786,7 +858,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         if(-1 < attr) {
             while((attr < document.nextAttr) && (document.attrParent[attr] == nodeNumber)) {
                 if (document.attrName[attr].getStringValue().equals(Namespaces.XSI_TYPE_QNAME.getStringValue()) &&
-                        document.attrValue[attr].equals(Namespaces.XS_ID_QNAME.getStringValue()) &&
+                        document.attrValueEquals(attr, Namespaces.XS_ID_QNAME.getStringValue()) &&
                         document.getNode(nodeNumber).getStringValue().equals(id)) {
                     return true;
                 }
@@ -801,7 +873,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         if(-1 < attr) {
             while((attr < document.nextAttr) && (document.attrParent[attr] == nodeNumber)) {
                 if((document.attrType[attr] == AttrImpl.ATTR_IDREF_TYPE) &&
-                    id.equals(document.attrValue[attr])) {
+                    document.attrValueEquals(attr, id)) {
                     return new AttrImpl(getExpression(), this, attr);
                 }
                 ++attr;
@@ -1132,7 +1204,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
                 if(-1 < attr) {
                     while((attr < document.nextAttr) && (document.attrParent[attr] == nr)) {
                         final QName attrQName = document.attrName[attr];
-                        receiver.attribute(attrQName, attrValue[attr]);
+                        receiver.attribute(attrQName, document.getAttrValue(attr));
                         ++attr;
                     }
                 }
@@ -1147,34 +1219,41 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
                 break;
             }
             case Node.TEXT_NODE:
-                receiver.characters(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                receiver.characters(document.getChars(nr));
                 break;
             case Node.CDATA_SECTION_NODE:
-                receiver.cdataSection(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                final char[] cdata = document.getCharArray(nr);
+                receiver.cdataSection(cdata, 0, cdata.length);
                 break;
             case Node.ATTRIBUTE_NODE:
                 final QName attrQName = document.attrName[nr];
-                receiver.attribute(attrQName, attrValue[nr]);
+                receiver.attribute(attrQName, document.getAttrValue(nr));
                 break;
             case Node.COMMENT_NODE:
-                receiver.comment(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                final char[] comment = document.getCharArray(nr);
+                receiver.comment(comment, 0, comment.length);
                 break;
             case Node.PROCESSING_INSTRUCTION_NODE:
                 final QName piQName = document.nodeName[nr];
-                final String data = new String(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                final String data = document.getChars(nr);
                 receiver.processingInstruction(piQName.getLocalPart(), data);
                 break;
             case NodeImpl.NAMESPACE_NODE:
                 receiver.addNamespaceNode(document.namespaceCode[nr]);
                 break;
             case NodeImpl.REFERENCE_NODE:
-                if(expandRefs) {
+                final NodeValue reference = document.references[document.alpha[nr]];
+                if(expandRefs && reference instanceof NodeImpl) {
+                    // copy the in-memory fragment, expanding any references that it holds itself
+                    final NodeImpl fragment = (NodeImpl) reference;
+                    fragment.document.copyTo(fragment, receiver, true);
+                } else if(expandRefs) {
                     try(final DBBroker broker = getDatabase().getBroker()) {
                         final Serializer serializer = broker.borrowSerializer();
                         try {
                             serializer.setProperty(Serializer.GENERATE_DOC_EVENTS, "false");
                             serializer.setReceiver(receiver);
-                            serializer.toReceiver(document.references[document.alpha[nr]], false, false);
+                            serializer.toReceiver((NodeProxy) reference, false, false);
                         } finally {
                             broker.returnSerializer(serializer);
                         }
@@ -1182,7 +1261,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
                         throw new SAXException(e);
                     }
                 } else {
-                    receiver.addReferenceNode(document.references[document.alpha[nr]]);
+                    receiver.addReferenceNode(reference);
                 }
                 break;
         }
@@ -1197,7 +1276,8 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
 
     /**
      * Expand all reference nodes in the current document, i.e. replace them by real nodes. Reference nodes are just pointers to nodes from other
-     * documents stored in the database. The XQuery engine uses reference nodes to speed up the creation of temporary doc fragments.
+     * documents, either stored in the database or held in memory. The XQuery engine uses reference nodes to speed up the creation of temporary
+     * doc fragments.
      *
      * This method creates a new copy of the document contents and expands all reference nodes.
      *
@@ -1221,7 +1301,8 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
             final MemTreeBuilder builder = new MemTreeBuilder(getExpression(), context);
             final DocumentBuilderReceiver receiver = new DocumentBuilderReceiver(getExpression(), builder);
             try {
-                builder.startDocument();
+                // a copy of the whole document is still a document node if this one is
+                builder.startDocument(rootNode == null && explicitlyCreated);
                 NodeImpl node = (rootNode == null) ? (NodeImpl) getFirstChild() : rootNode;
                 while(node != null) {
                     copyTo(node, receiver, true);
@@ -1305,11 +1386,12 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         alpha = newDoc.alpha;
         alphaLen = newDoc.alphaLen;
         characters = newDoc.characters;
-        nextChar = newDoc.nextChar;
         attrName = newDoc.attrName;
         attrNodeId = newDoc.attrNodeId;
         attrParent = newDoc.attrParent;
         attrValue = newDoc.attrValue;
+        attrValueLen = newDoc.attrValueLen;
+        attrValueChars = newDoc.attrValueChars;
         attrType = newDoc.attrType;
         nextAttr = newDoc.nextAttr;
         namespaceParent = newDoc.namespaceParent;
@@ -1319,6 +1401,7 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
         documentRootNode = newDoc.documentRootNode;
         references = newDoc.references;
         nextReferenceIdx = newDoc.nextReferenceIdx;
+        firstReferenceNode = newDoc.firstReferenceNode;
     }
 
     /**
@@ -1388,33 +1471,39 @@ public class DocumentImpl extends NodeImpl<DocumentImpl> implements Document {
                     attribs = new AttrList();
                     while((attr < document.nextAttr) && (document.attrParent[attr] == nr)) {
                         final QName attrQName = document.attrName[attr];
-                        attribs.addAttribute(attrQName, attrValue[attr]);
+                        attribs.addAttribute(attrQName, document.getAttrValue(attr));
                         ++attr;
                     }
                 }
                 receiver.startElement(nodeName, attribs);
                 break;
             case Node.TEXT_NODE:
-                receiver.characters(new String(document.characters, document.alpha[nr],
-                    document.alphaLen[nr]));
+                receiver.characters(document.getChars(nr));
                 break;
             case Node.ATTRIBUTE_NODE:
                 final QName attrQName = document.attrName[nr];
-                receiver.attribute(attrQName, attrValue[nr]);
+                receiver.attribute(attrQName, document.getAttrValue(nr));
                 break;
             case Node.COMMENT_NODE:
-                receiver.comment(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                final char[] comment = document.getCharArray(nr);
+                receiver.comment(comment, 0, comment.length);
                 break;
             case Node.PROCESSING_INSTRUCTION_NODE:
                 final QName qn = document.nodeName[nr];
-                final String data = new String(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                final String data = document.getChars(nr);
                 receiver.processingInstruction(qn.getLocalPart(), data);
                 break;
             case Node.CDATA_SECTION_NODE:
-                receiver.cdataSection(document.characters, document.alpha[nr], document.alphaLen[nr]);
+                final char[] cdata = document.getCharArray(nr);
+                receiver.cdataSection(cdata, 0, cdata.length);
                 break;
             case NodeImpl.REFERENCE_NODE:
-                serializer.toReceiver(document.references[document.alpha[nr]], true, false);
+                final NodeValue reference = document.references[document.alpha[nr]];
+                if(reference instanceof NodeImpl) {
+                    ((NodeImpl) reference).streamTo(serializer, receiver);
+                } else {
+                    serializer.toReceiver((NodeProxy) reference, true, false);
+                }
                 break;
         }
     }
@@ -230,7 +230,7 @@ public class InMemoryXMLStreamReader implements ExtendedXMLStreamReader {
             final QName qname = doc.attrName[attrStart + i];
 
             if((namespaceURI == null || namespaceURI.equals(qname.getNamespaceURI())) && localName.equals(qname.getLocalPart())) {
-                return doc.attrValue[attrStart + i];
+                return doc.getAttrValue(attrStart + i);
             }
         }
         return null;
@@ -330,7 +330,7 @@ public class InMemoryXMLStreamReader implements ExtendedXMLStreamReader {
             throw new ArrayIndexOutOfBoundsException();
         }
         final int attr = doc.alpha[currentNode];
-        return doc.attrValue[attr + index];
+        return doc.getAttrValue(attr + index);
     }
 
     @Override
@@ -382,16 +382,14 @@ public class InMemoryXMLStreamReader implements ExtendedXMLStreamReader {
     @Override
     public String getText() {
         if(state == CHARACTERS || state == COMMENT || state == CDATA) {
-            return new String(doc.characters, doc.alpha[currentNode], doc.alphaLen[currentNode]);
+            return doc.getChars(currentNode);
         }
         return "";
     }
 
     @Override
     public char[] getTextCharacters() {
-        final char[] ch = new char[doc.alphaLen[currentNode]];
-        System.arraycopy(doc.characters, doc.alpha[currentNode], ch, 0, ch.length);
-        return ch;
+        return doc.getCharArray(currentNode);
     }
 
     @Override
@@ -485,7 +483,7 @@ public class InMemoryXMLStreamReader implements ExtendedXMLStreamReader {
 
     @Override
     public String getPIData() {
-        return new String(doc.characters, doc.alpha[currentNode], doc.alphaLen[currentNode]);
+        return doc.getChars(currentNode);
     }
 
     /**
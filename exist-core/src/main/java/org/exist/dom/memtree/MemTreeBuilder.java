@@ -28,6 +28,7 @@ import org.exist.dom.persistent.NodeProxy;
 import org.exist.xquery.Constants;
 import org.exist.xquery.Expression;
 import org.exist.xquery.XQueryContext;
+import org.exist.xquery.value.Type;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Node;
 import org.xml.sax.Attributes;
@@ -259,11 +260,11 @@ public class MemTreeBuilder {
                 // check if the previous node is a reference node. if yes, check if it is a text node
                 final int p = doc.alpha[lastNode];
 
-                if((doc.references[p].getNodeType() == Node.TEXT_NODE) && (proxy.getNodeType() == Node.TEXT_NODE)) {
+                if((doc.references[p].getType() == Type.TEXT) && (proxy.getNodeType() == Node.TEXT_NODE)) {
 
                     // found a text node reference. create a new char sequence containing
                     // the concatenated text of both nodes
-                    final String s = doc.references[p].getStringValue() + proxy.getStringValue();
+                    final String s = ((NodeProxy) doc.references[p]).getStringValue() + proxy.getStringValue();
                     doc.replaceReferenceNode(lastNode, s);
                     return lastNode;
                 }
@@ -276,6 +277,21 @@ public class MemTreeBuilder {
     }
 
 
+    /**
+     * Add a reference to a node of another in-memory document, the node
+     * is only copied into this document if the reference is expanded.
+     *
+     * @param node the node to refer to
+     *
+     * @return the number of the reference node
+     */
+    public int addReferenceNode(final NodeImpl node) {
+        final int nodeNr = doc.addNode(NodeImpl.REFERENCE_NODE, level, null);
+        doc.addReferenceNode(nodeNr, node);
+        linkNode(nodeNr);
+        return nodeNr;
+    }
+
     public int addAttribute(final QName qname, final String value) {
         final int lastNode = doc.getLastNode();
 
@@ -320,11 +336,11 @@ public class MemTreeBuilder {
                 // check if the previous node is a reference node. if yes, check if it is a text node
                 final int p = doc.alpha[lastNode];
 
-                if(doc.references[p].getNodeType() == Node.TEXT_NODE) {
+                if(doc.references[p].getType() == Type.TEXT) {
 
                     // found a text node reference. create a new char sequence containing
                     // the concatenated text of both nodes
-                    final StringBuilder s = new StringBuilder(doc.references[p].getStringValue());
+                    final StringBuilder s = new StringBuilder(((NodeProxy) doc.references[p]).getStringValue());
                     s.append(ch, start, len);
                     doc.replaceReferenceNode(lastNode, s);
                     return lastNode;
@@ -367,11 +383,11 @@ public class MemTreeBuilder {
                 // check if the previous node is a reference node. if yes, check if it is a text node
                 final int p = doc.alpha[lastNode];
 
-                if((doc.references[p].getNodeType() == Node.TEXT_NODE) || (doc.references[p].getNodeType() == Node.CDATA_SECTION_NODE)) {
+                if((doc.references[p].getType() == Type.TEXT) || (doc.references[p].getType() == Type.CDATA_SECTION)) {
 
                     // found a text node reference. create a new char sequence containing
                     // the concatenated text of both nodes
-                    doc.replaceReferenceNode(lastNode, doc.references[p].getStringValue() + s);
+                    doc.replaceReferenceNode(lastNode, ((NodeProxy) doc.references[p]).getStringValue() + s);
                     return lastNode;
                 }
                 // fall through and add the node below
@@ -418,11 +434,11 @@ public class MemTreeBuilder {
                 // check if the previous node is a reference node. if yes, check if it is a text node
                 final int p = doc.alpha[lastNode];
 
-                if((doc.references[p].getNodeType() == Node.TEXT_NODE) || (doc.references[p].getNodeType() == Node.CDATA_SECTION_NODE)) {
+                if((doc.references[p].getType() == Type.TEXT) || (doc.references[p].getType() == Type.CDATA_SECTION)) {
 
                     // found a text node reference. create a new char sequence containing
                     // the concatenated text of both nodes
-                    doc.replaceReferenceNode(lastNode, doc.references[p].getStringValue() + data);
+                    doc.replaceReferenceNode(lastNode, ((NodeProxy) doc.references[p]).getStringValue() + data);
                     return lastNode;
                 }
                 // fall through and add the node below
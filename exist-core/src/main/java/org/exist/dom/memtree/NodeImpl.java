@@ -30,6 +30,7 @@ import org.exist.dom.QName;
 import org.exist.dom.persistent.DocumentSet;
 import org.exist.dom.persistent.EmptyNodeSet;
 import org.exist.dom.persistent.NodeHandle;
+import org.exist.dom.persistent.NodeProxy;
 import org.exist.dom.persistent.NodeSet;
 import org.exist.numbering.NodeId;
 import org.exist.storage.DBBroker;
@@ -453,15 +454,18 @@ public abstract class NodeImpl<T extends NodeImpl<T>> implements INode<DocumentI
                 if(len < 0) {
                     startOffset = document.alpha[next];
                     len = document.alphaLen[next];
-                } else {
+                } else if(document.alpha[next] == startOffset + len) {
                     len += document.alphaLen[next];
+                } else {
+                    // characters of the nodes are not contiguous, e.g. after an update
+                    return getStringValueSlow();
                 }
             } else {
                 return getStringValueSlow();
             }
             ++next;
         }
-        return len < 0 ? "" : new String(document.characters, startOffset, len);
+        return len < 0 ? "" : document.characters.getString(startOffset, len);
     }
 
     private String getStringValueSlow() {
@@ -477,14 +481,19 @@ public abstract class NodeImpl<T extends NodeImpl<T>> implements INode<DocumentI
                     if(buf == null) {
                         buf = new StringBuilder();
                     }
-                    buf.append(document.characters, document.alpha[next], document.alphaLen[next]);
+                    document.characters.appendTo(buf, document.alpha[next], document.alphaLen[next]);
                     break;
                 }
                 case REFERENCE_NODE: {
                     if(buf == null) {
                         buf = new StringBuilder();
                     }
-                    buf.append(document.references[document.alpha[next]].getStringValue());
+                    final NodeValue reference = document.references[document.alpha[next]];
+                    if(reference instanceof NodeProxy) {
+                        buf.append(((NodeProxy) reference).getStringValue());
+                    } else {
+                        buf.append(((NodeImpl) reference).getStringValue());
+                    }
                     break;
                 }
             }
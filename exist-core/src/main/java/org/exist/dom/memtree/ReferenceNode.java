@@ -25,6 +25,7 @@ import org.exist.dom.persistent.NodeProxy;
 import org.exist.xquery.Expression;
 import org.exist.xquery.NodeTest;
 import org.exist.xquery.XPathException;
+import org.exist.xquery.value.NodeValue;
 import org.exist.xquery.value.Sequence;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.NamedNodeMap;
@@ -46,7 +47,13 @@ public class ReferenceNode extends NodeImpl {
         super(expression, doc, nodeNumber);
     }
 
-    public NodeProxy getReference() {
+    /**
+     * Get the node that this node refers to.
+     *
+     * @return either a {@link NodeProxy} for a persistent node, or a
+     *     {@link NodeImpl} for a node of another in-memory document.
+     */
+    public NodeValue getReference() {
         final int p = document.alpha[nodeNumber];
         return document.references[p];
     }
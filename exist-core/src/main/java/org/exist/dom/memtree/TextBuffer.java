@@ -0,0 +1,328 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.dom.memtree;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Append-only storage for the characters of an in-memory document.
+ *
+ * Characters are stored in chunks of at most {@link #CHUNK_SIZE} characters,
+ * so that the buffer grows by adding chunks rather than by copying all of the
+ * characters that it already holds; only the last chunk is grown by copying,
+ * until it reaches its full size.
+ *
+ * Like {@link String}, each chunk is stored with one byte per character whilst
+ * all of its characters are in the Latin-1 range, and is only inflated to two
+ * bytes per character when another character is added to it.
+ *
+ * Characters are addressed by their offset from the start of the buffer, a
+ * sequence of characters may span several chunks.
+ */
+final class TextBuffer {
+
+    private static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int INITIAL_SIZE = 256;
+    private static final int INITIAL_NEXT_CHUNK_SIZE = CHUNK_SIZE / 16;
+
+    /**
+     * Each chunk is held in exactly one of these, either as Latin-1 or as UTF-16.
+     */
+    private byte[][] latin1 = new byte[1][];
+    private char[][] utf16 = new char[1][];
+
+    private int length = 0;
+
+    /**
+     * Get the number of characters in the buffer.
+     *
+     * @return the number of characters
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Append characters to the buffer.
+     *
+     * @param ch the characters
+     * @param start the offset of the first character in {@code ch}
+     * @param len the number of characters
+     *
+     * @return the offset of the first appended character in the buffer
+     */
+    int append(final char[] ch, int start, int len) {
+        final int offset = length;
+        while (len > 0) {
+            final int chunk = ensureCapacity();
+            final int pos = length & CHUNK_MASK;
+            final int n = Math.min(len, capacity(chunk) - pos);
+
+            final byte[] bytes = latin1[chunk];
+            if (bytes != null) {
+                int i = 0;
+                for (; i < n; i++) {
+                    final char c = ch[start + i];
+                    if (c > 0xFF) {
+                        break;
+                    }
+                    bytes[pos + i] = (byte) c;
+                }
+                if (i < n) {
+                    inflate(chunk);
+                    System.arraycopy(ch, start + i, utf16[chunk], pos + i, n - i);
+                }
+            } else {
+                System.arraycopy(ch, start, utf16[chunk], pos, n);
+            }
+
+            length += n;
+            start += n;
+            len -= n;
+        }
+        return offset;
+    }
+
+    /**
+     * Append characters to the buffer.
+     *
+     * @param s the characters
+     *
+     * @return the offset of the first appended character in the buffer
+     */
+    int append(final CharSequence s) {
+        final int offset = length;
+        int start = 0;
+        int len = s.length();
+        while (len > 0) {
+            final int chunk = ensureCapacity();
+            final int pos = length & CHUNK_MASK;
+            final int n = Math.min(len, capacity(chunk) - pos);
+
+            for (int i = 0; i < n; i++) {
+                final char c = s.charAt(start + i);
+                final byte[] bytes = latin1[chunk];
+                if (bytes != null) {
+                    if (c <= 0xFF) {
+                        bytes[pos + i] = (byte) c;
+                        continue;
+                    }
+                    inflate(chunk);
+                }
+                utf16[chunk][pos + i] = c;
+            }
+
+            length += n;
+            start += n;
+            len -= n;
+        }
+        return offset;
+    }
+
+    /**
+     * Get a character from the buffer.
+     *
+     * @param offset the offset of the character
+     *
+     * @return the character
+     */
+    char charAt(final int offset) {
+        final int chunk = offset >>> CHUNK_BITS;
+        final byte[] bytes = latin1[chunk];
+        if (bytes != null) {
+            return (char) (bytes[offset & CHUNK_MASK] & 0xFF);
+        }
+        return utf16[chunk][offset & CHUNK_MASK];
+    }
+
+    /**
+     * Get characters from the buffer as a string.
+     *
+     * @param offset the offset of the first character
+     * @param len the number of characters
+     *
+     * @return the characters
+     */
+    String getString(final int offset, final int len) {
+        if (len <= 0) {
+            return "";
+        }
+
+        final int chunk = offset >>> CHUNK_BITS;
+        final int pos = offset & CHUNK_MASK;
+        if (pos + len <= CHUNK_SIZE) {
+            // within a single chunk
+            final byte[] bytes = latin1[chunk];
+            if (bytes != null) {
+                return new String(bytes, pos, len, ISO_8859_1);
+            }
+            return new String(utf16[chunk], pos, len);
+        }
+
+        final StringBuilder buf = new StringBuilder(len);
+        appendTo(buf, offset, len);
+        return buf.toString();
+    }
+
+    /**
+     * Append characters from the buffer to a string builder.
+     *
+     * @param buf the string builder
+     * @param offset the offset of the first character
+     * @param len the number of characters
+     */
+    void appendTo(final StringBuilder buf, int offset, int len) {
+        while (len > 0) {
+            final int chunk = offset >>> CHUNK_BITS;
+            final int pos = offset & CHUNK_MASK;
+            final int n = Math.min(len, CHUNK_SIZE - pos);
+
+            final byte[] bytes = latin1[chunk];
+            if (bytes != null) {
+                for (int i = pos; i < pos + n; i++) {
+                    buf.append((char) (bytes[i] & 0xFF));
+                }
+            } else {
+                buf.append(utf16[chunk], pos, n);
+            }
+
+            offset += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Copy characters from the buffer.
+     *
+     * @param offset the offset of the first character
+     * @param len the number of characters
+     * @param dst the destination for the characters
+     * @param dstBegin the offset in {@code dst} of the first character
+     */
+    void getChars(int offset, int len, final char[] dst, int dstBegin) {
+        while (len > 0) {
+            final int chunk = offset >>> CHUNK_BITS;
+            final int pos = offset & CHUNK_MASK;
+            final int n = Math.min(len, CHUNK_SIZE - pos);
+
+            final byte[] bytes = latin1[chunk];
+            if (bytes != null) {
+                for (int i = 0; i < n; i++) {
+                    dst[dstBegin + i] = (char) (bytes[pos + i] & 0xFF);
+                }
+            } else {
+                System.arraycopy(utf16[chunk], pos, dst, dstBegin, n);
+            }
+
+            offset += n;
+            dstBegin += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Copy characters from the buffer.
+     *
+     * @param offset the offset of the first character
+     * @param len the number of characters
+     *
+     * @return the characters
+     */
+    char[] getChars(final int offset, final int len) {
+        final char[] ch = new char[Math.max(len, 0)];
+        getChars(offset, len, ch, 0);
+        return ch;
+    }
+
+    /**
+     * Compare characters in the buffer with a string.
+     *
+     * @param offset the offset of the first character
+     * @param len the number of characters
+     * @param s the string
+     *
+     * @return true if the characters are equal to the string
+     */
+    boolean contentEquals(final int offset, final int len, final CharSequence s) {
+        if (s.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (charAt(offset + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Make sure that there is space for at least one more character.
+     *
+     * @return the chunk in which the next character is stored
+     */
+    private int ensureCapacity() {
+        final int chunk = length >>> CHUNK_BITS;
+        if (chunk == latin1.length) {
+            latin1 = Arrays.copyOf(latin1, chunk * 2);
+            utf16 = Arrays.copyOf(utf16, chunk * 2);
+        }
+
+        final int pos = length & CHUNK_MASK;
+        final int capacity = capacity(chunk);
+        if (capacity == 0) {
+            latin1[chunk] = new byte[chunk == 0 ? INITIAL_SIZE : INITIAL_NEXT_CHUNK_SIZE];
+        } else if (pos == capacity) {
+            // only the last chunk is grown by copying, up to its full size
+            final int newCapacity = Math.min(capacity * 2, CHUNK_SIZE);
+            if (latin1[chunk] != null) {
+                latin1[chunk] = Arrays.copyOf(latin1[chunk], newCapacity);
+            } else {
+                utf16[chunk] = Arrays.copyOf(utf16[chunk], newCapacity);
+            }
+        }
+        return chunk;
+    }
+
+    private int capacity(final int chunk) {
+        if (latin1[chunk] != null) {
+            return latin1[chunk].length;
+        } else if (utf16[chunk] != null) {
+            return utf16[chunk].length;
+        }
+        return 0;
+    }
+
+    private void inflate(final int chunk) {
+        final byte[] bytes = latin1[chunk];
+        final char[] chars = new char[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i] = (char) (bytes[i] & 0xFF);
+        }
+        utf16[chunk] = chars;
+        latin1[chunk] = null;
+    }
+}
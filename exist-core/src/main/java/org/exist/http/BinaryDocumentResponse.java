@@ -0,0 +1,237 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.http;
+
+import com.evolvedbinary.j8fu.Try;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.exist.dom.persistent.BinaryDocument;
+import org.exist.storage.DBBroker;
+import org.exist.storage.blob.BlobId;
+import org.exist.storage.txn.Txn;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import static com.evolvedbinary.j8fu.Try.TaggedTryUnchecked;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.exist.util.HexEncoder.bytesToHex;
+
+/**
+ * Writes a {@link BinaryDocument} to an HTTP response directly from its
+ * blob file, through a small bounded buffer.
+ *
+ * The blob id is the digest of the content, and so is used as a strong
+ * ETag for conditional requests ({@code If-None-Match}, {@code If-Range}).
+ * A single byte range ({@code Range: bytes=...}) is supported, requests
+ * for multiple ranges are answered with the whole content.
+ */
+final class BinaryDocumentResponse {
+
+    private BinaryDocumentResponse() {
+    }
+
+    /**
+     * Get the ETag for a binary document.
+     *
+     * @param binaryDocument the binary document.
+     *
+     * @return the ETag, or null if the document has no content.
+     */
+    static @Nullable String etag(final BinaryDocument binaryDocument) {
+        final BlobId blobId = binaryDocument.getBlobId();
+        if (blobId == null) {
+            return null;
+        }
+        return '"' + bytesToHex(blobId.getId()) + '"';
+    }
+
+    /**
+     * Determines if the {@code If-None-Match} header of the request matches the ETag.
+     *
+     * @param ifNoneMatch the value of the {@code If-None-Match} header.
+     * @param etag the current ETag of the document.
+     *
+     * @return true if the client already has the current representation.
+     */
+    static boolean matches(final String ifNoneMatch, final String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate)) {
+                return true;
+            }
+            // If-None-Match uses the weak comparison function
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the {@code Range} header of a request.
+     *
+     * @param request the HTTP request.
+     * @param etag the current ETag of the document.
+     * @param length the length of the document content in bytes.
+     *
+     * @return the first and last byte positions (inclusive) of the requested range,
+     *     null if the whole content should be sent, or an empty array if the range
+     *     cannot be satisfied.
+     */
+    static @Nullable long[] range(final HttpServletRequest request, @Nullable final String etag, final long length) {
+        final String range = request.getHeader("Range");
+        if (range == null || !range.startsWith("bytes=") || range.indexOf(',') > -1) {
+            return null;
+        }
+
+        // only send the range if the client has the current representation
+        final String ifRange = request.getHeader("If-Range");
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+
+        final String spec = range.substring(6).trim();
+        final int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+
+        try {
+            final long first;
+            final long last;
+            if (dash == 0) {
+                // suffix range, i.e. the last n bytes
+                final long suffixLength = Long.parseLong(spec.substring(1));
+                if (suffixLength <= 0) {
+                    return new long[0];
+                }
+                first = Math.max(0, length - suffixLength);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+                if (last < first && first < length) {
+                    return null;
+                }
+            }
+
+            if (first >= length) {
+                return new long[0];
+            }
+            return new long[] { first, last };
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the content of the binary document to the response.
+     *
+     * The {@code Range} header of the request is honoured, and the
+     * status and content headers of the response are set accordingly.
+     *
+     * @param broker the database broker.
+     * @param transaction the database transaction.
+     * @param binaryDocument the binary document to write.
+     * @param etag the ETag of the binary document.
+     * @param request the HTTP request.
+     * @param response the HTTP response.
+     *
+     * @throws IOException if an error occurs whilst writing the response.
+     */
+    static void write(final DBBroker broker, final Txn transaction, final BinaryDocument binaryDocument,
+            @Nullable final String etag, final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
+        final long length = binaryDocument.getContentLength();
+        final long[] range = range(request, etag, length);
+
+        final long first;
+        final long count;
+        if (range == null) {
+            first = 0;
+            count = length;
+        } else if (range.length == 0) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader("Content-Length", "0");
+            return;
+        } else {
+            first = range[0];
+            count = range[1] - range[0] + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + range[0] + '-' + range[1] + '/' + length);
+        }
+
+        // As HttpServletResponse.setContentLength is limited to integers,
+        // (see http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4187336)
+        response.setHeader("Content-Length", Long.toString(count));
+
+        if (count == 0 || binaryDocument.getBlobId() == null) {
+            return;
+        }
+
+        final OutputStream os = response.getOutputStream();
+        final Try<Void, IOException> result = broker.withBinaryFile(transaction, binaryDocument, blobFile ->
+                TaggedTryUnchecked(IOException.class, () -> {
+                    if (blobFile == null) {
+                        throw new IOException("Blob file is missing for: " + binaryDocument.getURI());
+                    }
+                    transfer(blobFile, first, count, os);
+                    return null;
+                })
+        );
+        result.get();
+    }
+
+    /**
+     * Copies a region of a file to an output stream.
+     *
+     * Uses {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+     * which copies through a bounded buffer whatever the servlet container.
+     */
+    private static void transfer(final Path file, final long position, final long count, final OutputStream os)
+            throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, READ)) {
+            final WritableByteChannel out = Channels.newChannel(os);
+            long offset = position;
+            long remaining = count;
+            while (remaining > 0) {
+                final long transferred = channel.transferTo(offset, remaining, out);
+                if (transferred <= 0) {
+                    throw new IOException("Blob file is shorter than expected: " + file);
+                }
+                offset += transferred;
+                remaining -= transferred;
+            }
+        }
+        os.flush();
+    }
+}
@@ -610,6 +610,13 @@ public class RESTServer {
                 // must be set so
                 response.addHeader("Content-Length", Long.toString(resource.getContentLength()));
                 setCreatedAndLastModifiedHeaders(response, resource.getCreated(), resource.getLastModified());
+                if (resource.getResourceType() == DocumentImpl.BINARY_FILE) {
+                    final String etag = BinaryDocumentResponse.etag((BinaryDocument) resource);
+                    if (etag != null) {
+                        response.setHeader("ETag", etag);
+                        response.setHeader("Accept-Ranges", "bytes");
+                    }
+                }
             } else {
                 try(final Collection col = broker.openCollection(pathUri, LockMode.READ_LOCK)) {
                     //no resource or collection
@@ -1726,14 +1733,28 @@ public class RESTServer {
         final long lastModified = resource.getLastModified();
         setCreatedAndLastModifiedHeaders(response, resource.getCreated(), lastModified);
 
+        //handle If-None-Match request header, binary resources use their content digest as an ETag
+        String etag = null;
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (resource.getResourceType() == DocumentImpl.BINARY_FILE) {
+            etag = BinaryDocumentResponse.etag((BinaryDocument) resource);
+            if (etag != null) {
+                response.setHeader("ETag", etag);
+                response.setHeader("Accept-Ranges", "bytes");
+                if (ifNoneMatch != null && BinaryDocumentResponse.matches(ifNoneMatch, etag)) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+        }
 
         /**
          * HTTP 1.1 RFC 2616 Section 14.25 *
          */
-        //handle If-Modified-Since request header
+        //handle If-Modified-Since request header, which is ignored when If-None-Match is present
         try {
             final long ifModifiedSince = request.getDateHeader("If-Modified-Since");
-            if (ifModifiedSince > -1) {
+            if (ifModifiedSince > -1 && (etag == null || ifNoneMatch == null)) {
 
                 /*
                  a) A date which is later than the server's
@@ -1774,15 +1795,7 @@ public class RESTServer {
                 response.setContentType(asMimeType);
             }
 
-            // As HttpServletResponse.setContentLength is limited to integers,
-            // (see http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4187336)
-            // next sentence:
-            //	response.setContentLength(resource.getContentLength());
-            // must be set so
-            response.addHeader("Content-Length", Long.toString(resource.getContentLength()));
-            final OutputStream os = response.getOutputStream();
-            broker.readBinaryResource((BinaryDocument) resource, os);
-            os.flush();
+            BinaryDocumentResponse.write(broker, transaction, (BinaryDocument) resource, etag, request, response);
         } else {
             // xml resource
 
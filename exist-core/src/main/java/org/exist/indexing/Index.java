@@ -95,6 +95,16 @@ public interface Index extends AutoCloseable {
      */
     void sync() throws DBException;
 
+    /**
+     * Called during checkpoint events, after {@link #sync()}. Recovery only replays the
+     * journal from the last checkpoint, so an index which does not materialize all data
+     * on every call to {@link #sync()} must do so here.
+     *
+     * @throws DBException in case of an eXist-db error
+     */
+    default void checkpoint() throws DBException {
+    }
+
     /**
      * Closes the index and removes it completely, including all resources and files
      * associated to it. This method is called during database repair before the
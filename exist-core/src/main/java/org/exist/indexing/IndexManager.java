@@ -267,6 +267,18 @@ public class IndexManager implements BrokerPoolService {
         }
     }
 
+    /**
+     * Call indexes to materialize all data for a checkpoint.
+     *
+     * @throws DBException in case of an eXist-db error
+     */
+    public void checkpoint() throws DBException {
+        for (final Iterator<Index> i = iterator(); i.hasNext(); ) {
+            final Index index = i.next();
+            index.checkpoint();
+        }
+    }
+
     /**
      * Physically destroy the registered indexes by calling {@link org.exist.indexing.Index#remove()}
      * on them.
@@ -99,6 +99,8 @@ public class JMXtoXML {
         putCategory("locking", LockTable.getAllInstancesQuery());
         putCategory("disk", DiskUsage.getAllInstancesQuery());
         putCategory("collectioncaches", CollectionCache.getAllInstancesQuery());
+        putCategory("blobstore", BlobStore.getAllInstancesQuery());
+        putCategory("xsltcache", XsltCache.getAllInstancesQuery());
         putCategory("caches",
                 CacheManager.getAllInstancesQuery(),
                 Cache.getAllInstancesQuery()
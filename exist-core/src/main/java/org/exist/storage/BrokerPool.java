@@ -56,6 +56,7 @@ import org.exist.security.internal.SecurityManagerImpl;
 import org.exist.storage.blob.BlobStore;
 import org.exist.storage.blob.BlobStoreImplService;
 import org.exist.storage.blob.BlobStoreService;
+import org.exist.storage.btree.DBException;
 import org.exist.storage.journal.JournalManager;
 import org.exist.storage.lock.FileLockService;
 import org.exist.storage.lock.LockManager;
@@ -330,6 +331,16 @@ public class BrokerPool extends BrokerPools implements BrokerPoolConstants, Data
      */
     private XQueryPool xQueryPool;
 
+    /**
+     * The cache in which the database instance's <strong>parsed</strong> XQuery library modules are stored.
+     */
+    private LibraryModuleCache libraryModuleCache;
+
+    /**
+     * The cache in which the results of the database instance's <strong>memoized</strong> XQuery functions are stored.
+     */
+    private FunctionResultCache functionResultCache;
+
     /**
      * The monitor in which the database instance's strong>running</strong> XQueries are managed.
      */
@@ -472,6 +483,8 @@ public class BrokerPool extends BrokerPools implements BrokerPoolConstants, Data
 
         this.cacheManager = servicesManager.register(new DefaultCacheManager(this));
         this.xQueryPool = servicesManager.register(new XQueryPool());
+        this.libraryModuleCache = servicesManager.register(new LibraryModuleCache());
+        this.functionResultCache = servicesManager.register(new FunctionResultCache());
         this.processMonitor = servicesManager.register(new ProcessMonitor());
         this.xqueryStats = servicesManager.register(new PerformanceStats(this));
         final XMLReaderObjectFactory xmlReaderObjectFactory = servicesManager.register(new XMLReaderObjectFactory());
@@ -1041,6 +1054,24 @@ public class BrokerPool extends BrokerPools implements BrokerPoolConstants, Data
         return xQueryPool;
     }
 
+    /**
+     * Returns a cache in which the database instance's <strong>parsed</strong> XQuery library modules are stored.
+     *
+     * @return The cache
+     */
+    public LibraryModuleCache getLibraryModuleCache() {
+        return libraryModuleCache;
+    }
+
+    /**
+     * Returns a cache in which the results of the database instance's <strong>memoized</strong> XQuery functions are stored.
+     *
+     * @return The cache
+     */
+    public FunctionResultCache getFunctionResultCache() {
+        return functionResultCache;
+    }
+
     /**
      * Retuns the XQuery Service
      *
@@ -1472,9 +1503,13 @@ public class BrokerPool extends BrokerPools implements BrokerPoolConstants, Data
             if (syncEvent == Sync.MAJOR) {
                 LOG.debug("Major sync");
                 try {
+                    indexManager.checkpoint();
                     if (!FORCE_CORRUPTION) {
                         transactionManager.checkpoint(checkpoint);
                     }
+                } catch (final DBException e) {
+                    // no checkpoint is written, so recovery still replays the journal
+                    LOG.error("Failed to checkpoint the indexes: {}", e.getMessage(), e);
                 } catch (final TransactionException e) {
                     LOG.warn(e.getMessage(), e);
                 }
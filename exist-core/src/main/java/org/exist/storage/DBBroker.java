@@ -456,6 +456,17 @@ public interface DBBroker extends AutoCloseable {
      */
     String getNodeValue(IStoredNode node, boolean addWhitespace);
 
+    /**
+     * Compare the string value of the specified node with a value, without
+     * creating a String for the string value of the node.
+     *
+     * @param node the node
+     * @param value the value, encoded by {@link org.exist.util.UTF8#encode(String, byte[], int)}
+     *
+     * @return true if the string value of the node equals the value
+     */
+    boolean nodeValueEquals(IStoredNode node, byte[] value);
+
     /**
      * Get an instance of the Serializer used for converting nodes back to XML
      * from the pool.
@@ -593,12 +604,25 @@ public interface DBBroker extends AutoCloseable {
     enum IndexMode {
         STORE,
         REPAIR,
-        REMOVE
+        REMOVE,
+
+        /**
+         * The index entries of each document are removed and rebuilt
+         * in turn, whilst the document is write locked. The other documents
+         * keep their existing index entries in the meantime, but index lookups
+         * do not lock documents, so they miss the document being rebuilt.
+         */
+        REPLACE
     }
 
     /**
      * Reindex a Collection and its descendants
      *
+     * The documents are reindexed by as many threads as set by the
+     * {@code reindex-parallelism} attribute of the indexer configuration,
+     * and online if its {@code reindex-online} attribute is set,
+     * see {@link #reindexCollection(Txn, XmldbURI, int, boolean)}.
+     *
      * NOTE: Read locks will be taken in a top-down, left-right manner
      *     on Collections as they are indexed
      *
@@ -612,6 +636,61 @@ public interface DBBroker extends AutoCloseable {
     void reindexCollection(Txn transaction, @EnsureLocked(mode=LockMode.WRITE_LOCK, type=LockType.COLLECTION) XmldbURI collectionUri)
             throws PermissionDeniedException, IOException, LockException;
 
+    /**
+     * Reindex a Collection and its descendants
+     *
+     * When {@code parallelism} is greater than 1, the documents of each Collection are
+     * reindexed by up to {@code parallelism} threads, each of which borrows its own broker
+     * from the pool, and commits its index changes in batches in its own transaction.
+     * The given {@code transaction} is not used for those batches, so they are not undone
+     * if it is aborted. As this broker is held whilst it waits for the batches, the
+     * parallelism is capped at one less than the maximum number of brokers of the pool.
+     * Otherwise the documents are reindexed one after another within the given transaction.
+     *
+     * NOTE: Read locks will be taken in a top-down, left-right manner
+     *     on Collections as they are indexed
+     *
+     * @param transaction the transaction
+     * @param collectionUri The URI of the Collection to reindex
+     * @param parallelism the maximum number of threads which reindex documents concurrently
+     *
+     * @throws PermissionDeniedException If the current user does not have appropriate permissions
+     * @throws LockException If an exception occurs whilst acquiring locks
+     * @throws IOException If an error occurs whilst reindexing the Collection on disk
+     */
+    void reindexCollection(Txn transaction, @EnsureLocked(mode=LockMode.WRITE_LOCK, type=LockType.COLLECTION) XmldbURI collectionUri,
+            int parallelism) throws PermissionDeniedException, IOException, LockException;
+
+    /**
+     * Reindex a Collection and its descendants
+     *
+     * When {@code online} is false, the index of each Collection is dropped before its
+     * documents are reindexed, so queries see an incomplete index until the reindex has
+     * finished. When {@code online} is true, the index entries of each document are instead
+     * replaced one document at a time, see {@link IndexMode#REPLACE}, so queries only
+     * miss the documents which are being reindexed at that moment, at most one per
+     * thread, rather than every document which has not been reindexed yet.
+     *
+     * NOTE: an online reindex removes the entries of the legacy range index
+     *     ({@link NativeValueIndex}) according to the current configuration, so
+     *     entries of range index definitions which were removed or changed are
+     *     only dropped by a reindex which is not online.
+     *
+     * NOTE: Read locks will be taken in a top-down, left-right manner
+     *     on Collections as they are indexed
+     *
+     * @param transaction the transaction
+     * @param collectionUri The URI of the Collection to reindex
+     * @param parallelism the maximum number of threads which reindex documents concurrently
+     * @param online true to replace the index entries document by document
+     *
+     * @throws PermissionDeniedException If the current user does not have appropriate permissions
+     * @throws LockException If an exception occurs whilst acquiring locks
+     * @throws IOException If an error occurs whilst reindexing the Collection on disk
+     */
+    void reindexCollection(Txn transaction, @EnsureLocked(mode=LockMode.WRITE_LOCK, type=LockType.COLLECTION) XmldbURI collectionUri,
+            int parallelism, boolean online) throws PermissionDeniedException, IOException, LockException;
+
     void reindexXMLResource(final Txn txn,
             @EnsureLocked(mode=LockMode.WRITE_LOCK) final DocumentImpl doc);
 
@@ -1193,6 +1272,25 @@ public interface DBBroker extends AutoCloseable {
 
     void setTriggersEnabled(boolean triggersEnabled);
 
+    /**
+     * Determines whether documents stored through this broker
+     * are passed to the index workers of the {@link IndexController}.
+     *
+     * @return true if indexing is enabled (the default), false otherwise.
+     */
+    boolean isIndexingEnabled();
+
+    /**
+     * Enables or disables indexing of documents stored through this broker.
+     *
+     * When indexing is disabled, documents are stored without notifying
+     * any {@link org.exist.indexing.StreamListener}. The caller is then responsible
+     * for reindexing the affected collections, see {@link #reindexCollection(Txn, XmldbURI)}.
+     *
+     * @param indexingEnabled true to enable indexing, false to disable it.
+     */
+    void setIndexingEnabled(boolean indexingEnabled);
+
     @Override
     void close();
 
@@ -0,0 +1,394 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.exist.Namespaces;
+import org.exist.dom.QName;
+import org.exist.dom.persistent.DocumentImpl;
+import org.exist.dom.persistent.NodeHandle;
+import org.exist.dom.persistent.NodeProxy;
+import org.exist.numbering.NodeId;
+import org.exist.source.Source;
+import org.exist.xmldb.XmldbURI;
+import org.exist.xquery.Annotation;
+import org.exist.xquery.ErrorCodes;
+import org.exist.xquery.LiteralValue;
+import org.exist.xquery.UserDefinedFunction;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.XQueryContext;
+import org.exist.xquery.functions.array.ArrayType;
+import org.exist.xquery.functions.map.AbstractMapType;
+import org.exist.xquery.value.AtomicValue;
+import org.exist.xquery.value.Item;
+import org.exist.xquery.value.NodeValue;
+import org.exist.xquery.value.NumericValue;
+import org.exist.xquery.value.Sequence;
+import org.exist.xquery.value.SequenceIterator;
+import org.exist.xquery.value.Type;
+import org.exist.xquery.value.ValueSequence;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global cache of the results of user-defined functions which
+ * are annotated with <code>%exist:memoize</code>.
+ *
+ * The annotation takes up to three kinds of value, all of which are optional:
+ * <pre>
+ * %exist:memoize(max-entries, time-to-live, collection, ...)
+ * </pre>
+ * <ul>
+ *     <li>max-entries: the maximum number of results to keep for the function, the least
+ *     recently used results are discarded first (default 128).</li>
+ *     <li>time-to-live: the number of milliseconds after which a result is discarded,
+ *     0 for no limit (default 0).</li>
+ *     <li>collection: the URIs of the collections which the function reads from, the results
+ *     are discarded when a resource within one of them (or their sub-collections) is stored, changed,
+ *     moved, copied or removed, or when one of them is removed or moved.</li>
+ * </ul>
+ *
+ * Results are looked up by the atomic values and the identity of the stored nodes
+ * passed as arguments of the call, and the effective user, and are shared between
+ * all queries which call the function. A memoized function should therefore depend
+ * only upon its arguments and the declared collections. Calls with arguments that
+ * have no such identity, such as in-memory nodes, maps or function items, and results
+ * that belong to the query which produced them, such as newly constructed nodes or
+ * function items, are not memoized.
+ */
+@ThreadSafe
+public class FunctionResultCache implements BrokerPoolService, UpdateListener {
+
+    private static final Logger LOG = LogManager.getLogger(FunctionResultCache.class);
+
+    public static final QName MEMOIZE_ANNOTATION = new QName("memoize", Namespaces.EXIST_NS, "exist");
+
+    private static final int MAX_FUNCTIONS = 1024;
+    private static final long DEFAULT_MAX_ENTRIES = 128;
+
+    /**
+     * Arguments whose key would be longer than this are not memoized.
+     */
+    private static final int MAX_KEY_LENGTH = 4096;
+
+    private final Cache<FunctionKey, Memo> memos = Caffeine.newBuilder()
+            .maximumSize(MAX_FUNCTIONS)
+            .build();
+
+    @Override
+    public void prepare(final BrokerPool brokerPool) {
+        brokerPool.getNotificationService().subscribe(this);
+    }
+
+    @Override
+    public void stopMultiUser(final BrokerPool brokerPool) {
+        brokerPool.getNotificationService().unsubscribe(this);
+    }
+
+    /**
+     * Get the memo which holds the results of a user-defined function.
+     *
+     * @param function the user-defined function.
+     *
+     * @return the memo, or null if the function is not annotated with <code>%exist:memoize</code>.
+     *
+     * @throws XPathException if the values of the annotation are invalid.
+     */
+    public @Nullable Memo getMemo(final UserDefinedFunction function) throws XPathException {
+        final Annotation[] annotations = function.getSignature().getAnnotations();
+        if (annotations == null) {
+            return null;
+        }
+
+        for (final Annotation annotation : annotations) {
+            if (MEMOIZE_ANNOTATION.equals(annotation.getName())) {
+                final Source source = function.getSource();
+                if (source == null) {
+                    return null;
+                }
+
+                final Options options = Options.parse(function, annotation.getValue());
+                final FunctionKey key = new FunctionKey(source.getKey(), function.getSignature().getName(), function.getSignature().getArgumentCount());
+                final Memo memo = memos.getIfPresent(key);
+                if (memo != null && memo.options.equals(options) && memo.source.isValid() == Source.Validity.VALID) {
+                    return memo;
+                }
+
+                // the function is new, or has been changed since the memo was created
+                final Memo newMemo = new Memo(source, options);
+                memos.put(key, newMemo);
+                return newMemo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes all results from the cache.
+     */
+    public void clear() {
+        memos.invalidateAll();
+    }
+
+    @Override
+    public void documentUpdated(final DocumentImpl document, final int event) {
+        final XmldbURI collectionUri = document.getURI().removeLastSegment();
+        for (final Memo memo : memos.asMap().values()) {
+            memo.collectionChanged(collectionUri, false);
+        }
+    }
+
+    @Override
+    public void collectionUpdated(final XmldbURI collectionUri) {
+        for (final Memo memo : memos.asMap().values()) {
+            memo.collectionChanged(collectionUri, true);
+        }
+    }
+
+    @Override
+    public void nodeMoved(final NodeId oldNodeId, final NodeHandle newNode) {
+        // no-op, nodes are only moved within a document which has been updated
+    }
+
+    @Override
+    public void unsubscribe() {
+        memos.invalidateAll();
+    }
+
+    @Override
+    public void debug() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("FunctionResultCache: {} memoized functions", memos.estimatedSize());
+        }
+    }
+
+    private record FunctionKey(long sourceKey, QName name, int arity) {
+    }
+
+    private record Options(long maxEntries, long timeToLive, List<XmldbURI> collections) {
+
+        static Options parse(final UserDefinedFunction function, final LiteralValue[] values) throws XPathException {
+            long maxEntries = DEFAULT_MAX_ENTRIES;
+            long timeToLive = 0;
+            final List<XmldbURI> collections = new ArrayList<>();
+
+            for (int i = 0; i < values.length; i++) {
+                final AtomicValue value = values[i].getValue();
+                if (i < 2 && Type.subTypeOf(value.getType(), Type.INTEGER)) {
+                    final long l = ((NumericValue) value).getLong();
+                    if (l < 0 || (i == 0 && l == 0)) {
+                        throw new XPathException(function, ErrorCodes.EXXQST0001, "Invalid value for %exist:memoize: " + l);
+                    }
+                    if (i == 0) {
+                        maxEntries = l;
+                    } else {
+                        timeToLive = l;
+                    }
+                } else if (Type.subTypeOf(value.getType(), Type.STRING)) {
+                    collections.add(XmldbURI.create(value.getStringValue()).toCollectionPathURI());
+                } else {
+                    throw new XPathException(function, ErrorCodes.EXXQST0001, "%exist:memoize expects (max-entries as xs:integer, time-to-live as xs:integer, collection as xs:string*), but found: " + value.getStringValue());
+                }
+            }
+
+            return new Options(maxEntries, timeToLive, collections);
+        }
+    }
+
+    /**
+     * The results of a memoized function.
+     */
+    public static class Memo {
+        private final Source source;
+        private final Options options;
+        private final Cache<String, Item[]> results;
+
+        /**
+         * Incremented each time the results are invalidated, so that a result which
+         * was computed whilst a collection was changing is not added afterwards.
+         */
+        private final AtomicLong generation = new AtomicLong();
+
+        private Memo(final Source source, final Options options) {
+            this.source = source;
+            this.options = options;
+            final Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(options.maxEntries);
+            if (options.timeToLive > 0) {
+                builder.expireAfterWrite(options.timeToLive, TimeUnit.MILLISECONDS);
+            }
+            this.results = builder.build();
+        }
+
+        /**
+         * Get the key under which the result of a call is memoized.
+         *
+         * @param context the context of the call.
+         * @param args the arguments of the call.
+         *
+         * @return the key, or null if the call cannot be memoized.
+         *
+         * @throws XPathException if an argument cannot be converted to a string.
+         */
+        public @Nullable String key(final XQueryContext context, final Sequence[] args) throws XPathException {
+            final StringBuilder key = new StringBuilder(context.getEffectiveUser().getName());
+            for (final Sequence arg : args) {
+                key.append('\u0001');
+                for (final SequenceIterator i = arg.iterate(); i.hasNext(); ) {
+                    final Item item = i.nextItem();
+                    if (item instanceof NodeProxy) {
+                        // the function may navigate from a node, so nodes are keyed by their identity, not their value
+                        final NodeProxy node = (NodeProxy) item;
+                        key.append(node.getType()).append(':').append(node.getOwnerDocument().getURI())
+                                .append('#').append(node.getNodeId()).append('\u0000');
+                    } else if (Type.subTypeOf(item.getType(), Type.ATOMIC) && item.getType() != Type.JAVA_OBJECT) {
+                        final AtomicValue value = (AtomicValue) item;
+                        key.append(value.getType()).append(':').append(value.getStringValue()).append('\u0000');
+                    } else {
+                        // in-memory nodes only exist within the query which constructed them
+                        return null;
+                    }
+                    if (key.length() > MAX_KEY_LENGTH) {
+                        return null;
+                    }
+                }
+            }
+            return key.toString();
+        }
+
+        /**
+         * Get the memoized result of a call.
+         *
+         * @param key the key of the call.
+         *
+         * @return the result, or null if there is no result for the call.
+         */
+        public @Nullable Sequence get(final String key) {
+            final Item[] items = results.getIfPresent(key);
+            if (items == null) {
+                return null;
+            }
+
+            // persistent nodes are mutable, so each caller is given its own
+            final ValueSequence result = new ValueSequence(items.length);
+            for (final Item item : items) {
+                if (item instanceof NodeProxy) {
+                    result.add(copy((NodeProxy) item));
+                } else {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get the current generation of the results.
+         *
+         * @return the generation, which should be passed to {@link #put(String, Sequence, long)}.
+         */
+        public long generation() {
+            return generation.get();
+        }
+
+        /**
+         * Memoize the result of a call.
+         *
+         * @param key the key of the call.
+         * @param result the result of the call.
+         * @param generation the generation of the results before the call was evaluated.
+         */
+        public void put(final String key, final Sequence result, final long generation) throws XPathException {
+            if (!isShareable(result)) {
+                return;
+            }
+            final Item[] items = new Item[result.getItemCount()];
+            int j = 0;
+            for (final SequenceIterator i = result.iterate(); i.hasNext(); ) {
+                final Item item = i.nextItem();
+                items[j++] = item instanceof NodeProxy ? copy((NodeProxy) item) : item;
+            }
+            results.put(key, items);
+            if (this.generation.get() != generation) {
+                // a collection was changed whilst the result was computed
+                results.invalidate(key);
+            }
+        }
+
+        private static NodeProxy copy(final NodeProxy node) {
+            // without the matches and context nodes of the query which found it
+            return new NodeProxy(null, node.getOwnerDocument(), node.getNodeId(), node.getNodeType(), node.getInternalAddress());
+        }
+
+        private static boolean isShareable(final Sequence result) throws XPathException {
+            for (final SequenceIterator i = result.iterate(); i.hasNext(); ) {
+                final Item item = i.nextItem();
+                final int type = item.getType();
+                if (Type.subTypeOf(type, Type.NODE)) {
+                    if (((NodeValue) item).getImplementationType() != NodeValue.PERSISTENT_NODE) {
+                        return false;
+                    }
+                } else if (type == Type.MAP) {
+                    final AbstractMapType map = (AbstractMapType) item;
+                    for (final SequenceIterator keys = map.keys().iterate(); keys.hasNext(); ) {
+                        if (!isShareable(map.get((AtomicValue) keys.nextItem()))) {
+                            return false;
+                        }
+                    }
+                } else if (type == Type.ARRAY) {
+                    final ArrayType array = (ArrayType) item;
+                    for (int j = 0; j < array.getSize(); j++) {
+                        if (!isShareable(array.get(j))) {
+                            return false;
+                        }
+                    }
+                } else if (!Type.subTypeOf(type, Type.ATOMIC) || type == Type.JAVA_OBJECT) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Invalidate the results if a declared collection was changed.
+         *
+         * @param collectionUri the URI of the changed collection.
+         * @param subTree true if the whole tree below the changed collection may have changed,
+         *     which then also contains any declared collection below it.
+         */
+        private void collectionChanged(final XmldbURI collectionUri, final boolean subTree) {
+            for (final XmldbURI collection : options.collections) {
+                if (collectionUri.startsWith(collection) || (subTree && collection.startsWith(collectionUri))) {
+                    generation.incrementAndGet();
+                    results.invalidateAll();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import antlr.RecognitionException;
+import antlr.TokenStreamException;
+import antlr.collections.AST;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.exist.dom.persistent.BinaryDocument;
+import org.exist.dom.persistent.DocumentImpl;
+import org.exist.dom.persistent.LockedDocument;
+import org.exist.security.PermissionDeniedException;
+import org.exist.source.DBSource;
+import org.exist.source.FileSource;
+import org.exist.source.Source;
+import org.exist.storage.lock.Lock.LockMode;
+import org.exist.storage.txn.Txn;
+import org.exist.util.Configuration;
+import org.exist.xmldb.XmldbURI;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.parser.XQueryLexer;
+import org.exist.xquery.parser.XQueryParser;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Global cache of parsed XQuery library modules.
+ *
+ * Each time a main module is compiled, the library modules that it imports
+ * must be compiled into its own context. Whilst the expressions of a library module
+ * are bound to that context, the syntax tree produced by the
+ * {@link org.exist.xquery.parser.XQueryParser} is not, so it is cached here
+ * and shared between compilations, saving the lexing and parsing of the module.
+ *
+ * Entries are stored and retrieved by comparing the {@link Source} objects
+ * from which they were parsed, and are discarded when {@link Source#isValid()}
+ * reports that the source has changed since.
+ *
+ * The syntax trees are never modified after parsing, and so may be walked
+ * by several {@link org.exist.xquery.parser.XQueryTreeParser}s concurrently.
+ *
+ * If pre-warming is enabled, the locations of the cached modules are written
+ * to the data directory at shutdown, and those modules are parsed again at the next
+ * startup, so that the first queries after a restart do not have to parse them.
+ * The locations are only a hint, the modules are always read from their
+ * sources, and are still subject to the permission checks of the importing query.
+ */
+@ThreadSafe
+public class LibraryModuleCache implements BrokerPoolService {
+
+    private static final Logger LOG = LogManager.getLogger(LibraryModuleCache.class);
+
+    public static final String MODULE_CACHE_SIZE_ATTRIBUTE = "module-cache-size";
+    public static final String PROPERTY_MODULE_CACHE_SIZE = "db-connection.query-pool.module-cache-size";
+
+    public static final String MODULE_CACHE_PREWARM_ATTRIBUTE = "module-cache-prewarm";
+    public static final String PROPERTY_MODULE_CACHE_PREWARM = "db-connection.query-pool.module-cache-prewarm";
+
+    private static final int DEFAULT_MODULE_CACHE_SIZE = 256;
+
+    private static final String PREWARM_FILE_NAME = "module-cache.lst";
+    private static final String DB_SOURCE_TYPE = "DB";
+    private static final String FILE_SOURCE_TYPE = "File";
+
+    /**
+     * Source -> Parsed module, or null if the cache is disabled.
+     */
+    @Nullable private Cache<Source, ParsedModule> cache;
+
+    /**
+     * The file listing the modules to pre-warm the cache with, or null if pre-warming is disabled.
+     */
+    @Nullable private Path prewarmFile;
+
+    @Override
+    public void configure(final Configuration configuration) {
+        final Integer moduleCacheSz = (Integer) configuration.getProperty(PROPERTY_MODULE_CACHE_SIZE);
+        final int moduleCacheSize = moduleCacheSz != null ? moduleCacheSz : DEFAULT_MODULE_CACHE_SIZE;
+
+        if (moduleCacheSize > 0) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(moduleCacheSize)
+                    .build();
+        } else {
+            this.cache = null;
+        }
+
+        final boolean prewarm = configuration.getProperty(PROPERTY_MODULE_CACHE_PREWARM, false);
+        final Path dataDir = (Path) configuration.getProperty(BrokerPool.PROPERTY_DATA_DIR);
+        if (cache != null && prewarm && dataDir != null) {
+            this.prewarmFile = dataDir.resolve(PREWARM_FILE_NAME);
+        } else {
+            this.prewarmFile = null;
+        }
+
+        LOG.info("LibraryModuleCache: size = {}; prewarm = {}", NumberFormat.getNumberInstance().format(Math.max(0, moduleCacheSize)), prewarmFile != null);
+    }
+
+    @Override
+    public void startPreMultiUserSystem(final DBBroker systemBroker, final Txn transaction) {
+        if (prewarmFile == null || !Files.exists(prewarmFile)) {
+            return;
+        }
+
+        final List<String> locations;
+        try {
+            locations = Files.readAllLines(prewarmFile, UTF_8);
+        } catch (final IOException e) {
+            LOG.warn("Unable to read {}: {}", prewarmFile, e.getMessage(), e);
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        int parsed = 0;
+        for (final String location : locations) {
+            final int separator = location.indexOf(' ');
+            if (separator == -1) {
+                continue;
+            }
+            final String type = location.substring(0, separator);
+            final String path = location.substring(separator + 1);
+
+            try {
+                final Source source;
+                if (DB_SOURCE_TYPE.equals(type)) {
+                    source = getDBSource(systemBroker, path);
+                } else if (FILE_SOURCE_TYPE.equals(type)) {
+                    final Path file = Paths.get(path);
+                    source = Files.isReadable(file) ? new FileSource(file, true) : null;
+                } else {
+                    source = null;
+                }
+
+                if (source != null) {
+                    final AST ast = parse(source);
+                    if (ast != null) {
+                        put(source, ast);
+                        parsed++;
+                    }
+                }
+            } catch (final IOException | PermissionDeniedException | RecognitionException | TokenStreamException | XPathException e) {
+                LOG.warn("Unable to pre-warm LibraryModuleCache with {}: {}", path, e.getMessage());
+            }
+        }
+
+        LOG.info("Pre-warmed LibraryModuleCache with {} of {} modules in {} ms", parsed, locations.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void stopMultiUser(final BrokerPool brokerPool) {
+        if (prewarmFile == null || cache == null || brokerPool.isReadOnly()) {
+            return;
+        }
+
+        final List<String> locations = new ArrayList<>();
+        for (final Source source : cache.asMap().keySet()) {
+            if (source instanceof DBSource) {
+                locations.add(DB_SOURCE_TYPE + ' ' + ((DBSource) source).getDocumentPath());
+            } else if (source instanceof FileSource) {
+                locations.add(FILE_SOURCE_TYPE + ' ' + ((FileSource) source).getPath().toAbsolutePath());
+            }
+        }
+
+        try {
+            Files.write(prewarmFile, locations, UTF_8);
+        } catch (final IOException e) {
+            LOG.warn("Unable to write {}: {}", prewarmFile, e.getMessage(), e);
+        }
+    }
+
+    private static @Nullable Source getDBSource(final DBBroker broker, final String path) throws PermissionDeniedException {
+        try (final LockedDocument lockedDoc = broker.getXMLResource(XmldbURI.create(path), LockMode.READ_LOCK)) {
+            final DocumentImpl doc = lockedDoc == null ? null : lockedDoc.getDocument();
+            if (doc == null || doc.getResourceType() != DocumentImpl.BINARY_FILE
+                    || !"application/xquery".equals(doc.getMimeType())) {
+                return null;
+            }
+            return new DBSource(broker.getBrokerPool(), (BinaryDocument) doc, true);
+        }
+    }
+
+    private static @Nullable AST parse(final Source source) throws IOException, RecognitionException, TokenStreamException, XPathException {
+        try (final Reader reader = source.getReader()) {
+            if (reader == null) {
+                return null;
+            }
+            final XQueryLexer lexer = new XQueryLexer(null, reader);
+            final XQueryParser parser = new XQueryParser(lexer);
+            parser.xpath();
+            return parser.foundErrors() ? null : parser.getAST();
+        }
+    }
+
+    /**
+     * Get the syntax tree of a library module.
+     *
+     * @param source the source of the library module.
+     *
+     * @return the syntax tree, or null if the module is not in the cache,
+     *     or its source has changed since it was parsed.
+     */
+    public @Nullable AST get(final Source source) {
+        if (cache == null) {
+            return null;
+        }
+
+        final ParsedModule parsedModule = cache.getIfPresent(source);
+        if (parsedModule == null) {
+            return null;
+        }
+
+        if (parsedModule.source.isValid() != Source.Validity.VALID) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} is invalid, removing from LibraryModuleCache...", source.pathOrShortIdentifier());
+            }
+            cache.asMap().remove(source, parsedModule);
+            return null;
+        }
+
+        return parsedModule.ast;
+    }
+
+    /**
+     * Add the syntax tree of a library module to the cache.
+     *
+     * @param source the source of the library module.
+     * @param ast the syntax tree produced by parsing the source.
+     */
+    public void put(final Source source, final AST ast) {
+        if (cache == null) {
+            return;
+        }
+
+        cache.put(source, new ParsedModule(source, ast));
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static class ParsedModule {
+        private final Source source;
+        private final AST ast;
+
+        private ParsedModule(final Source source, final AST ast) {
+            this.source = source;
+            this.ast = ast;
+        }
+    }
+}
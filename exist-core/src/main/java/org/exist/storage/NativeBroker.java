@@ -131,8 +131,13 @@ public class NativeBroker implements DBBroker {
 
     public static final String PAGE_SIZE_ATTRIBUTE = "pageSize";
     public static final String INDEX_DEPTH_ATTRIBUTE = "index-depth";
+    public static final String REINDEX_PARALLELISM_ATTRIBUTE = "reindex-parallelism";
+    public static final String REINDEX_ONLINE_ATTRIBUTE = "reindex-online";
 
     public static final String PROPERTY_INDEX_DEPTH = "indexer.index-depth";
+    public static final String PROPERTY_REINDEX_PARALLELISM = "indexer.reindex-parallelism";
+    public static final String PROPERTY_REINDEX_ONLINE = "indexer.reindex-online";
+
     private static final byte[] ALL_STORAGE_FILES = {
         COLLECTIONS_DBX_ID, VALUES_DBX_ID, DOM_DBX_ID
     };
@@ -182,6 +187,7 @@ public class NativeBroker implements DBBroker {
     private final PreserveType preserveOnCopy;
 
     private boolean triggersEnabled = true;
+    private boolean indexingEnabled = true;
 
     /** the database files */
     private final CollectionStore collectionsDb;
@@ -194,6 +200,9 @@ public class NativeBroker implements DBBroker {
 
     private int defaultIndexDepth;
 
+    private final int reindexParallelism;
+    private final boolean reindexOnline;
+
     private final XmlSerializerPool xmlSerializerPool;
 
     /** used to count the nodes inserted after the last memory check */
@@ -239,6 +248,9 @@ public class NativeBroker implements DBBroker {
             defaultIndexDepth = DEFAULT_INDEX_DEPTH;
         }
 
+        reindexParallelism = config.getInteger(PROPERTY_REINDEX_PARALLELISM, 1);
+        reindexOnline = config.getProperty(PROPERTY_REINDEX_ONLINE, false);
+
         this.indexConfiguration = (IndexSpec) config.getProperty(Indexer.PROPERTY_INDEXER_CONFIG);
         this.xmlSerializerPool = new XmlSerializerPool(this, config, 5);
 
@@ -1257,6 +1269,7 @@ public class NativeBroker implements DBBroker {
                 }
                 // fire after copy collection triggers
                 trigger.afterCopyCollection(this, transaction, newCollection, sourceCollectionUri);
+                pool.getNotificationService().notifyCollectionUpdate(destinationCollectionUri);
             }
 
         } finally {
@@ -1561,6 +1574,8 @@ public class NativeBroker implements DBBroker {
 
                 }
                 trigger.afterMoveCollection(this, transaction, sourceCollection, sourceCollectionUri);
+                pool.getNotificationService().notifyCollectionUpdate(sourceCollectionUri);
+                pool.getNotificationService().notifyCollectionUpdate(destinationCollectionUri);
             } finally {
                 pool.getProcessMonitor().endJob();
             }
@@ -1837,6 +1852,7 @@ public class NativeBroker implements DBBroker {
             removeCollectionsDocumentNodes(transaction, collection);
 
             colTrigger.afterDeleteCollection(this, transaction, collectionUri);
+            pool.getNotificationService().notifyCollectionUpdate(collectionUri);
 
             return true;
 
@@ -2029,6 +2045,16 @@ public class NativeBroker implements DBBroker {
 
     @Override
     public void reindexCollection(final Txn transaction, final XmldbURI collectionUri) throws PermissionDeniedException, IOException, LockException {
+        reindexCollection(transaction, collectionUri, reindexParallelism, reindexOnline);
+    }
+
+    @Override
+    public void reindexCollection(final Txn transaction, final XmldbURI collectionUri, final int parallelism) throws PermissionDeniedException, IOException, LockException {
+        reindexCollection(transaction, collectionUri, parallelism, false);
+    }
+
+    @Override
+    public void reindexCollection(final Txn transaction, final XmldbURI collectionUri, final int parallelism, final boolean online) throws PermissionDeniedException, IOException, LockException {
         if(isReadOnly()) {
             throw new IOException(DATABASE_IS_READ_ONLY);
         }
@@ -2043,7 +2069,11 @@ public class NativeBroker implements DBBroker {
 
             LOG.info("Start indexing collection {}", collection.getURI().toString());
             pool.getProcessMonitor().startJob(ProcessMonitor.ACTION_REINDEX_COLLECTION, collection.getURI());
-            reindexCollection(transaction, collection, IndexMode.STORE);
+            // each batch borrows another broker whilst this one waits for it, so at least one broker must be left
+            final int threads = Math.min(parallelism, pool.getMax() - 1);
+            try(final ParallelReindexExecutor executor = threads > 1 ? new ParallelReindexExecutor(pool, getCurrentSubject(), threads) : null) {
+                reindexCollection(transaction, collection, online ? IndexMode.REPLACE : IndexMode.STORE, executor);
+            }
         } catch(final PermissionDeniedException | IOException e) {
             LOG.error("An error occurred during reindex: {}", e.getMessage(), e);
         } finally {
@@ -2053,7 +2083,8 @@ public class NativeBroker implements DBBroker {
     }
 
     private void reindexCollection(final Txn transaction,
-            @EnsureLocked(mode=LockMode.READ_LOCK) final Collection collection, final IndexMode mode)
+            @EnsureLocked(mode=LockMode.READ_LOCK) final Collection collection, final IndexMode mode,
+            @Nullable final ParallelReindexExecutor executor)
             throws PermissionDeniedException, IOException, LockException {
         if(!collection.getPermissionsNoLock().validate(getCurrentSubject(), Permission.WRITE)) {
             throw new PermissionDeniedException("Account " + getCurrentSubject().getName() + " have insufficient privileges on collection " + collection.getURI());
@@ -2066,9 +2097,21 @@ public class NativeBroker implements DBBroker {
 
         // reindex documents
         try {
-            for (final Iterator<DocumentImpl> i = collection.iterator(this); i.hasNext(); ) {
-                final DocumentImpl next = i.next();
-                reindexXMLResource(transaction, next, mode);
+            if (executor == null) {
+                for (final Iterator<DocumentImpl> i = collection.iterator(this); i.hasNext(); ) {
+                    final DocumentImpl next = i.next();
+                    if (mode == IndexMode.REPLACE) {
+                        try(final ManagedDocumentLock documentLock = lockManager.acquireDocumentWriteLock(next.getURI())) {
+                            reindexXMLResource(transaction, next, mode);
+                        }
+                    } else {
+                        reindexXMLResource(transaction, next, mode);
+                    }
+                }
+            } else {
+                final List<DocumentImpl> documents = new ArrayList<>();
+                collection.iterator(this).forEachRemaining(documents::add);
+                executor.reindex(collection.getURI(), documents, mode);
             }
         } catch(final LockException e) {
             LOG.error("LockException while reindexing documents of collection '{}'. Skipping...", collection.getURI(), e);
@@ -2083,7 +2126,7 @@ public class NativeBroker implements DBBroker {
                     if (child == null) {
                         throw new IOException("Collection '" + childUri + "' not found");
                     } else {
-                        reindexCollection(transaction, child, mode);
+                        reindexCollection(transaction, child, mode, executor);
                     }
                 }
             }
@@ -2649,6 +2692,7 @@ public class NativeBroker implements DBBroker {
 
             doCopyDocument(transaction, trigger, sourceDocument, targetCollection, newDocName, oldDoc, preserve);
         }
+        pool.getNotificationService().notifyCollectionUpdate(targetCollectionUri);
     }
 
     /**
@@ -2938,6 +2982,10 @@ public class NativeBroker implements DBBroker {
         saveCollection(transaction, targetCollection);
 
         trigger.afterMoveDocument(this, transaction, sourceDocument, sourceDocumentUri);
+        pool.getNotificationService().notifyCollectionUpdate(sourceCollection.getURI());
+        if(!renameOnly) {
+            pool.getNotificationService().notifyCollectionUpdate(targetCollectionUri);
+        }
     }
 
     @Override
@@ -3125,6 +3173,15 @@ public class NativeBroker implements DBBroker {
      */
     @Override
     public void reindexXMLResource(final Txn transaction, final DocumentImpl doc, final IndexMode mode) {
+        final IndexMode scanMode;
+        if (mode == IndexMode.REPLACE) {
+            dropIndex(transaction, doc);
+            // the nodes are still in the DOM index, only the other indexes need to be rebuilt
+            scanMode = IndexMode.REPAIR;
+        } else {
+            scanMode = mode;
+        }
+
         final StreamListener listener = getIndexController().getStreamListener(doc, ReindexMode.STORE);
         getIndexController().startIndexDocument(transaction, listener);
         try {
@@ -3133,7 +3190,7 @@ public class NativeBroker implements DBBroker {
                 final IStoredNode<?> node = (IStoredNode<?>) nodes.item(i);
                 try (final INodeIterator iterator = getNodeIterator(node)) {
                     iterator.next();
-                    scanNodes(transaction, iterator, node, new NodePath2(), mode, listener);
+                    scanNodes(transaction, iterator, node, new NodePath2(), scanMode, listener);
                 } catch (final IOException ioe) {
                     LOG.error("Unable to close node iterator", ioe);
                 }
@@ -3740,6 +3797,17 @@ public class NativeBroker implements DBBroker {
         }.run();
     }
 
+    @Override
+    public boolean nodeValueEquals(final IStoredNode node, final byte[] value) {
+        final Boolean equals = new DOMTransaction<Boolean>(this, domDb, () -> lockManager.acquireBtreeReadLock(domDb.getLockName())) {
+            @Override
+            public Boolean start() {
+                return domDb.nodeValueEquals(NativeBroker.this, node, value);
+            }
+        }.run();
+        return equals != null && equals;
+    }
+
     @Override
     public IStoredNode objectWith(final Document doc, final NodeId nodeId) {
         return new DOMTransaction<IStoredNode<?>>(this, domDb, () -> lockManager.acquireBtreeReadLock(domDb.getLockName())) {
@@ -3835,7 +3903,7 @@ public class NativeBroker implements DBBroker {
         loadIndexModules();
         LOG.info("Reindexing database files ...");
         //Reindex from root collection
-        reindexCollection(null, getCollection(XmldbURI.ROOT_COLLECTION_URI), IndexMode.REPAIR);
+        reindexCollection(null, getCollection(XmldbURI.ROOT_COLLECTION_URI), IndexMode.REPAIR, null);
     }
 
     @Override
@@ -4080,6 +4148,16 @@ public class NativeBroker implements DBBroker {
         this.triggersEnabled = triggersEnabled;
     }
 
+    @Override
+    public boolean isIndexingEnabled() {
+        return indexingEnabled;
+    }
+
+    @Override
+    public void setIndexingEnabled(final boolean indexingEnabled) {
+        this.indexingEnabled = indexingEnabled;
+    }
+
     @Override
     public void close() {
         pool.release(this);
@@ -0,0 +1,154 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.exist.EXistException;
+import org.exist.dom.persistent.DocumentImpl;
+import org.exist.security.Subject;
+import org.exist.storage.lock.ManagedDocumentLock;
+import org.exist.storage.txn.TransactionException;
+import org.exist.storage.txn.Txn;
+import org.exist.util.LockException;
+import org.exist.util.NamedThreadFactory;
+import org.exist.xmldb.XmldbURI;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reindexes the documents of a collection concurrently.
+ *
+ * The documents are divided into batches of {@link #BATCH_SIZE}.
+ * Each batch is reindexed by a task which borrows its own broker,
+ * and so its own {@link org.exist.indexing.IndexController} and
+ * index workers, from the pool, and which commits the index
+ * changes of the batch in its own transaction.
+ */
+class ParallelReindexExecutor implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger(ParallelReindexExecutor.class);
+
+    /**
+     * The number of documents reindexed in a single transaction.
+     */
+    static final int BATCH_SIZE = 64;
+
+    private final BrokerPool brokerPool;
+    private final Subject subject;
+    private final ExecutorService executorService;
+
+    /**
+     * @param brokerPool the database
+     * @param subject the subject to reindex the documents as
+     * @param parallelism the maximum number of batches to reindex concurrently
+     */
+    ParallelReindexExecutor(final BrokerPool brokerPool, final Subject subject, final int parallelism) {
+        this.brokerPool = brokerPool;
+        this.subject = subject;
+        this.executorService = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory(brokerPool, "reindex"));
+    }
+
+    /**
+     * Reindexes the documents of a collection, and waits until they have all been reindexed.
+     *
+     * The caller must hold a lock on the collection for the duration of this call.
+     *
+     * @param collectionUri the URI of the collection
+     * @param documents the documents of the collection
+     * @param mode the index mode
+     *
+     * @throws IOException if a batch of documents could not be reindexed
+     */
+    void reindex(final XmldbURI collectionUri, final List<DocumentImpl> documents, final DBBroker.IndexMode mode)
+            throws IOException {
+        final int total = documents.size();
+        final AtomicInteger reindexed = new AtomicInteger();
+
+        final List<Future<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < total; from += BATCH_SIZE) {
+            final List<DocumentImpl> batch = documents.subList(from, Math.min(from + BATCH_SIZE, total));
+            batches.add(executorService.submit(() -> {
+                reindex(collectionUri, batch, mode, reindexed, total);
+                return null;
+            }));
+        }
+
+        Throwable failure = null;
+        for (final Future<Void> batch : batches) {
+            try {
+                batch.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batches.forEach(future -> future.cancel(true));
+                throw new IOException("Interrupted whilst reindexing collection: " + collectionUri, e);
+            } catch (final ExecutionException e) {
+                // NOTE: keep waiting, the remaining batches must not outlive the caller's lock on the collection
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw new IOException("Unable to reindex collection: " + collectionUri + ": " + failure.getMessage(), failure);
+        }
+    }
+
+    private void reindex(final XmldbURI collectionUri, final List<DocumentImpl> batch, final DBBroker.IndexMode mode,
+            final AtomicInteger reindexed, final int total) throws EXistException, TransactionException {
+        final ProcessMonitor processMonitor = brokerPool.getProcessMonitor();
+        try (final DBBroker broker = brokerPool.get(Optional.of(subject));
+                final Txn transaction = brokerPool.getTransactionManager().beginTransaction()) {
+            processMonitor.startJob(ProcessMonitor.ACTION_REINDEX_COLLECTION, collectionUri);
+            try {
+                for (final DocumentImpl document : batch) {
+                    try (final ManagedDocumentLock documentLock = mode == DBBroker.IndexMode.REPLACE
+                            ? brokerPool.getLockManager().acquireDocumentWriteLock(document.getURI())
+                            : brokerPool.getLockManager().acquireDocumentReadLock(document.getURI())) {
+                        broker.reindexXMLResource(transaction, document, mode);
+                    } catch (final LockException e) {
+                        LOG.error("LockException while reindexing document '{}'. Skipping...", document.getURI(), e);
+                    }
+                }
+            } finally {
+                processMonitor.endJob();
+            }
+            transaction.commit();
+        }
+
+        LOG.info("Reindexed {} of {} documents of collection {}", reindexed.addAndGet(batch.size()), total, collectionUri);
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
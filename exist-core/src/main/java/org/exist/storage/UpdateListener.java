@@ -24,6 +24,7 @@ package org.exist.storage;
 import org.exist.dom.persistent.DocumentImpl;
 import org.exist.dom.persistent.NodeHandle;
 import org.exist.numbering.NodeId;
+import org.exist.xmldb.XmldbURI;
 
 public interface UpdateListener {
 
@@ -48,6 +49,16 @@ public interface UpdateListener {
 	 */
 	public void documentUpdated(DocumentImpl document, int event);
 
+    /**
+     * Called whenever a collection is removed, moved or copied, or a resource is moved
+     * or copied. The documents below the collection may then have changed without
+     * {@link #documentUpdated(DocumentImpl, int)} being called for each of them.
+     *
+     * @param collectionUri the URI of the collection whose contents have changed
+     */
+    default void collectionUpdated(final XmldbURI collectionUri) {
+    }
+
     /**
      * nodeMoved is called after a defragmentation run occurred for a document during which
      * the address and the nodeId of a node may have changed. Defragmentation
@@ -40,6 +40,7 @@ import org.exist.util.crypto.digest.DigestType;
 import org.exist.util.crypto.digest.MessageDigest;
 
 import javax.annotation.Nullable;
+import java.beans.ConstructorProperties;
 import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -191,4 +192,97 @@ public interface BlobStore extends Closeable {
     void redo(final BlobLoggable blobLoggable) throws LogException;
 
     void undo(final BlobLoggable blobLoggable) throws LogException;
+
+    /**
+     * Get a statistics snapshot of the BLOB Store.
+     *
+     * @return Statistics for the BLOB Store
+     */
+    Statistics getStatistics();
+
+    /**
+     * Snapshot of the BLOB Store statistics since it was opened.
+     */
+    class Statistics {
+        private final long addCount;
+        private final long deduplicatedCount;
+        private final long deduplicatedBytes;
+        private final long persistBatchCount;
+        private final long persistEntryCount;
+
+        /**
+         * @param addCount the number of BLOBs added
+         * @param deduplicatedCount the number of added BLOBs which were already present
+         * @param deduplicatedBytes the number of bytes not stored because the added BLOBs were already present
+         * @param persistBatchCount the number of batches written to the persistent store file
+         * @param persistEntryCount the number of reference counts written to the persistent store file
+         */
+        @ConstructorProperties({"addCount", "deduplicatedCount", "deduplicatedBytes", "persistBatchCount", "persistEntryCount"})
+        public Statistics(final long addCount, final long deduplicatedCount, final long deduplicatedBytes,
+                final long persistBatchCount, final long persistEntryCount) {
+            this.addCount = addCount;
+            this.deduplicatedCount = deduplicatedCount;
+            this.deduplicatedBytes = deduplicatedBytes;
+            this.persistBatchCount = persistBatchCount;
+            this.persistEntryCount = persistEntryCount;
+        }
+
+        /**
+         * Returns the number of BLOBs added.
+         *
+         * @return the number of BLOBs added
+         */
+        public long getAddCount() {
+            return addCount;
+        }
+
+        /**
+         * Returns the number of added BLOBs which were already present,
+         * and so only incremented a reference count.
+         *
+         * @return the number of de-duplicated BLOBs
+         */
+        public long getDeduplicatedCount() {
+            return deduplicatedCount;
+        }
+
+        /**
+         * Returns the number of bytes which did not need to be stored
+         * because the added BLOBs were already present.
+         *
+         * @return the number of de-duplicated bytes
+         */
+        public long getDeduplicatedBytes() {
+            return deduplicatedBytes;
+        }
+
+        /**
+         * Returns the ratio of added BLOBs which were de-duplicated. This is defined as
+         * {@code deduplicatedCount / addCount}, or {@code 0.0} when {@code addCount == 0}.
+         *
+         * @return the ratio of added BLOBs which were de-duplicated
+         */
+        public double getDeduplicationRate() {
+            return addCount == 0 ? 0.0 : (double) deduplicatedCount / addCount;
+        }
+
+        /**
+         * Returns the number of batches written to the persistent store file.
+         * Each batch requires at most one sync of the journal.
+         *
+         * @return the number of batches written
+         */
+        public long getPersistBatchCount() {
+            return persistBatchCount;
+        }
+
+        /**
+         * Returns the number of reference counts written to the persistent store file.
+         *
+         * @return the number of reference counts written
+         */
+        public long getPersistEntryCount() {
+            return persistEntryCount;
+        }
+    }
 }
@@ -35,6 +35,7 @@ package org.exist.storage.blob;
 import com.evolvedbinary.j8fu.Try;
 import com.evolvedbinary.j8fu.tuple.Tuple2;
 import com.evolvedbinary.j8fu.tuple.Tuple3;
+import com.evolvedbinary.j8fu.tuple.Tuple4;
 import net.jcip.annotations.ThreadSafe;
 import org.apache.commons.io.input.CountingInputStream;
 import org.apache.logging.log4j.LogManager;
@@ -45,6 +46,7 @@ import org.exist.storage.journal.JournalException;
 import org.exist.storage.journal.JournalManager;
 import org.exist.storage.journal.LogEntryTypes;
 import org.exist.storage.journal.LogException;
+import org.exist.storage.journal.Lsn;
 import org.exist.storage.txn.Txn;
 import org.exist.storage.txn.TxnListener;
 import org.exist.util.FileUtils;
@@ -69,6 +71,7 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import static com.evolvedbinary.j8fu.Try.TaggedTryUnchecked;
@@ -247,9 +250,19 @@ public class BlobStoreImpl implements BlobStore {
      *
      * Holds blob references which need to be updated in the
      * blob stores persistent dbx file ({@link #persistentFile})
-     * on disk.
+     * on disk, along with the LSN of the journal entry which
+     * must be on disk before the update may be written.
      */
-    private final BlockingQueue<Tuple3<BlobId, BlobReference, Integer>> persistQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Tuple4<BlobId, BlobReference, Integer, Lsn>> persistQueue = new LinkedBlockingQueue<>();
+
+    /**
+     * Counters for {@link #getStatistics()}.
+     */
+    private final LongAdder addCount = new LongAdder();
+    private final LongAdder deduplicatedCount = new LongAdder();
+    private final LongAdder deduplicatedBytes = new LongAdder();
+    private final LongAdder persistBatchCount = new LongAdder();
+    private final LongAdder persistEntryCount = new LongAdder();
 
     /**
      * Queue for communicating between the thread calling
@@ -324,6 +337,7 @@ public class BlobStoreImpl implements BlobStore {
 
         // startup the persistent writer thread
         this.persistentWriter = new PersistentWriter(persistQueue, buffer, channel,
+                database.getJournalManager().orElse(null), persistBatchCount, persistEntryCount,
                 this::abnormalPersistentWriterShutdown);
         this.persistentWriterThread = new Thread(blobStoreThreadGroup, persistentWriter,
                 nameInstanceThread(database, "blob-store.persistent-writer"));
@@ -709,11 +723,16 @@ public class BlobStoreImpl implements BlobStore {
                     // NOTE: we are the only thread that can be in this branch for the blobId
 
                     // write journal entries to the WAL
+                    // NOTE: the WAL entries are forced to disk by the PersistentWriter before it writes the new value,
+                    // or by the commit of the transaction. A blob file which is promoted before a crash, but whose
+                    // entries never reached the WAL, has no reference count and is replaced when the blob is added again
+                    Lsn lsn = Lsn.LSN_INVALID;
                     if (journalManager != null) {
                         try {
                             journalManager.journal(new StoreBlobFileLoggable(transaction.getId(), blobId, staged._1.getFileName().toString()));
-                            journalManager.journal(new UpdateBlobRefCountLoggable(transaction.getId(), blobId, 0, 1));
-                            journalManager.flush(true, true);   // force WAL entries to disk!
+                            final UpdateBlobRefCountLoggable updateBlobRefCountLoggable = new UpdateBlobRefCountLoggable(transaction.getId(), blobId, 0, 1);
+                            journalManager.journal(updateBlobRefCountLoggable);
+                            lsn = updateBlobRefCountLoggable.getLsn();
                         } catch (final JournalException e) {
                             references.remove(blobId);
                             throw new IOException(e);
@@ -728,11 +747,13 @@ public class BlobStoreImpl implements BlobStore {
                     }
 
                     // schedule disk persist of the new value
-                    persistQueue.put(Tuple(blobId, blobReference, 1));
+                    persistQueue.put(Tuple(blobId, blobReference, 1, lsn));
 
                     // update memory with the new value
                     blobReference.count.set(1);
 
+                    addCount.increment();
+
                     // done!
                     return Tuple(blobId, staged._2);
                 }
@@ -762,10 +783,13 @@ public class BlobStoreImpl implements BlobStore {
                     final int newCount = count + 1;
 
                     // write journal entries to the WAL
+                    // NOTE: the WAL entry is forced to disk by the PersistentWriter before it writes the new value
+                    Lsn lsn = Lsn.LSN_INVALID;
                     if (journalManager != null) {
                         try {
-                            journalManager.journal(new UpdateBlobRefCountLoggable(transaction.getId(), blobId, count, newCount));
-                            journalManager.flush(true, true);   // force WAL entries to disk!
+                            final UpdateBlobRefCountLoggable updateBlobRefCountLoggable = new UpdateBlobRefCountLoggable(transaction.getId(), blobId, count, newCount);
+                            journalManager.journal(updateBlobRefCountLoggable);
+                            lsn = updateBlobRefCountLoggable.getLsn();
                         } catch (final JournalException e) {
                             // restore the state of the blobReference first!
                             blobReference.count.set(count);
@@ -774,11 +798,15 @@ public class BlobStoreImpl implements BlobStore {
                     }
 
                     // persist the new value
-                    persistQueue.put(Tuple(blobId, blobReference, newCount));
+                    persistQueue.put(Tuple(blobId, blobReference, newCount, lsn));
 
                     // update memory with the new value, and release other spinning threads
                     blobReference.count.set(newCount);
 
+                    addCount.increment();
+                    deduplicatedCount.increment();
+                    deduplicatedBytes.add(staged._2);
+
                     // done!
                     return Tuple(blobId, staged._2);
                 }
@@ -828,10 +856,13 @@ public class BlobStoreImpl implements BlobStore {
 
                     // write journal entries to the WAL
                     final JournalManager journalManager = database.getJournalManager().orElse(null);
+                    // NOTE: the WAL entry is forced to disk by the PersistentWriter before it writes the new value
+                    Lsn lsn = Lsn.LSN_INVALID;
                     if (journalManager != null) {
                         try {
-                            journalManager.journal(new UpdateBlobRefCountLoggable(transaction.getId(), blobId, count, newCount));
-                            journalManager.flush(true, true);   // force WAL entries to disk!
+                            final UpdateBlobRefCountLoggable updateBlobRefCountLoggable = new UpdateBlobRefCountLoggable(transaction.getId(), blobId, count, newCount);
+                            journalManager.journal(updateBlobRefCountLoggable);
+                            lsn = updateBlobRefCountLoggable.getLsn();
                         } catch (final JournalException e) {
                             // restore the state of the blobReference first!
                             blobReference.count.set(count);
@@ -840,7 +871,7 @@ public class BlobStoreImpl implements BlobStore {
                     }
 
                     // persist the new value
-                    persistQueue.put(Tuple(blobId, blobReference, newCount));
+                    persistQueue.put(Tuple(blobId, blobReference, newCount, lsn));
 
                     // update memory with the new value, and release other spinning threads
                     blobReference.count.set(newCount);
@@ -991,6 +1022,12 @@ public class BlobStoreImpl implements BlobStore {
         return blobReference.count.get();
     }
 
+    @Override
+    public Statistics getStatistics() {
+        return new Statistics(addCount.sum(), deduplicatedCount.sum(), deduplicatedBytes.sum(),
+                persistBatchCount.sum(), persistEntryCount.sum());
+    }
+
     @Override
     public void remove(final Txn transaction, final BlobId blobId) throws IOException {
         if (state.get() != State.OPEN) {
@@ -1033,10 +1070,13 @@ public class BlobStoreImpl implements BlobStore {
 
                     // write journal entries to the WAL
                     final JournalManager journalManager = database.getJournalManager().orElse(null);
+                    // NOTE: the WAL entry is forced to disk by the PersistentWriter before it writes the new value
+                    Lsn lsn = Lsn.LSN_INVALID;
                     if (journalManager != null) {
                         try {
-                            journalManager.journal(new UpdateBlobRefCountLoggable(transaction.getId(), blobId, count, newCount));
-                            journalManager.flush(true, true);   // force WAL entries to disk!
+                            final UpdateBlobRefCountLoggable updateBlobRefCountLoggable = new UpdateBlobRefCountLoggable(transaction.getId(), blobId, count, newCount);
+                            journalManager.journal(updateBlobRefCountLoggable);
+                            lsn = updateBlobRefCountLoggable.getLsn();
                         } catch (final JournalException e) {
                             // restore the state of the blobReference first!
                             blobReference.count.set(count);
@@ -1045,7 +1085,7 @@ public class BlobStoreImpl implements BlobStore {
                     }
 
                     // schedule disk persist of the new value
-                    persistQueue.put(Tuple(blobId, blobReference, newCount));
+                    persistQueue.put(Tuple(blobId, blobReference, newCount, lsn));
 
                     if (newCount == 0) {
                         // schedule blob file for vacuum.
@@ -1551,33 +1591,80 @@ public class BlobStoreImpl implements BlobStore {
          * when encountered the {@link PersistentWriter} will
          * shutdown.
          */
-        public static final Tuple3<BlobId, BlobReference, Integer> POISON_PILL = Tuple(null, null, null);
+        public static final Tuple4<BlobId, BlobReference, Integer, Lsn> POISON_PILL = Tuple(null, null, null, null);
+
+        /**
+         * The maximum number of entries taken from the {@link #persistQueue}
+         * and written after a single flush of the journal.
+         */
+        private static final int MAX_BATCH_SIZE = 256;
 
-        private final BlockingQueue<Tuple3<BlobId, BlobReference, Integer>> persistQueue;
+        private final BlockingQueue<Tuple4<BlobId, BlobReference, Integer, Lsn>> persistQueue;
         private final ByteBuffer buffer;
         private final SeekableByteChannel channel;
+        @Nullable private final JournalManager journalManager;
+        private final LongAdder batchCount;
+        private final LongAdder entryCount;
         private final Runnable abnormalShutdownCallback;
 
-        PersistentWriter(final BlockingQueue<Tuple3<BlobId, BlobReference, Integer>> persistQueue,
-                final ByteBuffer buffer, final SeekableByteChannel channel, final Runnable abnormalShutdownCallback) {
+        PersistentWriter(final BlockingQueue<Tuple4<BlobId, BlobReference, Integer, Lsn>> persistQueue,
+                final ByteBuffer buffer, final SeekableByteChannel channel,
+                @Nullable final JournalManager journalManager, final LongAdder batchCount,
+                final LongAdder entryCount, final Runnable abnormalShutdownCallback) {
             this.persistQueue = persistQueue;
             this.buffer = buffer;
             this.channel = channel;
+            this.journalManager = journalManager;
+            this.batchCount = batchCount;
+            this.entryCount = entryCount;
             this.abnormalShutdownCallback = abnormalShutdownCallback;
         }
 
         @Override
         public void run() {
+            final List<Tuple4<BlobId, BlobReference, Integer, Lsn>> batch = new ArrayList<>(MAX_BATCH_SIZE);
             try {
                 while (true) {
-                    final Tuple3<BlobId, BlobReference, Integer> blobData = persistQueue.take();
-                    if (blobData == POISON_PILL) {
-                        // if we received the Poison Pill, we should shutdown!
-                        break;  // exit
+                    // wait for at least one entry, then take whatever else is already waiting
+                    batch.add(persistQueue.take());
+                    persistQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+                    // find the latest journal entry of the batch
+                    boolean shutdown = false;
+                    Lsn maxLsn = Lsn.LSN_INVALID;
+                    int size = 0;
+                    for (final Tuple4<BlobId, BlobReference, Integer, Lsn> blobData : batch) {
+                        if (blobData == POISON_PILL) {
+                            // if we received the Poison Pill, we should shutdown after writing what preceded it!
+                            shutdown = true;
+                            break;
+                        }
+                        if (blobData._4 != null && blobData._4.compareTo(maxLsn) > 0) {
+                            maxLsn = blobData._4;
+                        }
+                        size++;
                     }
 
-                    // write an entry
-                    writeEntry(blobData._1, blobData._2, blobData._3);
+                    // WAL: make sure the journal entries for the whole batch are on disk, with a single sync
+                    if (journalManager != null && !maxLsn.equals(Lsn.LSN_INVALID)) {
+                        journalManager.flush(maxLsn);
+                    }
+
+                    // write the entries
+                    for (int i = 0; i < size; i++) {
+                        final Tuple4<BlobId, BlobReference, Integer, Lsn> blobData = batch.get(i);
+                        writeEntry(blobData._1, blobData._2, blobData._3);
+                    }
+                    batch.clear();
+
+                    if (size > 0) {
+                        batchCount.increment();
+                        entryCount.add(size);
+                    }
+
+                    if (shutdown) {
+                        break;  // exit
+                    }
                 }
             } catch (final InterruptedException e) {
                 // Restore the interrupted status
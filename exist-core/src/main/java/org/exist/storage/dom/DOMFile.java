@@ -32,6 +32,7 @@ import java.util.List;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.annotation.Nullable;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.exist.storage.btree.Paged.Page.NO_PAGE;
 
@@ -1949,28 +1950,10 @@ public class DOMFile extends BTree implements Lockable {
      * @return string value of the specified node
      */
     public String getNodeValue(final DBBroker broker, final IStoredNode node, final boolean addWhitespace) {
-        if(LOG.isDebugEnabled() && !lockManager.isBtreeLocked(getLockName())) {
-            LOG.debug("The file doesn't own a lock");
-        }
         try {
-            long address = node.getInternalAddress();
-            RecordPos recordPos = null;
-            // try to directly locate the root node through its storage address
-            if (StorageAddress.hasAddress(address)) {
-                recordPos = findRecord(address);
-            }
+            final RecordPos recordPos = findNodeRecord(broker, node);
             if (recordPos == null) {
-                // fallback to a BTree lookup if the node could not be found
-                // by its storage address
-                address = findValue(broker, new NodeProxy(null, node));
-                if (address == BTree.KEY_NOT_FOUND) {
-                    LOG.error("Node value not found: {}", node);
-                    //TODO : throw exception ? -pb
-                    return null;
-                }
-                recordPos = findRecord(address);
-                SanityCheck.THROW_ASSERT(recordPos != null, "Node data could not be found!");
-                //TODO : throw exception ? -pb
+                return null;
             }
             // we collect the string values in binary format and append them to a ByteArrayOutputStream
             try(final UnsynchronizedByteArrayOutputStream os = new UnsynchronizedByteArrayOutputStream(32)) {
@@ -1996,6 +1979,66 @@ public class DOMFile extends BTree implements Lockable {
         return null;
     }
 
+    /**
+     * Compare the string value of the specified node with a value, without
+     * decoding the string value of the node. The stored node data is directly
+     * compared with the UTF-8 encoded value, so that no string is created.
+     *
+     * @param broker the database broker
+     * @param node the node
+     * @param value the value encoded by {@link UTF8#encode(String, byte[], int)}
+     * @return true if the string value of the node equals the value, false otherwise
+     */
+    public boolean nodeValueEquals(final DBBroker broker, final IStoredNode node, final byte[] value) {
+        try {
+            final RecordPos recordPos = findNodeRecord(broker, node);
+            if (recordPos == null) {
+                return false;
+            }
+            final ValueMatcher matcher = new ValueMatcher(value);
+            getNodeValue(broker.getBrokerPool(), matcher, recordPos, true, false);
+            return matcher.matches();
+        } catch (final BTreeException e) {
+            LOG.error("BTree error while reading node value", e);
+        } catch (final Exception e) {
+            LOG.error("IO error while reading node value", e);
+        }
+        return false;
+    }
+
+    /**
+     * Locate the record of the specified node.
+     *
+     * @param broker the database broker
+     * @param node the node
+     * @return the position of the record, or null if the node could not be found
+     */
+    private @Nullable RecordPos findNodeRecord(final DBBroker broker, final IStoredNode node) throws BTreeException, IOException {
+        if(LOG.isDebugEnabled() && !lockManager.isBtreeLocked(getLockName())) {
+            LOG.debug("The file doesn't own a lock");
+        }
+        long address = node.getInternalAddress();
+        RecordPos recordPos = null;
+        // try to directly locate the root node through its storage address
+        if (StorageAddress.hasAddress(address)) {
+            recordPos = findRecord(address);
+        }
+        if (recordPos == null) {
+            // fallback to a BTree lookup if the node could not be found
+            // by its storage address
+            address = findValue(broker, new NodeProxy(null, node));
+            if (address == BTree.KEY_NOT_FOUND) {
+                LOG.error("Node value not found: {}", node);
+                //TODO : throw exception ? -pb
+                return null;
+            }
+            recordPos = findRecord(address);
+            SanityCheck.THROW_ASSERT(recordPos != null, "Node data could not be found!");
+            //TODO : throw exception ? -pb
+        }
+        return recordPos;
+    }
+
     /**
      * Recursive method to retrieve the string values of the root node
      * and all its descendants.
@@ -2007,9 +2050,9 @@ public class DOMFile extends BTree implements Lockable {
      * @param addWhitespace true if whitespace should be added to the node value
      */
     private void getNodeValue(final BrokerPool pool,
-                              final UnsynchronizedByteArrayOutputStream os,
+                              final OutputStream os,
                               final RecordPos rec, final boolean isTopNode,
-                              final boolean addWhitespace) {
+                              final boolean addWhitespace) throws IOException {
         if(LOG.isDebugEnabled() && !lockManager.isBtreeLocked(getLockName())) {
             LOG.debug("The file doesn't own a lock");
         }
@@ -3499,6 +3542,54 @@ public class DOMFile extends BTree implements Lockable {
         }
     }
 
+    /**
+     * Compares the bytes written to it with an expected value,
+     * without buffering them.
+     */
+    private static final class ValueMatcher extends OutputStream {
+        private final byte[] expected;
+        private int position = 0;
+        private boolean mismatch = false;
+
+        ValueMatcher(final byte[] expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(final int b) {
+            if (mismatch) {
+                return;
+            }
+            if (position == expected.length || expected[position] != (byte) b) {
+                mismatch = true;
+                return;
+            }
+            position++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            if (mismatch) {
+                return;
+            }
+            if (len > expected.length - position) {
+                mismatch = true;
+                return;
+            }
+            for (int i = 0; i < len; i++) {
+                if (expected[position + i] != b[off + i]) {
+                    mismatch = true;
+                    return;
+                }
+            }
+            position += len;
+        }
+
+        boolean matches() {
+            return !mismatch && position == expected.length;
+        }
+    }
+
     private final class FindCallback implements BTreeCallback {
         static final int KEYS = 1;
         static final int VALUES = 0;
@@ -436,6 +436,25 @@ public final class Journal implements Closeable {
         }
     }
 
+    /**
+     * Flush the current buffer to disk and force a sync, but only if the
+     * journal has not already been synced up to (and including) the given LSN.
+     *
+     * This allows several writers that each require their own entries to be
+     * durable to share a single sync, i.e. a group commit.
+     *
+     * @param lsn the LSN of the latest entry which must be on disk.
+     */
+    public synchronized void flushToLog(final Lsn lsn) {
+        if (inRecovery || channel == null) {
+            return;
+        }
+
+        if (lsn.compareTo(lastSyncLsn) > 0) {
+            flushToLog(true, true);
+        }
+    }
+
     private void sync() throws IOException {
         channel.force(true);
     }
@@ -170,6 +170,20 @@ public class JournalManager implements BrokerPoolService {
         journal.flushToLog(fsync, forceSync);
     }
 
+    /**
+     * Flush the Journal, forcing an fsync only if
+     * the entry with the given LSN is not yet on disk.
+     *
+     * @param lsn the LSN of the latest entry which must be on disk.
+     *
+     * See {@link Journal#flushToLog(Lsn)}.
+     */
+    public synchronized void flush(final Lsn lsn) {
+        if (!journallingDisabled) {
+            journal.flushToLog(lsn);
+        }
+    }
+
 
 
     /**
@@ -236,10 +236,10 @@ public class LockManager {
 
         final long groupId = System.nanoTime();
 
-        String pathStr = "";
+        final StringBuilder pathBuilder = new StringBuilder(64);
         final LockedPath[] locked = new LockedPath[segments.length];
         for (int i = 0; i < segments.length; i++) {
-            pathStr += '/' + segments[i].toString();
+            final String pathStr = pathBuilder.append('/').append(segments[i].toString()).toString();
 
             final Lock.LockMode lockMode;
             if (i + 1 == segments.length) {
@@ -385,10 +385,10 @@ public class LockManager {
 
         final long groupId = System.nanoTime();
 
-        String pathStr = "";
+        final StringBuilder pathBuilder = new StringBuilder(64);
         final LockedPath[] locked = new LockedPath[segments.length];
         for (int i = 0; i < segments.length; i++) {
-            pathStr += '/' + segments[i].toString();
+            final String pathStr = pathBuilder.append('/').append(segments[i].toString()).toString();
 
             final Lock.LockMode lockMode;
             if (lockParent && i + 2 == segments.length) {
@@ -154,7 +154,6 @@ public class LockTable {
             return;
         }
 
-        final long timestamp = System.nanoTime();
         final Thread currentThread = Thread.currentThread();
 
 //        if(ignoreEvent(threadName, id)) {
@@ -191,7 +190,7 @@ public class LockTable {
                 // write count last to ensure reader-thread visibility of above fields
                 entry.count = 1;
 
-                notifyListeners(lockEventType, timestamp, groupId, entry);
+                notifyListeners(lockEventType, groupId, entry);
 
                 break;
 
@@ -206,7 +205,7 @@ public class LockTable {
                 // mark attempt as unused
                 attemptFailedEntry.count = 0;
 
-                notifyListeners(lockEventType, timestamp, groupId, attemptFailedEntry);
+                notifyListeners(lockEventType, groupId, attemptFailedEntry);
 
                 break;
 
@@ -228,12 +227,12 @@ public class LockTable {
                     acquiredEntries = new Entries(acquiredEntry);
                     acquired.put(currentThread, acquiredEntries);
 
-                    notifyListeners(lockEventType, timestamp, groupId, acquiredEntry);
+                    notifyListeners(lockEventType, groupId, acquiredEntry);
 
                 } else {
 
                     final Entry acquiredEntry = acquiredEntries.merge(attemptEntry);
-                    notifyListeners(lockEventType, timestamp, groupId, acquiredEntry);
+                    notifyListeners(lockEventType, groupId, acquiredEntry);
                 }
 
                 // mark attempt as unused
@@ -255,7 +254,7 @@ public class LockTable {
                     break;
                 }
 
-                notifyListeners(lockEventType, timestamp, groupId, releasedEntry);
+                notifyListeners(lockEventType, groupId, releasedEntry);
 
                 break;
         }
@@ -268,9 +267,19 @@ public class LockTable {
      */
     @ThreadSafe
     private static class Entries {
+        private static final int MAX_RECYCLED_ENTRIES = 16;
+
         private final StampedLock entriesLock = new StampedLock();
         @GuardedBy("entriesLock") private final ObjectLinkedOpenHashSet<Entry> entries = new ObjectLinkedOpenHashSet<>();
 
+        /*
+         * The fields below are only ever accessed by the writing-thread,
+         * they avoid allocating a new Entry for each lock acquisition and release.
+         */
+        private final Entry lookupKey = new Entry();
+        private final Entry[] recycled = new Entry[MAX_RECYCLED_ENTRIES];
+        private int recycledCount = 0;
+
         public Entries(final Entry entry) {
             entries.add(entry);
         }
@@ -329,7 +338,7 @@ public class LockTable {
                 }
 
                 // we have a write lock, add it
-                final Entry acquiredEntry = new Entry(attemptEntry);
+                final Entry acquiredEntry = newEntry(attemptEntry);
                 entries.add(acquiredEntry);
                 return acquiredEntry;
             } finally {
@@ -340,9 +349,29 @@ public class LockTable {
             }
         }
 
+        private Entry newEntry(final Entry attemptEntry) {
+            if (recycledCount == 0) {
+                return new Entry(attemptEntry);
+            }
+
+            final Entry entry = recycled[--recycledCount];
+            recycled[recycledCount] = null;
+            entry.setFrom(attemptEntry);
+            return entry;
+        }
+
+        private void recycle(final Entry entry) {
+            if (recycledCount < MAX_RECYCLED_ENTRIES) {
+                recycled[recycledCount++] = entry;
+            }
+        }
+
         @Nullable
         public Entry unmerge(final String id, final LockType lockType, final LockMode lockMode) {
-            final Entry key = new Entry(id, lockType, lockMode, null, null);
+            final Entry key = lookupKey;
+            key.id = id;
+            key.lockType = lockType;
+            key.lockMode = lockMode;
 
             // optimistic read
             long stamp = entriesLock.tryOptimisticRead();
@@ -353,6 +382,7 @@ public class LockTable {
                 if (writeStamp != 0L) {
                     try {
                         entries.remove(local);
+                        recycle(local);
                         local.count--;
                         return local;
                     } finally {
@@ -388,6 +418,7 @@ public class LockTable {
                     if (writeStamp != 0L) {
                         stamp = writeStamp;  // NOTE: this causes the write lock to be released in the finally further down
                         entries.remove(local);
+                        recycle(local);
                         local.count--;
                         return local;
                     }
@@ -413,6 +444,7 @@ public class LockTable {
                 stamp = entriesLock.writeLock();
                 try {
                     entries.remove(local);
+                    recycle(local);
                     local.count--;
                     return local;
                 } finally {
@@ -650,12 +682,12 @@ public class LockTable {
         }
     }
 
-    private void notifyListeners(final LockEventType lockEventType, final long timestamp, final long groupId,
-            final Entry entry) {
+    private void notifyListeners(final LockEventType lockEventType, final long groupId, final Entry entry) {
         if (listeners == null) {
             return;
         }
 
+        final long timestamp = System.nanoTime();
         final long stamp = listenersLock.readLock();
         try {
             for (LockEventListener listener : listeners) {
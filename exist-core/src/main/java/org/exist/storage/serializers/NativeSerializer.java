@@ -76,6 +76,9 @@ public class NativeSerializer extends Serializer {
     private final static Pattern P_ZERO_VALUES = Pattern.compile("0(,0)?");
     private final static Matcher M_ZERO_VALUES = P_ZERO_VALUES.matcher("");
 
+    // reused for the attributes of every element, receivers consume them in startElement
+    private final AttrList elementAttribs = new AttrList();
+
     public NativeSerializer(DBBroker broker, Configuration config) {
         this(broker, config, null);
     }
@@ -191,7 +194,8 @@ public class NativeSerializer extends Serializer {
                 }
 	            receiver.startPrefixMapping(prefix, ns);
 	        }
-        	final AttrList attribs = new AttrList();
+        	final AttrList attribs = elementAttribs;
+        	attribs.clear();
         	if ((first && showId == EXIST_ID_ELEMENT) || showId == EXIST_ID_ALL) {
                 attribs.addAttribute(ID_ATTRIB, node.getNodeId().toString());
             /* 
@@ -1210,11 +1210,11 @@ public abstract class Serializer implements XMLReader {
         if (docChildren.getLength() == 1) {
             final Node onlyChild = docChildren.item(0);
             if (onlyChild.getNodeType() == NodeImpl.REFERENCE_NODE) {
-                // if this is a reference to a persistent document node then we must expand it
-                final NodeProxy nodeProxy = ((ReferenceNode) onlyChild).getReference();
-                if (nodeProxy.getNodeType() == Node.DOCUMENT_NODE) {
+                // if this is a reference to a document node then we must expand it
+                final NodeValue reference = ((ReferenceNode) onlyChild).getReference();
+                if (reference.getType() == Type.DOCUMENT) {
                     // switch docChildren to the children of the dereferencedNode
-                    final Node dereferencedNode = nodeProxy.getNode();
+                    final Node dereferencedNode = reference.getNode();
                     docChildren = dereferencedNode.getChildNodes();
                 }
             }
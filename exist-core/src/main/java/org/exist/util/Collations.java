@@ -27,7 +27,9 @@ import java.text.StringCharacterIterator;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -100,6 +102,18 @@ public class Collations {
      */
     private final static AtomicReference<Collator> samiskCollator = new AtomicReference<>();
 
+    /**
+     * The maximum number of Collators to cache
+     */
+    private final static int MAX_CACHED_COLLATORS = 64;
+
+    /**
+     * Collators which have been created for a URI. As they are frozen,
+     * they may be shared, which saves building the collation tailoring
+     * each time a URI is resolved
+     */
+    private final static Map<String, Collator> collators = new ConcurrentHashMap<>();
+
     /**
      * Get a {@link Comparator}from the specified URI.
      *
@@ -130,6 +144,17 @@ public class Collations {
      * @throws XPathException If an error occurs whilst constructing the Collator
      */
     public static @Nullable Collator getCollationFromURI(final String uri, @Nullable final Expression expression) throws XPathException {
+        Collator collator = collators.get(uri);
+        if (collator == null) {
+            collator = createCollationFromURI(uri, expression);
+            if (collator != null && collators.size() < MAX_CACHED_COLLATORS) {
+                collators.putIfAbsent(uri, collator);
+            }
+        }
+        return collator;
+    }
+
+    private static @Nullable Collator createCollationFromURI(final String uri, @Nullable final Expression expression) throws XPathException {
         final Collator collator;
 
         if (uri.startsWith(EXIST_COLLATION_URI) || uri.startsWith(UCA_COLLATION_URI) || uri.startsWith("?")) {
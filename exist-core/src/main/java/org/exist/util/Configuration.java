@@ -55,6 +55,7 @@ import org.exist.storage.BrokerPool;
 import org.exist.storage.DBBroker;
 import org.exist.storage.DefaultCacheManager;
 import org.exist.storage.IndexSpec;
+import org.exist.storage.LibraryModuleCache;
 import org.exist.storage.NativeBroker;
 import org.exist.storage.XQueryPool;
 import org.exist.storage.serializers.CustomMatchListenerFactory;
@@ -107,6 +108,10 @@ import static org.exist.storage.DBBroker.*;
 import static org.exist.storage.DefaultCacheManager.*;
 import static org.exist.storage.NativeBroker.INDEX_DEPTH_ATTRIBUTE;
 import static org.exist.storage.NativeBroker.PROPERTY_INDEX_DEPTH;
+import static org.exist.storage.NativeBroker.PROPERTY_REINDEX_ONLINE;
+import static org.exist.storage.NativeBroker.PROPERTY_REINDEX_PARALLELISM;
+import static org.exist.storage.NativeBroker.REINDEX_ONLINE_ATTRIBUTE;
+import static org.exist.storage.NativeBroker.REINDEX_PARALLELISM_ATTRIBUTE;
 import static org.exist.storage.NativeValueIndex.INDEX_CASE_SENSITIVE_ATTRIBUTE;
 import static org.exist.storage.NativeValueIndex.PROPERTY_INDEX_CASE_SENSITIVE;
 import static org.exist.storage.XQueryPool.MAX_STACK_SIZE_ATTRIBUTE;
@@ -1220,6 +1225,21 @@ public class Configuration implements ErrorHandler {
                 LOG.warn(e);
             }
         }
+
+        final String moduleCacheSize = getConfigAttributeValue(queryPool, LibraryModuleCache.MODULE_CACHE_SIZE_ATTRIBUTE);
+
+        if (moduleCacheSize != null) {
+            try {
+                config.put(LibraryModuleCache.PROPERTY_MODULE_CACHE_SIZE, Integer.valueOf(moduleCacheSize));
+                LOG.debug(PRP_DETAILS, LibraryModuleCache.PROPERTY_MODULE_CACHE_SIZE, config.get(LibraryModuleCache.PROPERTY_MODULE_CACHE_SIZE));
+            } catch (final NumberFormatException e) {
+                LOG.warn(e);
+            }
+        }
+
+        final String moduleCachePrewarm = getConfigAttributeValue(queryPool, LibraryModuleCache.MODULE_CACHE_PREWARM_ATTRIBUTE);
+        config.put(LibraryModuleCache.PROPERTY_MODULE_CACHE_PREWARM, parseBoolean(moduleCachePrewarm, false));
+        LOG.debug(PRP_DETAILS, LibraryModuleCache.PROPERTY_MODULE_CACHE_PREWARM, config.get(LibraryModuleCache.PROPERTY_MODULE_CACHE_PREWARM));
     }
 
     private void configureStartup(final Element startup) {
@@ -1362,6 +1382,24 @@ public class Configuration implements ErrorHandler {
             }
         }
 
+        final String reindexParallelism = getConfigAttributeValue(indexer, REINDEX_PARALLELISM_ATTRIBUTE);
+
+        if (reindexParallelism != null) {
+            try {
+                config.put(PROPERTY_REINDEX_PARALLELISM, Math.max(1, Integer.parseInt(reindexParallelism)));
+                LOG.debug(PRP_DETAILS, PROPERTY_REINDEX_PARALLELISM, config.get(PROPERTY_REINDEX_PARALLELISM));
+            } catch (final NumberFormatException e) {
+                LOG.warn(e);
+            }
+        }
+
+        final String reindexOnline = getConfigAttributeValue(indexer, REINDEX_ONLINE_ATTRIBUTE);
+
+        if (reindexOnline != null) {
+            config.put(PROPERTY_REINDEX_ONLINE, parseBoolean(reindexOnline, false));
+            LOG.debug(PRP_DETAILS, PROPERTY_REINDEX_ONLINE, config.get(PROPERTY_REINDEX_ONLINE));
+        }
+
         final String suppressWS = getConfigAttributeValue(indexer, SUPPRESS_WHITESPACE_ATTRIBUTE);
 
         if (suppressWS != null) {
@@ -25,6 +25,8 @@ import org.exist.dom.persistent.AttrImpl;
 import org.exist.dom.QName;
 import org.exist.numbering.NodeId;
 
+import java.util.Arrays;
+
 /**
  * Represents a list of attributes. Each attribute is defined by
  * a {@link org.exist.dom.QName} and a value. Instances
@@ -85,6 +87,17 @@ public class AttrList {
     public int getType(int pos) {
         return type[pos];
     }
+
+    /**
+     * Remove all attributes, so that the list
+     * can be reused for another element.
+     */
+    public void clear() {
+        Arrays.fill(nodeIds, 0, size, null);
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
     
     private void ensureCapacity() {
 		if(size == names.length) {
@@ -30,6 +30,8 @@ import javax.xml.XMLConstants;
 import javax.xml.transform.TransformerException;
 
 import org.exist.dom.memtree.NodeImpl;
+import org.exist.dom.memtree.ReferenceNode;
+import org.exist.xquery.value.NodeValue;
 import org.w3c.dom.Attr;
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.Comment;
@@ -60,6 +62,11 @@ public class DOMSerializer extends AbstractSerializer {
 
     public void serialize(Node node) throws TransformerException {
     	receiver.startDocument();
+        serializeNode(node);
+        receiver.endDocument();
+    }
+
+    private void serializeNode(Node node) throws TransformerException {
         final Node top = node;
         while (node != null) {
             startNode(node);
@@ -80,7 +87,6 @@ public class DOMSerializer extends AbstractSerializer {
             }
             node = nextNode;
         }
-        receiver.endDocument();
     }
 
     protected void startNode(Node node) throws TransformerException {
@@ -165,6 +171,13 @@ public class DOMSerializer extends AbstractSerializer {
         case Node.COMMENT_NODE :
             receiver.comment(((Comment) node).getData());
             break;
+        case NodeImpl.REFERENCE_NODE :
+            final NodeValue reference = ((ReferenceNode) node).getReference();
+            if (reference instanceof NodeImpl) {
+                // a node of another in-memory document
+                serializeNode(reference.getNode());
+            }
+            break;
         default :
             //TODO : what kind of defaut here ?!! -pb
             break;
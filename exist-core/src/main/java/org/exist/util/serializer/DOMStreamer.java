@@ -27,7 +27,9 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.exist.dom.QName;
 import org.exist.dom.QName.IllegalQNameException;
+import org.exist.dom.memtree.NodeImpl;
 import org.exist.dom.memtree.ReferenceNode;
+import org.exist.xquery.value.NodeValue;
 import org.w3c.dom.Attr;
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.Comment;
@@ -274,6 +276,14 @@ public class DOMStreamer {
                     lexicalHandler.comment(cdata.toCharArray(), 0, cdata.length());
                 }
                 break;
+            case NodeImpl.REFERENCE_NODE:
+                final NodeValue reference = ((ReferenceNode) node).getReference();
+                if (reference instanceof NodeImpl) {
+                    // a node of another in-memory document
+                    serialize(reference.getNode(), false);
+                    break;
+                }
+                // fall through
             default:
                 //TODO : what kind of default here ? -pb
                 LOG.error("Unknown node type: {}", node.getNodeType());
@@ -28,8 +28,10 @@ import javax.xml.transform.TransformerException;
 
 import org.exist.dom.memtree.NodeImpl;
 import org.exist.dom.memtree.ReferenceNode;
+import org.exist.dom.persistent.NodeProxy;
 import org.exist.storage.DBBroker;
 import org.exist.storage.serializers.Serializer;
+import org.exist.xquery.value.NodeValue;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
@@ -67,7 +69,12 @@ public class ExtendedDOMSerializer extends DOMSerializer {
                 //Nothing to do ?
             }
             try {
-                serializer.toSAX(((ReferenceNode)node).getReference());
+                final NodeValue reference = ((ReferenceNode)node).getReference();
+                if(reference instanceof NodeProxy) {
+                    serializer.toSAX((NodeProxy) reference);
+                } else {
+                    serializer.toSAX(reference);
+                }
             } catch (final SAXException e) {
                 throw new TransformerException(e.getMessage(), e);
             } finally {
@@ -23,6 +23,7 @@ package org.exist.util.serializer;
 
 import org.exist.dom.memtree.NodeImpl;
 import org.exist.dom.memtree.ReferenceNode;
+import org.exist.dom.persistent.NodeProxy;
 import org.exist.storage.serializers.Serializer;
 import org.w3c.dom.Node;
 import org.xml.sax.ContentHandler;
@@ -66,12 +67,13 @@ public class ExtendedDOMStreamer extends DOMStreamer {
 
     @Override
     protected void startNode(final Node node) throws SAXException {
-        if (node.getNodeType() == NodeImpl.REFERENCE_NODE) {
+        if (node.getNodeType() == NodeImpl.REFERENCE_NODE && ((ReferenceNode) node).getReference() instanceof NodeProxy proxy) {
             if (xmlSerializer == null) {
                 throw new SAXException("Cannot serialize node reference. Serializer is undefined.");
             }
-            xmlSerializer.toReceiver(((ReferenceNode) node).getReference(), true);
+            xmlSerializer.toReceiver(proxy, true);
         } else {
+            // references to nodes of other in-memory documents are streamed by the DOMStreamer
             super.startNode(node);
         }
     }
@@ -71,6 +71,7 @@ public class XMLWriter implements SerializerWriter {
     protected Properties outputProperties;
 
     private final char[] charref = new char[10];
+    private final char[] charBuf = new char[512];
 
     private static final boolean[] textSpecialChars;
 
@@ -657,8 +658,19 @@ public class XMLWriter implements SerializerWriter {
     }
 
     private void writeCharSeq(final CharSequence ch, final int start, final int end) throws IOException {
-        for(int i = start; i < end; i++) {
-            writer.write(ch.charAt(i));
+        if(ch instanceof String) {
+            writer.write((String) ch, start, end - start);
+            return;
+        }
+        // copy through a buffer, so that the writer is called once per run of characters rather than once per character
+        int pos = start;
+        while(pos < end) {
+            final int len = Math.min(end - pos, charBuf.length);
+            for(int i = 0; i < len; i++) {
+                charBuf[i] = ch.charAt(pos + i);
+            }
+            writer.write(charBuf, 0, len);
+            pos += len;
         }
     }
 
@@ -63,7 +63,15 @@ public class Atomize extends AbstractExpression {
                 {context.getProfiler().message(this, Profiler.START_SEQUENCES, "CONTEXT ITEM", contextItem.toSequence());}
         }        
 		
-        final Sequence result = atomize(expression.eval(contextSequence, contextItem));
+        final Sequence seq = expression.eval(contextSequence, contextItem);
+        final Sequence result;
+        if (seq instanceof DeferredFunctionCall
+                && Type.subTypeOf(((DeferredFunctionCall) seq).getReturnType().getPrimaryType(), Type.ATOMIC)) {
+            // tail call, its result is atomized when it is executed
+            result = seq;
+        } else {
+            result = atomize(seq);
+        }
 
         if (context.getProfiler().isEnabled())           
             {context.getProfiler().end(this, "", result);}   
@@ -71,6 +71,8 @@ public abstract class BinaryOp extends PathExpr {
     	inWhereClause = (contextInfo.getFlags() & IN_WHERE_CLAUSE) != 0;
     	getLeft().analyze(new AnalyzeContextInfo(contextInfo));
     	getRight().analyze(new AnalyzeContextInfo(contextInfo));
+    	steps.set(0, ConstantFolding.fold(getLeft()));
+    	steps.set(1, ConstantFolding.fold(getRight()));
     }
 
     /*
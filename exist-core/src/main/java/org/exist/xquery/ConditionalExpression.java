@@ -83,6 +83,10 @@ public class ConditionalExpression extends AbstractExpression implements Rewrita
         thenExpr.analyze(myContextInfo);
         myContextInfo.setParent(this);
         elseExpr.analyze(myContextInfo);
+
+        testExpr = ConstantFolding.fold(testExpr);
+        thenExpr = ConstantFolding.fold(thenExpr);
+        elseExpr = ConstantFolding.fold(elseExpr);
     }
 
     /* (non-Javadoc)
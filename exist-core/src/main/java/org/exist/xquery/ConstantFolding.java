@@ -0,0 +1,129 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery;
+
+import org.exist.xquery.value.AtomicValue;
+import org.exist.xquery.value.Sequence;
+import org.exist.xquery.value.Type;
+
+/**
+ * Folds constant expressions into {@link LiteralValue}s when a query is analyzed,
+ * so that they are evaluated once, rather than on every execution of the query.
+ *
+ * An expression is constant if it only depends on literals, through operators
+ * and functions which are known to be deterministic, i.e. numeric arithmetic,
+ * string concatenation, casts, sequence construction and calls of functions whose
+ * {@link FunctionSignature#isDeterministic()} is true.
+ *
+ * Only expressions which evaluate to a single atomic value are replaced. An expression
+ * which raises an error is left in place, so that the error is still raised when,
+ * and only if, the expression is evaluated.
+ */
+public final class ConstantFolding {
+
+    private ConstantFolding() {
+    }
+
+    /**
+     * Fold an expression, which has already been analyzed, if it is constant.
+     *
+     * @param expr the expression
+     *
+     * @return a literal holding the value of the expression, or the expression itself
+     *     if it is not constant or could not be folded.
+     */
+    public static Expression fold(final Expression expr) {
+        if (expr == null || expr instanceof LiteralValue || !expr.getContext().optimizationsEnabled() || !isConstant(expr)) {
+            return expr;
+        }
+
+        final Sequence result;
+        try {
+            result = expr.eval(null, null);
+        } catch (final XPathException e) {
+            return expr;
+        }
+
+        if (!result.hasOne() || !Type.subTypeOf(result.getItemType(), Type.ATOMIC)) {
+            return expr;
+        }
+
+        final LiteralValue literal = new LiteralValue(expr.getContext(), (AtomicValue) result.itemAt(0));
+        literal.setLocation(expr.getLine(), expr.getColumn());
+        return literal;
+    }
+
+    /**
+     * Determines if an expression is constant.
+     *
+     * @param expr the expression
+     *
+     * @return true if the expression only depends on literals, false otherwise.
+     */
+    static boolean isConstant(final Expression expr) {
+        if (expr instanceof LiteralValue) {
+            return true;
+
+        } else if (expr instanceof Atomize || expr instanceof DynamicCardinalityCheck
+                || expr instanceof DynamicTypeCheck || expr instanceof UntypedValueCheck) {
+            return isConstant(expr.getSubExpression(0));
+
+        } else if (expr instanceof CastExpression) {
+            // casting to xs:QName depends on the in-scope namespaces
+            return expr.returnsType() != Type.QNAME && isConstant(((CastExpression) expr).getInnerExpression());
+
+        } else if (expr instanceof OpNumeric) {
+            // arithmetic on dates and times may depend on the implicit timezone
+            final OpNumeric op = (OpNumeric) expr;
+            return Type.subTypeOfUnion(op.getLeft().returnsType(), Type.NUMBER)
+                    && Type.subTypeOfUnion(op.getRight().returnsType(), Type.NUMBER)
+                    && isConstant(op.getLeft()) && isConstant(op.getRight());
+
+        } else if (expr instanceof InternalFunctionCall) {
+            return isConstant(((InternalFunctionCall) expr).getFunction());
+
+        } else if (expr instanceof Function) {
+            final Function function = (Function) expr;
+            if (function instanceof UserDefinedFunction || !function.getSignature().isDeterministic()) {
+                return false;
+            }
+            for (int i = 0; i < function.getArgumentCount(); i++) {
+                if (!isConstant(function.getArgument(i))) {
+                    return false;
+                }
+            }
+            return true;
+
+        } else if (expr instanceof UnaryExpr || expr instanceof ConcatExpr || expr instanceof SequenceConstructor
+                || (expr.getClass() == PathExpr.class && ((PathExpr) expr).getLength() == 1)) {
+            final PathExpr path = (PathExpr) expr;
+            for (int i = 0; i < path.getLength(); i++) {
+                if (!isConstant(path.getExpression(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+}
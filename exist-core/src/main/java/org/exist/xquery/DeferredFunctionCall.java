@@ -33,6 +33,7 @@ import org.exist.xquery.value.Item;
 import org.exist.xquery.value.MemoryNodeSet;
 import org.exist.xquery.value.Sequence;
 import org.exist.xquery.value.SequenceIterator;
+import org.exist.xquery.value.SequenceType;
 import org.exist.xquery.value.Type;
 
 import javax.annotation.Nullable;
@@ -55,13 +56,36 @@ public abstract class DeferredFunctionCall implements Sequence {
             throw caughtException;
         }
         if (sequence == null) {
-            sequence = execute();
+            // trampoline: a function may return a deferred call to another function in tail position,
+            // execute those in a loop, rather than recursively, so that the Java stack does not grow
+            Sequence result = execute();
+            while (result instanceof DeferredFunctionCall) {
+                final DeferredFunctionCall next = (DeferredFunctionCall) result;
+                if (next.caughtException != null) {
+                    throw next.caughtException;
+                }
+                result = next.sequence != null ? next.sequence : next.execute();
+            }
+            sequence = result;
         }
     }
     
     protected FunctionSignature getSignature() {
         return signature;
     }
+
+    /**
+     * Get the declared return type of the deferred function.
+     *
+     * The result of a deferred call is checked against this type when the call is
+     * executed, so a dynamic check which would not be stricter may pass the
+     * deferred call through without executing it.
+     *
+     * @return the declared return type
+     */
+    SequenceType getReturnType() {
+        return signature.getReturnType();
+    }
     
     protected abstract Sequence execute() throws XPathException;
     
@@ -71,6 +71,13 @@ public class DynamicCardinalityCheck extends AbstractExpression {
                 "CONTEXT ITEM", contextItem.toSequence());}
         }
         final Sequence seq = expression.eval(contextSequence, contextItem);
+        if (seq instanceof DeferredFunctionCall
+                && requiredCardinality.isSuperCardinalityOrEqualOf(((DeferredFunctionCall) seq).getReturnType().getCardinality())) {
+            // tail call, its cardinality is checked when it is executed
+            if (context.getProfiler().isEnabled())
+                {context.getProfiler().end(this, "", seq);}
+            return seq;
+        }
         Cardinality actualCardinality;
         if (seq.isEmpty())
             {actualCardinality = Cardinality.EMPTY_SEQUENCE;}
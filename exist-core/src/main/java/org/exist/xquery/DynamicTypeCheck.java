@@ -58,6 +58,11 @@ public class DynamicTypeCheck extends AbstractExpression {
 		Item contextItem)
 		throws XPathException {
 		final Sequence seq = expression.eval(contextSequence, contextItem);
+        if (seq instanceof DeferredFunctionCall
+                && ((DeferredFunctionCall) seq).getReturnType().getPrimaryType() == requiredType) {
+            // tail call, its result is checked when it is executed
+            return seq;
+        }
         Sequence result = null;
         if (Type.subTypeOf(requiredType, Type.ATOMIC) && !Type.subTypeOf(seq.getItemType(), requiredType)) {
             result = new ValueSequence();
@@ -22,6 +22,7 @@
 package org.exist.xquery;
 
 import org.exist.dom.memtree.DocumentBuilderReceiver;
+import org.exist.dom.memtree.ElementImpl;
 import org.exist.dom.memtree.MemTreeBuilder;
 import org.exist.dom.memtree.TextImpl;
 import org.exist.xquery.functions.array.ArrayType;
@@ -129,9 +130,15 @@ public class EnclosedExpr extends PathExpr {
                                     "An attribute may not appear after another child node.");
                         }
                         try {
-                            receiver.setCheckNS(false);
-                            next.copyTo(context.getBroker(), receiver);
-                            receiver.setCheckNS(true);
+                            if (next instanceof ElementImpl element
+                                    && element.getOwnerDocument().isReferenceable(element.getNodeNumber())) {
+                                // share the in-memory element, it is only copied when the new node is navigated
+                                receiver.addReferenceNode(element);
+                            } else {
+                                receiver.setCheckNS(false);
+                                next.copyTo(context.getBroker(), receiver);
+                                receiver.setCheckNS(true);
+                            }
                         } catch (DOMException e) {
                             if (e.code == DOMException.NAMESPACE_ERR) {
                                 throw new XPathException(this, ErrorCodes.XQDY0102, e.getMessage());
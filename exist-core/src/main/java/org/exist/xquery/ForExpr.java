@@ -68,6 +68,7 @@ public class ForExpr extends BindingExpression {
             contextInfo.setParent(this);
             final AnalyzeContextInfo varContextInfo = new AnalyzeContextInfo(contextInfo);
             inputSequence.analyze(varContextInfo);
+            inputSequence = ConstantFolding.fold(inputSequence);
             // Declare the iteration variable
             final LocalVariable inVar = new LocalVariable(varName);
             inVar.setSequenceType(sequenceType);
@@ -89,6 +90,7 @@ public class ForExpr extends BindingExpression {
             final AnalyzeContextInfo newContextInfo = new AnalyzeContextInfo(contextInfo);
             newContextInfo.addFlag(SINGLE_STEP_EXECUTION);
             returnExpr.analyze(newContextInfo);
+            returnExpr = ConstantFolding.fold(returnExpr);
         } finally {
             // restore the local variable stack
             context.popLocalVariables(mark);
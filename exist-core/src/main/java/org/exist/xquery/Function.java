@@ -419,6 +419,10 @@ public abstract class Function extends PathExpr {
             }
         }
         argumentsChecked = true;
+
+        for (int i = 0; i < steps.size(); i++) {
+            steps.set(i, ConstantFolding.fold(steps.get(i)));
+        }
     }
 
     public Sequence[] getArguments(Sequence contextSequence, final Item contextItem)
@@ -28,6 +28,7 @@ import org.exist.Namespaces;
 import org.exist.dom.persistent.DocumentSet;
 import org.exist.dom.QName;
 import org.exist.dom.persistent.VirtualNodeSet;
+import org.exist.storage.FunctionResultCache;
 import org.exist.xquery.util.Error;
 import org.exist.xquery.value.*;
 
@@ -56,6 +57,11 @@ public class FunctionCall extends Function {
 
     protected VariableReference varDeps[];
 
+    /**
+     * The memoized results of the function, or null if the function is not memoized.
+     */
+    private FunctionResultCache.Memo memo = null;
+
     public FunctionCall(final XQueryContext context, final QName name, final List<Expression> arguments) {
         super(context, signatureForForwardReference(name, arguments));
         this.name = name;
@@ -84,6 +90,7 @@ public class FunctionCall extends Function {
         this.recursive = other.recursive;
         this.functionDef = other.functionDef;
         this.expression = other.expression;
+        this.memo = other.memo;
     }
 
     private void setFunction(final UserDefinedFunction functionDef) {
@@ -133,6 +140,10 @@ public class FunctionCall extends Function {
                 context.functionEnd();
             }
 
+            if (context.getBroker() != null) {
+                memo = context.getBroker().getBrokerPool().getFunctionResultCache().getMemo(functionDef);
+            }
+
             varDeps = new VariableReference[getArgumentCount()];
             for (int i = 0; i < getArgumentCount(); i++) {
                 final Expression arg = getArgument(i);
@@ -249,6 +260,23 @@ public class FunctionCall extends Function {
     }
 
     public Sequence evalFunction(Sequence contextSequence, Item contextItem, Sequence[] seq, DocumentSet[] contextDocs) throws XPathException {
+        if (memo != null) {
+            final String key = memo.key(context, seq);
+            if (key != null) {
+                Sequence result = memo.get(key);
+                if (result == null) {
+                    // a recursive call is not deferred, as its result is needed now
+                    final long generation = memo.generation();
+                    result = evalUserFunction(contextSequence, contextItem, seq, contextDocs, false);
+                    memo.put(key, result, generation);
+                }
+                return result;
+            }
+        }
+        return evalUserFunction(contextSequence, contextItem, seq, contextDocs, true);
+    }
+
+    private Sequence evalUserFunction(Sequence contextSequence, Item contextItem, Sequence[] seq, DocumentSet[] contextDocs, final boolean deferRecursiveCall) throws XPathException {
         context.proceed(this);
         if(context.isProfilingEnabled()) {
             context.getProfiler().start(this);     
@@ -265,7 +293,7 @@ public class FunctionCall extends Function {
 
         functionDef.setArguments(seq, contextDocs);
         
-        if(isRecursive()) {
+        if(deferRecursiveCall && isRecursive()) {
             //LOG.warn("Tail recursive function: " + functionDef.getSignature().toString());
             return new DeferredFunctionCallImpl(this, contextSequence, contextItem, seq, contextDocs);
         } else {
@@ -273,10 +301,10 @@ public class FunctionCall extends Function {
             //XXX: should we have it? org.exist.xquery.UserDefinedFunction do a call -shabanovd
             context.stackEnter(this);
 
-            long start = System.currentTimeMillis();
-            if(context.getProfiler().traceFunctions()) {
-                if (context.tailRecursiveCall(getSignature()))
-                    {start = -1;}
+            final boolean traceFunctions = context.getProfiler().traceFunctions();
+            long start = 0;
+            if(traceFunctions) {
+                start = context.tailRecursiveCall(getSignature()) ? -1 : System.currentTimeMillis();
                 context.getProfiler().traceFunctionStart(this);
             }
             context.functionStart(functionDef.getSignature());
@@ -295,7 +323,7 @@ public class FunctionCall extends Function {
                     returnSeq = ((DeferredFunctionCall) returnSeq).execute();
                 }
                 
-                if(context.getProfiler().traceFunctions()) {
+                if(traceFunctions) {
                     context.getProfiler().traceFunctionEnd(this, start < 0 ? 0 : System.currentTimeMillis() - start);
                 }
                 
@@ -352,8 +380,8 @@ public class FunctionCall extends Function {
 
         private final FunctionCall call;
 
-        private UserDefinedFunction functionDef;
-        private Expression expression;
+        private final UserDefinedFunction functionDef;
+        private final Expression expression;
 
         private Sequence contextSequence;
         private Item contextItem;
@@ -373,32 +401,13 @@ public class FunctionCall extends Function {
             this.contextDocs = contextDocs;
 
             this.call = call;
-            setup();
-        }
-
-        private void setup() {
-            this.functionDef = (UserDefinedFunction) call.functionDef.clone();
-            //this.mySignature = this.functionDef.getSignature();
-            this.expression = this.functionDef;
-            this.functionDef.setCaller(call);
-            final SequenceType returnType = this.functionDef.getSignature().getReturnType();
 
-            final XQueryContext context = call.context;
-
-            // add return type checks
-            if(returnType.getCardinality() != Cardinality.ZERO_OR_MORE) {
-                expression = new DynamicCardinalityCheck(context, returnType.getCardinality(), expression, new Error(Error.FUNC_RETURN_CARDINALITY));
-            }
-
-            if(Type.subTypeOf(returnType.getPrimaryType(), Type.ATOMIC)) {
-                expression = new Atomize(context, expression);
-            }
-
-            if(Type.subTypeOfUnion(returnType.getPrimaryType(), Type.NUMBER)) {
-                expression = new UntypedValueCheck(context, returnType.getPrimaryType(), expression, new Error(Error.FUNC_RETURN_TYPE));
-            } else if(returnType.getPrimaryType() != Type.ITEM) {
-                expression = new DynamicTypeCheck(context, returnType.getPrimaryType(), expression);
-            }
+            /*
+              The function and its return type checks are shared with the call,
+              the arguments are bound to the function immediately before it is evaluated
+             */
+            this.functionDef = call.functionDef;
+            this.expression = call.expression;
         }
         
         @Override
@@ -63,6 +63,7 @@ public class FunctionSignature {
     private boolean isVariadic = false;
     private String description = null;
     private String deprecated = null;
+    private boolean deterministic = false;
     private Map<String, String> metadata = null;
 
     public FunctionSignature(final FunctionSignature other) {
@@ -72,6 +73,7 @@ public class FunctionSignature {
         this.annotations = other.annotations != null ? Arrays.copyOf(other.annotations, other.annotations.length) : null;
         this.isVariadic = other.isVariadic;
         this.deprecated = other.deprecated;
+        this.deterministic = other.deterministic;
         this.description = other.description;
         this.metadata = other.metadata != null ? new HashMap<>(other.metadata) : null;
     }
@@ -213,6 +215,29 @@ public class FunctionSignature {
         deprecated = message;
     }
 
+    /**
+     * Returns true if the function always returns the same result for the same
+     * arguments, and has no side effects, so that a call with constant arguments
+     * may be evaluated once, when the query is compiled.
+     *
+     * @return true if the function is deterministic
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Mark the function as deterministic, see {@link #isDeterministic()}.
+     *
+     * @param deterministic true if the function is deterministic
+     *
+     * @return this function signature
+     */
+    public FunctionSignature setDeterministic(final boolean deterministic) {
+        this.deterministic = deterministic;
+        return this;
+    }
+
     public boolean isPrivate() {
         final Annotation[] annotations = getAnnotations();
         if(annotations != null) {
@@ -289,6 +314,7 @@ public class FunctionSignature {
         final FunctionSignature newFunctionSignature = new FunctionSignature(newName, description, argumentsCopy, returnType, deprecated);
         newFunctionSignature.annotations = annotations != null ? Arrays.copyOf(annotations, annotations.length) : null;
         newFunctionSignature.isVariadic = isVariadic;
+        newFunctionSignature.deterministic = deterministic;
         newFunctionSignature.metadata = metadata != null ? new HashMap<>(metadata) : null;
         return newFunctionSignature;
     }
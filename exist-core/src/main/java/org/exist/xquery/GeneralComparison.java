@@ -35,6 +35,7 @@ import org.exist.storage.DBBroker;
 import org.exist.storage.ElementValue;
 import org.exist.storage.IndexSpec;
 import org.exist.storage.Indexable;
+import org.exist.util.UTF8;
 import org.exist.xmldb.XmldbURI;
 import org.exist.xquery.Constants.Comparison;
 import org.exist.xquery.Constants.StringTruncationOperator;
@@ -48,6 +49,7 @@ import org.exist.xquery.value.SequenceIterator;
 import org.exist.xquery.value.StringValue;
 import org.exist.xquery.value.Type;
 
+import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.List;
 
@@ -101,6 +103,19 @@ public class GeneralComparison extends BinaryOp implements Optimizable, IndexUse
 
     private IndexFlags     idxflags         = new IndexFlags();
 
+    /**
+     * The right operand of the last {@link #genericCompare(Sequence, Sequence, Item)},
+     * with its atomized values and the hash table built from them, which are
+     * reused whilst the right operand evaluates to the same unchanged sequence,
+     * e.g. a variable which is compared once for each item of a FLWOR expression.
+     */
+    private Sequence       hashJoinSource      = null;
+    private int            hashJoinSourceState = 0;
+    private Collator       hashJoinCollator    = null;
+    private Sequence       hashJoinValues      = null;
+    private HashJoinTable  hashJoinTable       = null;
+    private boolean        hashJoinBuilt       = false;
+
     public GeneralComparison( XQueryContext context, Comparison relation )
     {
         this( context, relation, StringTruncationOperator.NONE );
@@ -550,34 +565,53 @@ public class GeneralComparison extends BinaryOp implements Optimizable, IndexUse
             }
         } else if( ls.hasOne() && rs.hasOne() && ls.itemAt(0).getType() != Type.ARRAY && rs.itemAt(0).getType() != Type.ARRAY) {
             result = BooleanValue.valueOf( compareAtomic( collator, ls.itemAt( 0 ).atomize(), rs.itemAt( 0 ).atomize() ) );
-        } else {
+        } else if( rs.hasOne() && rs.itemAt(0).getType() != Type.ARRAY ) {
+            final AtomicValue rv = rs.itemAt( 0 ).atomize();
 
             for( final SequenceIterator i1 = Atomize.atomize(ls).iterate(); i1.hasNext(); ) {
-                final AtomicValue lv = i1.nextItem().atomize();
 
-                if( rs.isEmpty() ) {
+                if( compareAtomic( collator, i1.nextItem().atomize(), rv ) ) {
 
-                    if( compareAtomic( collator, lv, AtomicValue.EMPTY_VALUE ) ) {
-                        result = BooleanValue.TRUE;
-                        break;
-                    }
-                } else if( rs.hasOne() && rs.itemAt(0).getType() != Type.ARRAY) {
+                    //return early if we are successful, continue otherwise
+                    result = BooleanValue.TRUE;
+                    break;
+                }
+            }
+        } else {
+            final Sequence als = Atomize.atomize(ls);
+            final Sequence ars;
+            final HashJoinTable table;
 
-                    if( compareAtomic( collator, lv, rs.itemAt( 0 ).atomize() ) ) {
+            if( canHashJoin() && rs == hashJoinSource && !rs.hasChanged( hashJoinSourceState ) && collator == hashJoinCollator ) {
 
-                        //return early if we are successful, continue otherwise
-                        result = BooleanValue.TRUE;
-                        break;
-                    }
-                } else {
+                // the right operand is the same as last time, so we can reuse its values, and build a hash table as it is probed repeatedly
+                if( !hashJoinBuilt ) {
+                    hashJoinTable = buildHashJoinTable( hashJoinValues, collator );
+                    hashJoinBuilt = true;
+                }
+                ars   = hashJoinValues;
+                table = hashJoinTable;
+            } else {
+                ars = Atomize.atomize(rs);
+                table = als.getItemCount() > 1 ? buildHashJoinTable( ars, collator ) : null;
+
+                if( canHashJoin() ) {
+                    hashJoinSource      = rs;
+                    hashJoinSourceState = rs.getState();
+                    hashJoinCollator    = collator;
+                    hashJoinValues      = ars;
+                    hashJoinTable       = table;
+                    hashJoinBuilt       = als.getItemCount() > 1;
+                }
+            }
 
-                    for( final SequenceIterator i2 = Atomize.atomize(rs).iterate(); i2.hasNext(); ) {
+            for( final SequenceIterator i1 = als.iterate(); i1.hasNext(); ) {
 
-                        if( compareAtomic( collator, lv, i2.nextItem().atomize() ) ) {
-                            result = BooleanValue.TRUE;
-                            break;
-                        }
-                    }
+                if( compareAny( collator, i1.nextItem().atomize(), ars, table ) ) {
+
+                    //return early if we are successful, continue otherwise
+                    result = BooleanValue.TRUE;
+                    break;
                 }
             }
         }
@@ -637,16 +671,30 @@ public class GeneralComparison extends BinaryOp implements Optimizable, IndexUse
             }
         } else {
 
-            for( final NodeProxy item : nodes ) {
-                final AtomicValue lv = item.atomize();
-                final Sequence    rs = getRight().eval(contextSequence, null);
+            // the right operand is evaluated against the same context for every node, so it is evaluated just once
+            Sequence      ars   = null;
+            HashJoinTable table = null;
+            byte[]        key   = null;
 
-                for( final SequenceIterator i2 = Atomize.atomize(rs).iterate(); i2.hasNext(); ) {
-                    final AtomicValue rv = i2.nextItem().atomize();
+            for( final NodeProxy item : nodes ) {
+                if( ars == null ) {
+                    ars   = Atomize.atomize( getRight().eval(contextSequence, null) );
+                    table = buildHashJoinTable( ars, collator );
+                    key   = encodeStringKey( ars, collator, relation );
+                }
 
-                    if( compareAtomic( collator, lv, rv ) ) {
+                if( ( key != null ) && !item.isDocument() ) {
+                    // compare the stored value of the node, without creating a string for it
+                    if( context.getBroker().nodeValueEquals( item.asStoredNode(), key ) == ( relation == Comparison.EQ ) ) {
                         result.add( item );
                     }
+                    continue;
+                }
+
+                final AtomicValue lv = item.atomize();
+
+                if( compareAny( collator, lv, ars, table ) ) {
+                    result.add( item );
                 }
             }
         }
@@ -1072,6 +1120,103 @@ public class GeneralComparison extends BinaryOp implements Optimizable, IndexUse
         return value;
     }
 
+    /**
+     * Encode the value of the right operand, if the string values of the nodes
+     * of the left operand may be compared with it byte by byte, i.e. this is an
+     * (in)equality comparison by codepoint with a single string.
+     *
+     * @param values the atomized values of the right operand
+     * @param collator the collator to use for comparisons
+     * @param relation the relation to compare by
+     *
+     * @return the value encoded by {@link UTF8#encode(String, byte[], int)},
+     *     or null if the values must be compared as atomic values
+     *
+     * @throws XPathException if an error occurs whilst atomizing the value
+     */
+    protected @Nullable byte[] encodeStringKey(final Sequence values, @Nullable final Collator collator,
+            final Comparison relation) throws XPathException {
+        if (collator != null || truncation != StringTruncationOperator.NONE
+                || (relation != Comparison.EQ && relation != Comparison.NEQ) || !values.hasOne()) {
+            return null;
+        }
+        final AtomicValue value = values.itemAt(0).atomize();
+        if (value.getType() != Type.STRING && value.getType() != Type.UNTYPED_ATOMIC) {
+            return null;
+        }
+        final String str = value.getStringValue();
+        return UTF8.encode(str, new byte[UTF8.encoded(str)], 0);
+    }
+
+    /**
+     * Determines if a hash join may be used, i.e. whether
+     * this is an equality comparison without truncation.
+     *
+     * @return true if a hash join may be used.
+     */
+    private boolean canHashJoin() {
+        return relation == Comparison.EQ && truncation == StringTruncationOperator.NONE;
+    }
+
+    /**
+     * Build a hash table from the atomized values of the right operand, if
+     * this comparison allows a hash join and there are enough values.
+     *
+     * @param values the atomized values of the right operand
+     * @param collator the collator to use for comparisons
+     *
+     * @return the hash table, or null if it should not be used
+     *
+     * @throws XPathException if an error occurs whilst building the table
+     */
+    private @Nullable HashJoinTable buildHashJoinTable(final Sequence values, final Collator collator) throws XPathException {
+        if (!canHashJoin() || values.getItemCount() < HashJoinTable.MIN_SIZE) {
+            return null;
+        }
+        final HashJoinTable table = HashJoinTable.build(values, collator);
+        if (table != null && context.getProfiler().isEnabled()) {
+            context.getProfiler().message(this, Profiler.OPTIMIZATIONS, "OPTIMIZATION", "Using hash join over " + values.getItemCount() + " values");
+        }
+        return table;
+    }
+
+    /**
+     * Compares a value of the left operand with the values of the right operand,
+     * using the hash table to find the candidate values where possible.
+     *
+     * @param collator the collator to use for comparisons
+     * @param lv left-hand-side value of comparison
+     * @param rs the atomized values of the right operand
+     * @param table the hash table of the values of the right operand, or null
+     *
+     * @return true if the comparison holds for any of the values, false otherwise
+     *
+     * @throws XPathException if an error occurs during the comparison
+     */
+    private boolean compareAny(final Collator collator, final AtomicValue lv, final Sequence rs,
+            @Nullable final HashJoinTable table) throws XPathException {
+        if (table != null) {
+            final AtomicValue key = table.isNumeric() && lv.getType() == Type.UNTYPED_ATOMIC ?
+                    convertForGeneralComparison(lv, Type.UNTYPED_ATOMIC, Type.DOUBLE) : lv;
+            final List<AtomicValue> candidates = table.probe(key);
+            if (candidates != null) {
+                for (final AtomicValue rv : candidates) {
+                    if (compareAtomic(collator, lv, rv)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+
+        for (final SequenceIterator i2 = rs.iterate(); i2.hasNext(); ) {
+            if (compareAtomic(collator, lv, i2.nextItem().atomize())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Cast the atomic operands into a comparable type and compare them.
      *
@@ -1308,6 +1453,11 @@ public class GeneralComparison extends BinaryOp implements Optimizable, IndexUse
 
         if( !postOptimization ) {
             cached          = null;
+            hashJoinSource  = null;
+            hashJoinCollator = null;
+            hashJoinValues  = null;
+            hashJoinTable   = null;
+            hashJoinBuilt   = false;
             preselectResult = null;
             hasUsedIndex    = false;
         }
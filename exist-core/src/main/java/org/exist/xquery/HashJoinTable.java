@@ -0,0 +1,183 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery;
+
+import com.ibm.icu.text.Collator;
+import org.exist.xquery.value.AtomicValue;
+import org.exist.xquery.value.Item;
+import org.exist.xquery.value.NumericValue;
+import org.exist.xquery.value.Sequence;
+import org.exist.xquery.value.SequenceIterator;
+import org.exist.xquery.value.Type;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash table over the atomized values of one operand of an equality
+ * {@link GeneralComparison}, so that each value of the other operand
+ * only needs to be compared with the values that may be equal to it,
+ * instead of with every value (i.e. a hash join rather than a nested loop).
+ *
+ * A table is only built when all of the values fall into one key class,
+ * either strings (and {@code xs:untypedAtomic}) keyed by their collation key,
+ * or numbers (except {@code xs:float}) keyed by their {@code xs:double} value.
+ * Equal values always have equal keys, but the reverse is not guaranteed,
+ * so the candidates returned by {@link #probe(AtomicValue)} must still be
+ * compared by the caller. Values outside the key class cannot be probed,
+ * and must be compared with every value as before; this keeps the type
+ * promotion rules and errors of the general comparison intact.
+ */
+final class HashJoinTable {
+
+    /**
+     * The minimum number of values for which building a table is worthwhile.
+     */
+    static final int MIN_SIZE = 16;
+
+    private final boolean numeric;
+    @Nullable private final Collator collator;
+    private final Map<Object, List<AtomicValue>> buckets;
+
+    private HashJoinTable(final boolean numeric, @Nullable final Collator collator,
+            final Map<Object, List<AtomicValue>> buckets) {
+        this.numeric = numeric;
+        this.collator = collator;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Build a table from a sequence of atomic values.
+     *
+     * @param values the atomized values.
+     * @param collator the collator used for string comparisons, or null for codepoint comparison.
+     *
+     * @return the table, or null if the values do not all fall into one key class.
+     *
+     * @throws XPathException if a value cannot be read.
+     */
+    static @Nullable HashJoinTable build(final Sequence values, @Nullable final Collator collator) throws XPathException {
+        final Map<Object, List<AtomicValue>> buckets = new HashMap<>();
+        Boolean numeric = null;
+        try {
+            for (final SequenceIterator i = values.iterate(); i.hasNext(); ) {
+                final Item item = i.nextItem();
+                final int type = item.getType();
+                final boolean valueIsNumeric;
+                if (isNumericKey(type)) {
+                    valueIsNumeric = true;
+                } else if (isStringKey(type)) {
+                    valueIsNumeric = false;
+                } else {
+                    return null;
+                }
+
+                if (numeric == null) {
+                    numeric = valueIsNumeric;
+                } else if (numeric != valueIsNumeric) {
+                    return null;
+                }
+
+                final AtomicValue value = item.atomize();
+                final Object key = valueIsNumeric ? numericKey(value) : stringKey(collator, value);
+                if (key != null) {
+                    buckets.computeIfAbsent(key, k -> new ArrayList<>(1)).add(value);
+                }
+            }
+        } catch (final UnsupportedOperationException e) {
+            // the collator is unable to produce collation keys
+            return null;
+        }
+
+        if (numeric == null) {
+            return null;
+        }
+        return new HashJoinTable(numeric, collator, buckets);
+    }
+
+    /**
+     * Returns true if the keys of this table are numeric, i.e. an {@code xs:untypedAtomic}
+     * value must be cast to {@code xs:double} before it is probed.
+     *
+     * @return true if the keys are numeric, false if they are strings.
+     */
+    boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Find the values which may be equal to a value.
+     *
+     * @param value the value to probe for, {@code xs:untypedAtomic} values
+     *     must already have been cast to {@code xs:double} if this table is numeric.
+     *
+     * @return the candidate values, or null if the value cannot be probed and
+     *     so must be compared with every value.
+     *
+     * @throws XPathException if the value cannot be read.
+     */
+    @Nullable List<AtomicValue> probe(final AtomicValue value) throws XPathException {
+        final int type = value.getType();
+        final Object key;
+        if (numeric && isNumericKey(type)) {
+            key = numericKey(value);
+        } else if (!numeric && isStringKey(type)) {
+            key = stringKey(collator, value);
+        } else {
+            return null;
+        }
+
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        final List<AtomicValue> candidates = buckets.get(key);
+        return candidates != null ? candidates : Collections.emptyList();
+    }
+
+    private static boolean isNumericKey(final int type) {
+        // xs:float is excluded as xs:decimal and xs:float are compared as xs:float
+        return Type.subTypeOfUnion(type, Type.NUMBER) && type != Type.FLOAT;
+    }
+
+    private static boolean isStringKey(final int type) {
+        return Type.subTypeOf(type, Type.STRING) || type == Type.UNTYPED_ATOMIC;
+    }
+
+    private static @Nullable Object numericKey(final AtomicValue value) throws XPathException {
+        final double d = ((NumericValue) value).getDouble();
+        if (Double.isNaN(d)) {
+            // NaN is not equal to anything
+            return null;
+        }
+        // -0 and +0 are equal
+        return d == 0.0 ? 0.0 : d;
+    }
+
+    private static Object stringKey(@Nullable final Collator collator, final AtomicValue value) throws XPathException {
+        final String s = value.getStringValue();
+        return collator == null ? s : collator.getCollationKey(s);
+    }
+}
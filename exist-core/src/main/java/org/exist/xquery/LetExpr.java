@@ -52,6 +52,7 @@ public class LetExpr extends BindingExpression {
             contextInfo.setParent(this);
             final AnalyzeContextInfo varContextInfo = new AnalyzeContextInfo(contextInfo);
             inputSequence.analyze(varContextInfo);
+            inputSequence = ConstantFolding.fold(inputSequence);
             //Declare the iteration variable
             final LocalVariable inVar = new LocalVariable(varName);
             inVar.setSequenceType(sequenceType);
@@ -61,6 +62,7 @@ public class LetExpr extends BindingExpression {
             context.setContextSequencePosition(0, null);
 
             returnExpr.analyze(contextInfo);
+            returnExpr = ConstantFolding.fold(returnExpr);
         } finally {
             // restore the local variable stack
             context.popLocalVariables(mark);
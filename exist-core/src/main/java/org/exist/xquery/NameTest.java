@@ -27,6 +27,7 @@ import org.exist.dom.QName;
 import org.exist.dom.memtree.NodeImpl;
 import org.exist.dom.memtree.ReferenceNode;
 import org.exist.xquery.util.ExpressionDumper;
+import org.exist.xquery.value.NodeValue;
 import org.exist.xquery.value.Type;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -75,7 +76,11 @@ public class NameTest extends TypeTest {
     @Override
     public boolean matches(final Node other) {
         if (other.getNodeType() == NodeImpl.REFERENCE_NODE) {
-            return matches(((ReferenceNode) other).getReference());
+            final NodeValue reference = ((ReferenceNode) other).getReference();
+            if (reference instanceof NodeProxy) {
+                return matches((NodeProxy) reference);
+            }
+            return matches(reference.getNode());
         }
 
         if (!isOfType(other.getNodeType())) {
@@ -184,6 +184,7 @@ public class PathExpr extends AbstractExpression implements CompiledXQuery,
             }
             contextInfo.setParent(this);
             expr.analyze(contextInfo);
+            steps.set(i, ConstantFolding.fold(expr));
         }
     }
 
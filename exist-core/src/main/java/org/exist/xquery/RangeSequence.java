@@ -60,6 +60,41 @@ public class RangeSequence extends AbstractSequence {
         return Type.INTEGER;
     }
 
+    /**
+     * Get the first integer of the range.
+     *
+     * @return the start of the range.
+     */
+    public IntegerValue getStart() {
+        return start;
+    }
+
+    /**
+     * Get the last integer of the range.
+     *
+     * @return the end of the range.
+     */
+    public IntegerValue getEnd() {
+        return end;
+    }
+
+    /**
+     * Calculates the sum of the integers in the range,
+     * without materializing the integers.
+     *
+     * @return the sum, or zero if the range is empty.
+     */
+    public IntegerValue sum() {
+        final long count = getItemCountLong();
+        if (count == 0) {
+            return IntegerValue.ZERO;
+        }
+        // count * (start + end) / 2, one of count and (start + end) is always even
+        final BigInteger first = BigInteger.valueOf(start.getLong());
+        final BigInteger last = BigInteger.valueOf(end.getLong());
+        return new IntegerValue(BigInteger.valueOf(count).multiply(first.add(last)).shiftRight(1));
+    }
+
     @Override
     public SequenceIterator iterate() {
         return new RangeSequenceIterator(start.getLong(), end.getLong());
@@ -88,7 +88,11 @@ public class UntypedValueCheck extends AbstractExpression {
         
 		final Sequence seq = expression.eval(contextSequence, contextItem);
         Sequence result = null;
-        if (seq.hasOne()) {
+        if (!atomize && seq instanceof DeferredFunctionCall
+                && ((DeferredFunctionCall) seq).getReturnType().getPrimaryType() == requiredType) {
+            // tail call, its result is converted when it is executed
+            result = seq;
+        } else if (seq.hasOne()) {
             final Item item = convert(seq.itemAt(0));
             if (item != null)
                 {result = item.toSequence();}
@@ -26,6 +26,7 @@ import org.exist.dom.QName;
 import org.exist.xquery.util.ExpressionDumper;
 import org.exist.xquery.value.Item;
 import org.exist.xquery.value.Sequence;
+import org.exist.xquery.value.SequenceType;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -136,27 +137,31 @@ public class UserDefinedFunction extends Function implements Cloneable {
         if (closureVariables != null)
         	{context.restoreStack(closureVariables);}
         Sequence result = null;
+		// the arguments may be replaced while they are bound, when realizing an argument executes a deferred call of this function
+		final Sequence[] arguments = currentArguments;
+		final DocumentSet[] argumentsContextDocs = contextDocs;
 		try {
+			final SequenceType[] argumentTypes = getSignature().getArgumentTypes();
 			QName varName;
 			LocalVariable var;
 			int j = 0;
 			for (int i = 0; i < parameters.size(); i++, j++) {
 				varName = parameters.get(i);
 				var = new LocalVariable(varName);
-				var.setValue(currentArguments[j]);
-				if (contextDocs != null)
-					{var.setContextDocs(contextDocs[i]);}
+				var.setValue(arguments[j]);
+				if (argumentsContextDocs != null)
+					{var.setContextDocs(argumentsContextDocs[i]);}
 				context.declareVariableBinding(var);
 				
 				Cardinality actualCardinality;
-				if (currentArguments[j].isEmpty()) {actualCardinality = Cardinality.EMPTY_SEQUENCE;}
-				else if (currentArguments[j].hasMany()) {actualCardinality = Cardinality._MANY;}
+				if (arguments[j].isEmpty()) {actualCardinality = Cardinality.EMPTY_SEQUENCE;}
+				else if (arguments[j].hasMany()) {actualCardinality = Cardinality._MANY;}
 				else {actualCardinality = Cardinality.EXACTLY_ONE;}
 				
-				if (!getSignature().getArgumentTypes()[j].getCardinality().isSuperCardinalityOrEqualOf(actualCardinality))
+				if (!argumentTypes[j].getCardinality().isSuperCardinalityOrEqualOf(actualCardinality))
 					{throw new XPathException(this, ErrorCodes.XPTY0004, "Invalid cardinality for parameter $" + varName +  
- 						". Expected " + getSignature().getArgumentTypes()[j].getCardinality().getHumanDescription() +
- 						", got " + currentArguments[j].getItemCount());}
+ 						". Expected " + argumentTypes[j].getCardinality().getHumanDescription() +
+ 						", got " + arguments[j].getItemCount());}
 			}
 			result = body.eval(null, null);
 			return result;
@@ -107,7 +107,15 @@ public class ValueComparison extends GeneralComparison {
                 {throw new XPathException(this, ErrorCodes.XPTY0004,
 						"Type error: sequence with less or more than one item is not allowed here");}
             final AtomicValue rv = rs.itemAt(0).atomize();
+            final byte[] key = encodeStringKey(rs, collator, Comparison.EQ);
             for (final NodeProxy current : nodes) {
+                if (key != null && !current.isDocument()) {
+                    // compare the stored value of the node, without creating a string for it
+                    if (context.getBroker().nodeValueEquals(current.asStoredNode(), key)) {
+                        result.add(current);
+                    }
+                    continue;
+                }
                 final AtomicValue lv = current.atomize();
                 if (compareAtomic(collator, lv, rv, StringTruncationOperator.NONE, Comparison.EQ)) {
                     result.add(current);
@@ -82,6 +82,7 @@ import org.exist.source.*;
 import org.exist.stax.ExtendedXMLStreamReader;
 import org.exist.storage.BrokerPool;
 import org.exist.storage.DBBroker;
+import org.exist.storage.LibraryModuleCache;
 import org.exist.storage.UpdateListener;
 import org.exist.storage.lock.Lock.LockMode;
 import org.exist.storage.lock.LockedDocumentMap;
@@ -160,6 +161,13 @@ public class XQueryContext implements BinaryValueManager, Context {
     // Static prefix/namespace mappings
     protected Map<String, String> staticPrefixes = new HashMap<>();
 
+    /**
+     * Shared empty namespace mappings, installed by {@link #pushInScopeNamespaces(boolean)}
+     * so that function calls which declare no namespaces do not allocate any maps.
+     * They are replaced by a new map on the first declaration.
+     */
+    private static final Map<String, String> NO_NAMESPACES = Collections.emptyMap();
+
     // Local in-scope namespace/prefix mappings in the current context
     Map<String, String> inScopeNamespaces = new HashMap<>();
 
@@ -945,6 +953,12 @@ public class XQueryContext implements BinaryValueManager, Context {
 
         inheritedInScopeNamespaces.remove(prefix);
 
+        if (inScopePrefixes == NO_NAMESPACES) {
+            inScopePrefixes = new HashMap<>();
+        }
+        if (inScopeNamespaces == NO_NAMESPACES) {
+            inScopeNamespaces = new HashMap<>();
+        }
         inScopePrefixes.put(uri, prefix);
         inScopeNamespaces.put(prefix, uri);
     }
@@ -2380,13 +2394,12 @@ public class XQueryContext implements BinaryValueManager, Context {
             inheritedInScopePrefixes = new HashMap<>(inheritedInScopePrefixes);
             inheritedInScopePrefixes.putAll(inScopePrefixes);
         } else {
-            inheritedInScopeNamespaces = new HashMap<>();
-            inheritedInScopePrefixes = new HashMap<>();
+            inheritedInScopeNamespaces = NO_NAMESPACES;
+            inheritedInScopePrefixes = NO_NAMESPACES;
         }
 
-        //TODO : consider dynamic instanciation
-        inScopeNamespaces = new HashMap<>();
-        inScopePrefixes = new HashMap<>();
+        inScopeNamespaces = NO_NAMESPACES;
+        inScopePrefixes = NO_NAMESPACES;
     }
 
     @Override
@@ -2709,12 +2722,7 @@ public class XQueryContext implements BinaryValueManager, Context {
             LOG.debug("Loading module from {}", location);
         }
 
-        try (final Reader reader = source.getReader()) {
-            if (reader == null) {
-                throw moduleLoadException("failed to load module: '" + namespaceURI + "' from: " +
-                        "'" + source + "', location: '" + location + "'. Source not found. ", location);
-            }
-
+        try {
             if (namespaceURI == null) {
                 final QName qname = source.isModule();
                 if (qname == null) {
@@ -2723,6 +2731,8 @@ public class XQueryContext implements BinaryValueManager, Context {
                 namespaceURI = qname.getNamespaceURI();
             }
 
+            final AST ast = parseModule(namespaceURI, location, source);
+
             final ExternalModuleImpl modExternal = new ExternalModuleImpl(namespaceURI, prefix);
 
             // NOTE(AR) this is needed to support cyclic imports in XQuery 3.1, see: https://github.com/eXist-db/exist/pull/4996
@@ -2731,22 +2741,9 @@ public class XQueryContext implements BinaryValueManager, Context {
 
             final XQueryContext modContext = new ModuleContext(this, namespaceURI, prefix, location);
             modExternal.setContext(modContext);
-            final XQueryLexer lexer = new XQueryLexer(modContext, reader);
-            final XQueryParser parser = new XQueryParser(lexer);
             final XQueryTreeParser astParser = new XQueryTreeParser(modContext, modExternal);
 
             try {
-                parser.xpath();
-
-                if (parser.foundErrors()) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(parser.getErrorMessage());
-                    }
-                    throw new XPathException(rootExpression, ErrorCodes.XPST0003, "error found while loading module from " + location + ": " + parser.getErrorMessage());
-                }
-
-                final AST ast = parser.getAST();
-
                 final PathExpr path = new PathExpr(modContext);
                 astParser.xpath(ast, path);
 
@@ -2772,8 +2769,6 @@ public class XQueryContext implements BinaryValueManager, Context {
                 return modExternal;
             } catch (final RecognitionException e) {
                 throw new XPathException(e.getLine(), e.getColumn(), ErrorCodes.XPST0003, "error found while loading module from " + location + ": " + e.getMessage());
-            } catch (final TokenStreamException e) {
-                throw new XPathException(rootExpression, ErrorCodes.XPST0003, "error found while loading module from " + location + ": " + e.getMessage(), e);
             } catch (final XPathException e) {
                 e.prependMessage("Error while loading module " + location + ": ");
                 throw e;
@@ -2783,6 +2778,64 @@ public class XQueryContext implements BinaryValueManager, Context {
         }
     }
 
+    /**
+     * Parse an XQuery Module, or borrow its syntax tree
+     * from the {@link org.exist.storage.LibraryModuleCache}.
+     *
+     * @param namespaceURI the namespace URI of the module.
+     * @param location     the location of the module
+     * @param source       the source of the module.
+     * @return The syntax tree of the module
+     * @throws IOException if the source of the module could not be read
+     * @throws XPathException if the module could not be loaded (XQST0059) or parsed (XPST0003)
+     */
+    private AST parseModule(final String namespaceURI, final String location, final Source source)
+            throws IOException, XPathException {
+        // there is no broker when compiling without a database, e.g. by the XQSuite test runner
+        final DBBroker broker = getBroker();
+        @Nullable final LibraryModuleCache moduleCache = broker != null ? broker.getBrokerPool().getLibraryModuleCache() : null;
+        if (moduleCache != null) {
+            final AST cachedAst = moduleCache.get(source);
+            if (cachedAst != null) {
+                return cachedAst;
+            }
+        }
+
+        try (final Reader reader = source.getReader()) {
+            if (reader == null) {
+                throw moduleLoadException("failed to load module: '" + namespaceURI + "' from: " +
+                        "'" + source + "', location: '" + location + "'. Source not found. ", location);
+            }
+
+            // NOTE: the lexer and parser do not depend on the context, so the syntax tree may be shared between contexts
+            final XQueryLexer lexer = new XQueryLexer(this, reader);
+            final XQueryParser parser = new XQueryParser(lexer);
+            try {
+                parser.xpath();
+
+                if (parser.foundErrors()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(parser.getErrorMessage());
+                    }
+                    throw new XPathException(rootExpression, ErrorCodes.XPST0003, "error found while loading module from " + location + ": " + parser.getErrorMessage());
+                }
+
+                final AST ast = parser.getAST();
+                if (moduleCache != null) {
+                    moduleCache.put(source, ast);
+                }
+                return ast;
+            } catch (final RecognitionException e) {
+                throw new XPathException(e.getLine(), e.getColumn(), ErrorCodes.XPST0003, "error found while loading module from " + location + ": " + e.getMessage());
+            } catch (final TokenStreamException e) {
+                throw new XPathException(rootExpression, ErrorCodes.XPST0003, "error found while loading module from " + location + ": " + e.getMessage(), e);
+            } catch (final XPathException e) {
+                e.prependMessage("Error while loading module " + location + ": ");
+                throw e;
+            }
+        }
+    }
+
     private void declareModuleVars(final Module module) {
         final String moduleNS = module.getNamespaceURI();
 
@@ -3440,6 +3493,11 @@ public class XQueryContext implements BinaryValueManager, Context {
             listeners.get().forEach(listener -> listener.documentUpdated(document, event));
         }
 
+        @Override
+        public void collectionUpdated(final XmldbURI collectionUri) {
+            listeners.get().forEach(listener -> listener.collectionUpdated(collectionUri));
+        }
+
         @Override
         public void unsubscribe() {
             List<UpdateListener> prev = listeners.get();
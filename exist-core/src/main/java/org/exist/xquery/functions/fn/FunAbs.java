@@ -53,7 +53,7 @@ public class FunAbs extends Function {
             },
             new FunctionReturnSequenceType(Type.NUMBER, Cardinality.ZERO_OR_ONE,
                 "The absolute value of the argument")
-        );
+        ).setDeterministic(true);
 
     public FunAbs(XQueryContext context) {
         super(context, signature);
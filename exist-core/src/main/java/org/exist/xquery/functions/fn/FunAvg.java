@@ -31,6 +31,7 @@ import org.exist.xquery.ErrorCodes;
 import org.exist.xquery.Function;
 import org.exist.xquery.FunctionSignature;
 import org.exist.xquery.Profiler;
+import org.exist.xquery.RangeSequence;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.XQueryContext;
 import org.exist.xquery.value.AtomicValue;
@@ -87,8 +88,13 @@ public class FunAvg extends Function {
         }
         Sequence result;
         final Sequence inner = getArgument(0).eval(contextSequence, contextItem);
+        ComputableValue primitiveSum = null;
         if (inner.isEmpty()) {
             result = Sequence.EMPTY_SEQUENCE;
+        } else if (inner instanceof RangeSequence) {
+            result = ((RangeSequence) inner).sum().div(new IntegerValue(this, inner.getItemCountLong()));
+        } else if ((primitiveSum = FunSum.sumPrimitives(this, inner)) != null) {
+            result = primitiveSum.div(new IntegerValue(this, inner.getItemCountLong()));
         } else {
             final SequenceIterator iter = inner.iterate();
             Item item = iter.nextItem();
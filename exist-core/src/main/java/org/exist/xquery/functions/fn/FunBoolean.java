@@ -53,7 +53,7 @@ public class FunBoolean extends Function {
             },
             new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE,
                 "The boolean value, ebv, of the items")
-        );
+        ).setDeterministic(true);
 
     public FunBoolean(XQueryContext context) {
         super(context, signature);
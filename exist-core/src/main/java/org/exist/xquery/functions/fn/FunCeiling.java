@@ -51,7 +51,7 @@ public class FunCeiling extends Function {
             },
             new FunctionReturnSequenceType(Type.NUMBER, Cardinality.ZERO_OR_ONE,
                 "The non-fractional number not less than $number")
-        );
+        ).setDeterministic(true);
 
     public FunCeiling(XQueryContext context) {
         super(context, signature);
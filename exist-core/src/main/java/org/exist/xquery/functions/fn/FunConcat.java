@@ -72,7 +72,7 @@ public class FunConcat extends Function {
             new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE,
                 "The concatenated values"),
             true
-        );
+        ).setDeterministic(true);
 
     public FunConcat(XQueryContext context) {
         super(context, signature);
@@ -56,7 +56,7 @@ public class FunContains extends CollatingFunction {
                     Cardinality.ZERO_OR_ONE, "The substring")
             },
             new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE,
-                "true() if $source-string contains $substring, false() otherwise")),
+                "true() if $source-string contains $substring, false() otherwise")).setDeterministic(true),
         new FunctionSignature(
             new QName("contains", Function.BUILTIN_FUNCTION_NS),
             "Returns an xs:boolean indicating whether or not the value of " +
@@ -74,7 +74,7 @@ public class FunContains extends CollatingFunction {
                     Cardinality.EXACTLY_ONE, "The collation URI")
             },
             new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE,
-                "true() if $source-string contains $substring, false() otherwise"))
+                "true() if $source-string contains $substring, false() otherwise")).setDeterministic(true)
     };
 
     public FunContains(XQueryContext context, FunctionSignature signature) {
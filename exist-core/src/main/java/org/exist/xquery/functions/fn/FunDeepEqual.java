@@ -267,16 +267,16 @@ public class FunDeepEqual extends CollatingFunction {
             case Node.TEXT_NODE:
                 if (a.getNodeType() == NodeImpl.REFERENCE_NODE &&
                         b.getNodeType() == NodeImpl.REFERENCE_NODE) {
-                    if (!safeEquals(((ReferenceNode)a).getReference().getNodeValue(),
-                            ((ReferenceNode)b).getReference().getNodeValue()))
+                    if (!safeEquals(((ReferenceNode)a).getReference().getNode().getNodeValue(),
+                            ((ReferenceNode)b).getReference().getNode().getNodeValue()))
                         {return false;}
                 } else if (a.getNodeType() == NodeImpl.REFERENCE_NODE) {
-                    if (!safeEquals(((ReferenceNode)a).getReference().getNodeValue(),
+                    if (!safeEquals(((ReferenceNode)a).getReference().getNode().getNodeValue(),
                             b.getNodeValue()))
                         {return false;}
                 } else if (b.getNodeType() == NodeImpl.REFERENCE_NODE) {
                     if (!safeEquals(a.getNodeValue(), 
-                            ((ReferenceNode)b).getReference().getNodeValue()))
+                            ((ReferenceNode)b).getReference().getNode().getNodeValue()))
                         {return false;}
                 } else {
                     if (!safeEquals(a.getNodeValue(), b.getNodeValue()))
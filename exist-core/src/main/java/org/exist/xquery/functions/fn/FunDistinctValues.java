@@ -40,10 +40,10 @@ import org.exist.xquery.ValueComparison;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.XQueryContext;
 import org.exist.xquery.value.AtomicValue;
+import org.exist.xquery.value.AtomicValueHashSet;
 import org.exist.xquery.value.FunctionReturnSequenceType;
 import org.exist.xquery.value.FunctionParameterSequenceType;
 import org.exist.xquery.value.Item;
-import org.exist.xquery.value.NumericValue;
 import org.exist.xquery.value.Sequence;
 import org.exist.xquery.value.SequenceIterator;
 import org.exist.xquery.value.SequenceType;
@@ -117,30 +117,25 @@ public class FunDistinctValues extends CollatingFunction {
         }
         final Sequence seq = getArgument(0).eval(contextSequence, contextItem);
         final Collator collator = getCollator(contextSequence, contextItem, 2);		
-        final TreeSet<AtomicValue> set = new TreeSet<>(new ValueComparator(collator));
+        // numbers and strings are hashed, any other values are kept in
+        // a sorted set, as they can never be equal to a number or a string
+        final AtomicValueHashSet hashSet = new AtomicValueHashSet(collator);
+        TreeSet<AtomicValue> set = null;
         final ValueSequence result = new ValueSequence();
         Item item;
         AtomicValue value;
-        boolean hasAlreadyNaN = false;
         for (final SequenceIterator i = seq.iterate(); i.hasNext();) {
             item = i.nextItem();
             value = item.atomize();
-            if (!set.contains(value)) {
-                if (Type.subTypeOfUnion(value.getType(), Type.NUMBER)) {
-                    if (((NumericValue)value).isNaN()) {
-                        //although NaN does not equal itself, if $arg 
-                        //contains multiple NaN values a single NaN is returned.
-                        if (!hasAlreadyNaN) {
-                            set.add(value);
-                            result.add(value);	
-                            hasAlreadyNaN = true;
-                        }
-                    } else {
-                        set.add(value);
-                        result.add(value);
-                    }
-                } else {
-                    set.add(value);
+            if (AtomicValueHashSet.isHashable(value)) {
+                if (hashSet.add(value)) {
+                    result.add(value);
+                }
+            } else {
+                if (set == null) {
+                    set = new TreeSet<>(new ValueComparator(collator));
+                }
+                if (set.add(value)) {
                     result.add(value);
                 }
             }
@@ -56,7 +56,7 @@ public class FunEndsWith extends CollatingFunction {
             },
             new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE,
                 "true() if $suffix is suffix of $source-string, false() otherwise")
-        ),
+        ).setDeterministic(true),
         new FunctionSignature (
             new QName("ends-with", Function.BUILTIN_FUNCTION_NS),
                 "Returns true() if the string value of $suffix is a suffix of the " +
@@ -73,7 +73,7 @@ public class FunEndsWith extends CollatingFunction {
                     Cardinality.EXACTLY_ONE, "The collation URI")
                 },
             new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE,
-                "true() if $suffix is suffix of $source-string, false() otherwise"))
+                "true() if $suffix is suffix of $source-string, false() otherwise")).setDeterministic(true)
     };
 
     public FunEndsWith(XQueryContext context, FunctionSignature signature) {
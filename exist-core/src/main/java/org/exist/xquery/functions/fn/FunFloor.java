@@ -47,7 +47,7 @@ public class FunFloor extends Function {
 			new SequenceType[] {
                 new FunctionParameterSequenceType("number", Type.NUMBER, Cardinality.ZERO_OR_ONE, "The number")
             },
-			new FunctionReturnSequenceType(Type.NUMBER, Cardinality.ZERO_OR_ONE, "the largest number without fraction part not greater than the value of $number"));
+			new FunctionReturnSequenceType(Type.NUMBER, Cardinality.ZERO_OR_ONE, "the largest number without fraction part not greater than the value of $number")).setDeterministic(true);
 
 	public FunFloor(XQueryContext context) {
 		super(context, signature);
@@ -30,6 +30,7 @@ import org.exist.xquery.ErrorCodes;
 import org.exist.xquery.Function;
 import org.exist.xquery.FunctionSignature;
 import org.exist.xquery.Profiler;
+import org.exist.xquery.RangeSequence;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.XQueryContext;
 import org.exist.xquery.value.AtomicValue;
@@ -136,7 +137,11 @@ public class FunMin extends CollatingFunction {
 		final Sequence arg = getArgument(0).eval(contextSequence, contextItem);
 		if (arg.isEmpty())
 			{result = Sequence.EMPTY_SEQUENCE;}
-        else {
+        else if (arg instanceof RangeSequence) {
+            // evaluated only to report an unknown collation
+            getCollator(contextSequence, contextItem, 2);
+            result = ((RangeSequence) arg).getStart();
+        } else {
         	//TODO : test if a range index is defined *iff* it is compatible with the collator
     		final Collator collator = getCollator(contextSequence, contextItem, 2);
     		final SequenceIterator iter = arg.unorderedIterator();
@@ -80,7 +80,7 @@ public class FunNormalizeSpace extends Function {
                             FUNCTION_DESCRIPTION_1_PARAM_1 + FUNCTION_DESCRIPTION_COMMON_2,
                     new SequenceType[]{new FunctionParameterSequenceType("arg", Type.STRING, Cardinality.ZERO_OR_ONE, "The string to normalize")},
                     RETURN_TYPE
-            )
+            ).setDeterministic(true)
     };
 
     public FunNormalizeSpace(final XQueryContext context, final FunctionSignature signature) {
@@ -52,7 +52,7 @@ public class FunNot extends Function {
 			"the fn:boolean() function.",
 			new SequenceType[] {
 				 new FunctionParameterSequenceType("arg", Type.ITEM, Cardinality.ZERO_OR_MORE, "The input items")},
-			new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE, "the negated effective boolean value (ebv) of $arg"));
+			new FunctionReturnSequenceType(Type.BOOLEAN, Cardinality.EXACTLY_ONE, "the negated effective boolean value (ebv) of $arg")).setDeterministic(true);
 
 	@SuppressWarnings("unused")
 	private boolean inWhereClause = false;
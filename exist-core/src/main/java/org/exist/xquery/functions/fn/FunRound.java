@@ -65,10 +65,10 @@ public class FunRound extends FunRoundBase {
 
 	public static final FunctionSignature[] FN_ROUND_SIGNATURES = {
 			functionSignature(FN_NAME, FunRound.description, FunRound.returnType,
-					optParam("arg", Type.NUMBER, "The input number")),
+					optParam("arg", Type.NUMBER, "The input number")).setDeterministic(true),
 			functionSignature(FN_NAME, FunRound.description, FunRound.returnType,
 					optParam("arg", Type.NUMBER, "The input number"),
-					optParam("precision", Type.INTEGER, "The input number"))
+					optParam("precision", Type.INTEGER, "The input number")).setDeterministic(true)
 	};
 
 	public FunRound(final XQueryContext context, final FunctionSignature signature) {
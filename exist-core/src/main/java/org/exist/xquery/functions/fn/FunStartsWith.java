@@ -70,12 +70,12 @@ public class FunStartsWith extends CollatingFunction {
 			       new QName("starts-with", Function.BUILTIN_FUNCTION_NS),
 			       FUNCTION_DESCRIPTION,
 			       new SequenceType[] { ARG1_PARAM, ARG2_PARAM },
-			       RETURN_TYPE),
+			       RETURN_TYPE).setDeterministic(true),
 	new FunctionSignature (
 			       new QName("starts-with", Function.BUILTIN_FUNCTION_NS),
 			       FUNCTION_DESCRIPTION + THIRD_REL_COLLATION_ARG_EXAMPLE,
 			       new SequenceType[] { ARG1_PARAM, ARG2_PARAM, COLLATION_PARAM },
-			       RETURN_TYPE)
+			       RETURN_TYPE).setDeterministic(true)
     };
 					
     public FunStartsWith(XQueryContext context, FunctionSignature signature) {
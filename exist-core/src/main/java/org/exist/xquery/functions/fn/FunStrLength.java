@@ -58,7 +58,7 @@ public class FunStrLength extends Function {
                             new FunctionParameterSequenceType("arg", Type.STRING, Cardinality.ZERO_OR_ONE, "The input string")
                     },
                     new FunctionReturnSequenceType(Type.INTEGER, Cardinality.EXACTLY_ONE, "the length in characters")
-            )
+            ).setDeterministic(true)
     };
 
     public FunStrLength(final XQueryContext context, final FunctionSignature signature) {
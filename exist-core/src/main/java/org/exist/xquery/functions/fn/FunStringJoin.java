@@ -59,7 +59,7 @@ public class FunStringJoin extends BasicFunction {
                         "The sequence to be joined to form the string. If it is empty, " +
                                 "a zero-length string is returned.")
             },
-            new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the joined string")),
+            new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the joined string")).setDeterministic(true),
 		new FunctionSignature(
             new QName("string-join", Function.BUILTIN_FUNCTION_NS),
             "Returns a xs:string created by concatenating the members of the " +
@@ -71,7 +71,7 @@ public class FunStringJoin extends BasicFunction {
                     "a zero-length string is returned."),
                 new FunctionParameterSequenceType("separator", Type.STRING, Cardinality.EXACTLY_ONE, "The separator to be placed in the string between the items of $arg")
             },
-            new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the joined string"))
+            new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the joined string")).setDeterministic(true)
     };
 
 	public FunStringJoin(XQueryContext context, FunctionSignature signature) {
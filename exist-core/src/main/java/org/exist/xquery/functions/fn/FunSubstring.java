@@ -62,7 +62,7 @@ public class FunSubstring extends Function {
 					 new FunctionParameterSequenceType("starting-at", Type.DOUBLE, Cardinality.EXACTLY_ONE, "The starting position")
 				},
 				new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the substring")
-			),
+			).setDeterministic(true),
 			new FunctionSignature(
 				new QName("substring", Function.BUILTIN_FUNCTION_NS),
 				"Returns the portion of the value of $source beginning at the position indicated by the value of $starting-at " +
@@ -75,7 +75,7 @@ public class FunSubstring extends Function {
 					 new FunctionParameterSequenceType("length", Type.DOUBLE, Cardinality.EXACTLY_ONE, "The number of characters in the substring")
 				},
 				new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the substring")
-			)
+			).setDeterministic(true)
 	};
 				
 	public FunSubstring(XQueryContext context, FunctionSignature signature) {
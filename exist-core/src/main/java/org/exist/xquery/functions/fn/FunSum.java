@@ -25,9 +25,11 @@ import org.exist.dom.QName;
 import org.exist.xquery.Cardinality;
 import org.exist.xquery.Dependency;
 import org.exist.xquery.ErrorCodes;
+import org.exist.xquery.Expression;
 import org.exist.xquery.Function;
 import org.exist.xquery.FunctionSignature;
 import org.exist.xquery.Profiler;
+import org.exist.xquery.RangeSequence;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.XQueryContext;
 import org.exist.xquery.value.AtomicValue;
@@ -44,6 +46,9 @@ import org.exist.xquery.value.SequenceIterator;
 import org.exist.xquery.value.SequenceType;
 import org.exist.xquery.value.Type;
 
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+
 public class FunSum extends Function {
 	
 	//Used to detect overflows : currently not used.
@@ -97,7 +102,9 @@ public class FunSum extends Function {
 			if(getSignature().getArgumentCount() == 2)
 				{zero = getArgument(1).eval(contextSequence, contextItem);}
 			result = zero;
-		} else {
+		} else if (inner instanceof RangeSequence) {
+			result = ((RangeSequence) inner).sum();
+		} else if ((result = sumPrimitives(this, inner)) == null) {
     		final SequenceIterator iter = inner.iterate();
     		Item item = iter.nextItem();
     		AtomicValue value = item.atomize();
@@ -140,6 +147,59 @@ public class FunSum extends Function {
         return result;        
 	}
 	
+	/**
+	 * Sums a sequence of only xs:integer, or only xs:double values
+	 * using a primitive accumulator, which avoids creating a new value
+	 * for every intermediate sum.
+	 *
+	 * @param expression the calling expression.
+	 * @param seq the non-empty sequence to sum.
+	 *
+	 * @return the sum, or null if the sequence holds values of any other type.
+	 *
+	 * @throws XPathException if a value cannot be read.
+	 */
+	static @Nullable ComputableValue sumPrimitives(final Expression expression, final Sequence seq) throws XPathException {
+		final int itemType = seq.getItemType();
+		if (itemType == Type.INTEGER) {
+			long sum = 0;
+			BigInteger bigSum = null;
+			for (final SequenceIterator i = seq.iterate(); i.hasNext(); ) {
+				final Item item = i.nextItem();
+				if (item.getType() != Type.INTEGER) {
+					return null;
+				}
+				final IntegerValue value = (IntegerValue) item;
+				if (bigSum == null && value.isLong()) {
+					try {
+						sum = Math.addExact(sum, value.getLong());
+						continue;
+					} catch (final ArithmeticException e) {
+						// overflow, continue with a BigInteger
+					}
+				}
+				if (bigSum == null) {
+					bigSum = BigInteger.valueOf(sum);
+				}
+				bigSum = bigSum.add(value.toJavaObject(BigInteger.class));
+			}
+			return bigSum == null ? new IntegerValue(expression, sum) : new IntegerValue(expression, bigSum);
+
+		} else if (itemType == Type.DOUBLE) {
+			// -0.0 is the identity of addition, as -0.0 + 0.0 is 0.0
+			double sum = -0.0;
+			for (final SequenceIterator i = seq.iterate(); i.hasNext(); ) {
+				final Item item = i.nextItem();
+				if (item.getType() != Type.DOUBLE) {
+					return null;
+				}
+				sum += ((DoubleValue) item).getDouble();
+			}
+			return new DoubleValue(expression, sum);
+		}
+		return null;
+	}
+
 	private AtomicValue check(AtomicValue value, ComputableValue sum) throws XPathException {
 		//Duration values must either all be xs:yearMonthDuration values or must all be xs:dayTimeDuration values.
 		if (Type.subTypeOf(value.getType(), Type.DURATION)) {
@@ -62,7 +62,7 @@ public class FunTranslate extends Function {
 				new FunctionParameterSequenceType("map", Type.STRING, Cardinality.EXACTLY_ONE, "The map string"),
 				new FunctionParameterSequenceType("trans", Type.STRING, Cardinality.EXACTLY_ONE, "The translation string")
 			},
-			new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the translated string"));
+			new FunctionReturnSequenceType(Type.STRING, Cardinality.EXACTLY_ONE, "the translated string")).setDeterministic(true);
 
 	public FunTranslate(XQueryContext context) {
 		super(context, signature);
@@ -26,17 +26,25 @@ import net.sf.saxon.s9api.*;
 import net.sf.saxon.type.BuiltInAtomicType;
 import org.exist.dom.QName;
 import org.exist.dom.persistent.NodeProxy;
+import org.exist.storage.DBBroker;
+import org.exist.storage.serializers.EXistOutputKeys;
 import org.exist.xquery.ErrorCodes;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.functions.array.ArrayType;
 import org.exist.xquery.functions.fn.FnTransform;
 import org.exist.xquery.value.*;
+import org.exist.xslt.EXistDbSource;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import javax.annotation.Nullable;
+import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 
 /**
  * Type conversion to and from Saxon
@@ -108,8 +116,72 @@ class Convert {
 
     abstract static class ToSaxon {
 
+        /**
+         * Properties of the serializer which sends a stored document to Saxon,
+         * so that Saxon sees the same nodes as through the DOM.
+         */
+        private static final Properties STORED_DOCUMENT_PROPERTIES = new Properties();
+        static {
+            STORED_DOCUMENT_PROPERTIES.setProperty(EXistOutputKeys.EXPAND_XINCLUDES, "no");
+            STORED_DOCUMENT_PROPERTIES.setProperty(EXistOutputKeys.PROCESS_XSL_PI, "no");
+            STORED_DOCUMENT_PROPERTIES.setProperty(EXistOutputKeys.HIGHLIGHT_MATCHES, "none");
+        }
+
         abstract DocumentBuilder newDocumentBuilder();
 
+        abstract DBBroker getBroker();
+
+        /**
+         * Get a source from which Saxon can build a tree of a document.
+         *
+         * A stored document is streamed by the serializer, which reads its nodes
+         * in document order from the database, instead of Saxon walking the
+         * persistent DOM one node at a time.
+         *
+         * @param document the document
+         * @param systemId the system id of the source, or null
+         *
+         * @return the source
+         */
+        Source sourceOf(final Document document, @Nullable final String systemId) {
+            if (document instanceof org.exist.dom.persistent.DocumentImpl storedDocument) {
+                final EXistDbSource source = new EXistDbSource(getBroker(), storedDocument, STORED_DOCUMENT_PROPERTIES);
+                if (systemId != null) {
+                    source.setSystemId(systemId);
+                }
+                return source;
+            }
+            return new DOMSource(expandReferences(document), systemId);
+        }
+
+        /**
+         * Get the node to hand to Saxon as a DOM node.
+         *
+         * Saxon walks an in-memory document through the DOM, which does not expose the
+         * content that is shared by its reference nodes. Such a document is therefore
+         * copied with its references expanded, and the corresponding node of the copy
+         * is returned. The document itself is left unchanged.
+         *
+         * @param node the node
+         *
+         * @return the node, or the corresponding node of the expanded copy of its document
+         */
+        static Node expandReferences(final Node node) {
+            final Node ownerDocument = node.getNodeType() == Node.DOCUMENT_NODE ? node : node.getOwnerDocument();
+            if (!(ownerDocument instanceof org.exist.dom.memtree.DocumentImpl memtreeDocument)) {
+                return node;
+            }
+            final org.exist.dom.memtree.DocumentImpl expandedDocument = memtreeDocument.expandRefs(null);
+            if (expandedDocument == memtreeDocument) {
+                return node;
+            }
+            if (node instanceof Attr attr) {
+                final Element expandedElement = (Element) TreeUtils.nodeAtIndex(expandedDocument, TreeUtils.documentIndex(attr.getOwnerElement()));
+                return expandedElement.getAttributeNodeNS(attr.getNamespaceURI(), attr.getLocalName());
+            }
+            return TreeUtils.nodeAtIndex(expandedDocument, TreeUtils.documentIndex(node));
+        }
+
         static net.sf.saxon.s9api.QName of(final QName qName) {
             return new net.sf.saxon.s9api.QName(qName.getPrefix() == null ? "" : qName.getPrefix(), qName.getNamespaceURI(), qName.getLocalPart());
         }
@@ -153,8 +225,8 @@ class Convert {
 
             final DocumentBuilder sourceBuilder = newDocumentBuilder();
             try {
-                if (node instanceof Document) {
-                    return sourceBuilder.build(new DOMSource(node));
+                if (node instanceof Document document) {
+                    return sourceBuilder.build(sourceOf(document, null));
                 } else {
                     //The source must be part of a document
                     final Document document = node.getOwnerDocument();
@@ -162,7 +234,7 @@ class Convert {
                         throw new XPathException(ErrorCodes.XPTY0004, "Node " + node + COULD_NOT_BE_CONVERTED + "XdmValue, as it is not part of a document.");
                     }
                     final List<Integer> nodeIndex = TreeUtils.treeIndex(node);
-                    final XdmNode xdmDocument = sourceBuilder.build(new DOMSource(document));
+                    final XdmNode xdmDocument = sourceBuilder.build(sourceOf(document, null));
                     return TreeUtils.xdmNodeAtIndex(xdmDocument, nodeIndex);
                 }
             } catch (final SaxonApiException e) {
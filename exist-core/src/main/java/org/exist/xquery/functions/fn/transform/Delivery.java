@@ -57,15 +57,12 @@ class Delivery {
         this.serializationProperties = serializationProperties;
     }
 
-    final Destination createDestination(final Xslt30Transformer xslt30Transformer, final boolean forceCreation) {
+    final Destination createDestination(final Xslt30Transformer xslt30Transformer) {
         switch (format) {
             case DOCUMENT:
-                if (!forceCreation) {
-                    this.builder = context.getDocumentBuilder();
-                } else {
-                    this.builder = new MemTreeBuilder(context);
-                    this.builder.startDocument();
-                }
+                // each result is a new document, never the document of the calling context
+                this.builder = new MemTreeBuilder(context);
+                this.builder.startDocument();
                 return new SAXDestination(new DocumentBuilderReceiver(builder));
             case SERIALIZED:
                 final Serializer serializer = xslt30Transformer.newSerializer();
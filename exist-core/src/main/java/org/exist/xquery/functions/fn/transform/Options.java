@@ -473,7 +473,7 @@ class Options {
         final Optional<Node> stylesheetNode = Options.STYLESHEET_NODE.get(options).map(NodeValue::getNode);
         if (stylesheetNode.isPresent()) {
             final Node node = stylesheetNode.get();
-            results.add(Tuple(node.getBaseURI(), new DOMSource(node)));
+            results.add(Tuple(node.getBaseURI(), new DOMSource(Convert.ToSaxon.expandReferences(node))));
         }
 
         final Optional<String> stylesheetText = Options.STYLESHEET_TEXT.get(options).map(StringValue::getStringValue);
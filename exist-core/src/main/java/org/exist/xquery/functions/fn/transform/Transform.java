@@ -33,6 +33,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.exist.dom.QName;
+import org.exist.storage.DBBroker;
 import org.exist.util.Holder;
 import org.exist.xquery.ErrorCodes;
 import org.exist.xquery.XPathException;
@@ -44,6 +45,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.transform.ErrorListener;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
@@ -88,6 +90,11 @@ public class Transform {
         DocumentBuilder newDocumentBuilder() {
             return context.getBroker().getBrokerPool().getSaxonProcessor().newDocumentBuilder();
         }
+
+        @Override
+        DBBroker getBroker() {
+            return context.getBroker();
+        }
     };
 
     private static final Cache<String, XsltExecutable> XSLT_EXECUTABLE_CACHE = Caffeine.newBuilder()
@@ -161,33 +168,33 @@ public class Transform {
                 xslt30Transformer.setResultDocumentHandler(resultDocumentURI -> {
                     final Delivery resultDelivery = new Delivery(context, options.deliveryFormat, serializationProperties);
                     resultDocuments.put(resultDocumentURI, resultDelivery);
-                    return resultDelivery.createDestination(xslt30Transformer, true);
+                    return resultDelivery.createDestination(xslt30Transformer);
                 });
 
+                XdmNode sourceTree = null;
                 if (options.globalContextItem.isPresent()) {
                     final Item item = options.globalContextItem.get();
                     final XdmItem xdmItem = (XdmItem) toSaxon.of(item);
                     xslt30Transformer.setGlobalContextItem(xdmItem);
                 } else if (sourceNode.isPresent()) {
-                    final Document document;
-                    Source source = sourceNode.get();
+                    final DocumentBuilder sourceBuilder = toSaxon.newDocumentBuilder();
                     final Node node = ((DOMSource)sourceNode.get()).getNode();
-                    if (!(node instanceof org.exist.dom.memtree.DocumentImpl) && !(node instanceof org.exist.dom.persistent.DocumentImpl)) {
+                    if (node instanceof Document document) {
+                        // build the tree once, as it is also the tree that templates are applied to
+                        sourceBuilder.setWhitespaceStrippingPolicy(xsltExecutable.getWhitespaceStrippingPolicy());
+                        sourceTree = sourceBuilder.build(toSaxon.sourceOf(document, sourceNode.get().getSystemId()));
+                        xslt30Transformer.setGlobalContextItem(sourceTree);
+                    } else {
                         //The source may not be a document
-                        //If it isn't, it should be part of a document, so we build a DOMSource to use
-                        document = node.getOwnerDocument();
-                        source = new DOMSource(document);
+                        //If it isn't, it should be part of a document, so we build the document to use
+                        xslt30Transformer.setGlobalContextItem(sourceBuilder.build(toSaxon.sourceOf(node.getOwnerDocument(), null)));
                     }
-                    final var brokerPool = context.getBroker().getBrokerPool();
-                    final DocumentBuilder sourceBuilder = brokerPool.getSaxonProcessor().newDocumentBuilder();
-                    final XdmNode xdmNode = sourceBuilder.build(source);
-                    xslt30Transformer.setGlobalContextItem(xdmNode);
                 } else {
                     xslt30Transformer.setGlobalContextItem(null);
                 }
 
                 final Transform.TemplateInvocation invocation = new Transform.TemplateInvocation(
-                        options, sourceNode, delivery, xslt30Transformer, resultDocuments);
+                        options, sourceNode, sourceTree, delivery, xslt30Transformer, resultDocuments);
                 return invocation.invoke();
             } catch (final SaxonApiException | UncheckedXPathException e) {
                 throw originalXPathException("Could not transform input: ", e, ErrorCodes.FOXT0003);
@@ -312,16 +319,18 @@ public class Transform {
 
         final Options options;
         Optional<Source> sourceNode;
+        @Nullable final XdmNode sourceTree;
         final Delivery delivery;
         final Destination destination;
         final Xslt30Transformer xslt30Transformer;
         final Map<URI, Delivery> resultDocuments;
 
-        TemplateInvocation(final Options options, final Optional<Source> sourceNode, final Delivery delivery, final Xslt30Transformer xslt30Transformer, final Map<URI, Delivery> resultDocuments) {
+        TemplateInvocation(final Options options, final Optional<Source> sourceNode, @Nullable final XdmNode sourceTree, final Delivery delivery, final Xslt30Transformer xslt30Transformer, final Map<URI, Delivery> resultDocuments) {
             this.options = options;
             this.sourceNode = sourceNode;
+            this.sourceTree = sourceTree;
             this.delivery = delivery;
-            this.destination = delivery.createDestination(xslt30Transformer, false);
+            this.destination = delivery.createDestination(xslt30Transformer);
             this.xslt30Transformer = xslt30Transformer;
             this.resultDocuments = resultDocuments;
         }
@@ -362,15 +371,22 @@ public class Transform {
             if (options.initialMatchSelection.isPresent()) {
                 final Sequence initialMatchSelection = options.initialMatchSelection.get();
                 final Item item = initialMatchSelection.itemAt(0);
-                if (item instanceof Document) {
-                    final Source sourceIMS = new DOMSource((Document)item, context.getBaseURI().getStringValue());
+                if (item instanceof Document document) {
+                    final Source sourceIMS = toSaxon.sourceOf(document, context.getBaseURI().getStringValue());
                     xslt30Transformer.applyTemplates(sourceIMS, destination);
                 } else {
                     final XdmValue selection = toSaxon.of(initialMatchSelection);
                     xslt30Transformer.applyTemplates(selection, destination);
                 }
+            } else if (sourceTree != null) {
+                xslt30Transformer.applyTemplates(sourceTree, destination);
             } else if (sourceNode.isPresent()) {
-                xslt30Transformer.applyTemplates(sourceNode.get(), destination);
+                final Source source = sourceNode.get();
+                if (((DOMSource) source).getNode() instanceof Document document) {
+                    xslt30Transformer.applyTemplates(toSaxon.sourceOf(document, source.getSystemId()), destination);
+                } else {
+                    xslt30Transformer.applyTemplates(source, destination);
+                }
             } else {
                 throw new XPathException(fnTransform,
                         ErrorCodes.FOXT0002,
@@ -423,7 +439,7 @@ public class Transform {
     }
 
     private static Optional<Source> getSourceNode(final Optional<NodeValue> sourceNode, final AnyURIValue baseURI) {
-        return sourceNode.map(NodeValue::getNode).map(node -> new DOMSource(node, baseURI.getStringValue()));
+        return sourceNode.map(NodeValue::getNode).map(node -> new DOMSource(Convert.ToSaxon.expandReferences(node), baseURI.getStringValue()));
     }
 
     private static class ErrorListenerLog4jAdapter implements ErrorListener {
@@ -77,6 +77,45 @@ public class TreeUtils {
         return index;
     }
 
+    /**
+     * As {@link #treeIndex(Node)}, but relative to the document of the node, also when
+     * the node is at the top of an in-memory fragment, whose document the DOM hides.
+     *
+     * @param node the node
+     *
+     * @return the position of the node and of each of its ancestors among their siblings
+     */
+    static List<Integer> documentIndex(final Node node) {
+        if (node.getNodeType() == Node.DOCUMENT_NODE) {
+            return new ArrayList<>();
+        }
+        final Node parent = node.getParentNode();
+        final List<Integer> index = parent == null ? new ArrayList<>() : documentIndex(parent);
+        Node sibling = node.getPreviousSibling();
+        int position = 0;
+        while (sibling != null) {
+            position += 1;
+            sibling = sibling.getPreviousSibling();
+        }
+        index.add(position);
+
+        return index;
+    }
+
+    static Node nodeAtIndex(final Node node, final List<Integer> index) {
+        Node current = node;
+        for (final int position : index) {
+            current = current.getFirstChild();
+            for (int i = 0; i < position && current != null; i++) {
+                current = current.getNextSibling();
+            }
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
     static XdmNode xdmNodeAtIndex(final XdmNode xdmNode, final List<Integer> index) {
         if (index.isEmpty()) {
             return xdmNode;
@@ -49,7 +49,7 @@ public class NoParamFunctions extends BasicFunction {
         "Returns the value of pi.",
         null,
         new FunctionReturnSequenceType(Type.DOUBLE, Cardinality.EXACTLY_ONE, "the value of pi")
-    );
+    ).setDeterministic(true);
 
     public NoParamFunctions(XQueryContext context, FunctionSignature signature) {
         super(context, signature);
@@ -45,7 +45,7 @@ public class TwoParamFunctions extends BasicFunction {
                     new FunctionParameterSequenceType("x", Type.DOUBLE, Cardinality.EXACTLY_ONE, "The x coordinate")
             },
             new FunctionReturnSequenceType(Type.DOUBLE, Cardinality.EXACTLY_ONE, "the theta component of the point (r, theta) in polar coordinates that corresponds to the point (x, y) in Cartesian coordinates.")
-    );
+    ).setDeterministic(true);
     public final static FunctionSignature FNS_POW = new FunctionSignature(
             new QName(POW, MathModule.NAMESPACE_URI, MathModule.PREFIX),
             "Returns the result of raising the first argument to the power of the second.",
@@ -54,7 +54,7 @@ public class TwoParamFunctions extends BasicFunction {
                     new FunctionParameterSequenceType("power", Type.NUMBER, Cardinality.EXACTLY_ONE, "The power to raise the value to")
             },
             new FunctionReturnSequenceType(Type.DOUBLE, Cardinality.ZERO_OR_ONE, "the result")
-    );
+    ).setDeterministic(true);
 
     public TwoParamFunctions(XQueryContext context, FunctionSignature signature) {
         super(context, signature);
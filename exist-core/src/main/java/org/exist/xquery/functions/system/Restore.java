@@ -35,6 +35,7 @@ import org.exist.xquery.FunctionSignature;
 import org.exist.xquery.XPathException;
 import org.exist.xquery.XQueryContext;
 import org.exist.xquery.value.FunctionParameterSequenceType;
+import org.exist.xquery.value.IntegerValue;
 import org.exist.xquery.value.NodeValue;
 import org.exist.xquery.value.Sequence;
 import org.exist.xquery.value.Type;
@@ -78,6 +79,17 @@ public class Restore extends BasicFunction {
                          param("overwrite", Type.BOOLEAN,
                                  "Should newer versions of apps installed in the database be overwritten " +
                                          "by those found in the backup? False by default.")
+                 ),
+                 arity(
+                         PARAM_DIR_OR_FILE,
+                         PARAM_ADMIN_PASS,
+                         PARAM_NEW_ADMIN_PASS,
+                         param("overwrite", Type.BOOLEAN,
+                                 "Should newer versions of apps installed in the database be overwritten " +
+                                         "by those found in the backup? False by default."),
+                         param("parallelism", Type.INTEGER,
+                                 "The maximum number of collections to restore concurrently. When greater than 1, " +
+                                         "indexing is deferred until all documents have been restored.")
                  )
             )
     );
@@ -99,7 +111,8 @@ public class Restore extends BasicFunction {
         if (args[2].hasOne())
                 {adminPassAfter = args[2].getStringValue();}
 
-        final boolean overwriteApps = args.length == 4 && args[3].effectiveBooleanValue();
+        final boolean overwriteApps = args.length >= 4 && args[3].effectiveBooleanValue();
+        final int parallelism = args.length == 5 ? ((IntegerValue) args[4].itemAt(0)).getInt() : 1;
 
         context.pushDocumentContext();
         try {
@@ -115,7 +128,7 @@ public class Restore extends BasicFunction {
 
                     final RestoreListener listener = new XMLRestoreListener(builder);
                     final org.exist.backup.Restore restore = new org.exist.backup.Restore();
-                    restore.restore(broker, transaction, adminPassAfter, Paths.get(dirOrFile), listener, overwriteApps);
+                    restore.restore(broker, transaction, adminPassAfter, Paths.get(dirOrFile), listener, overwriteApps, parallelism);
 
                     transaction.commit();
                 }
@@ -0,0 +1,230 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery.value;
+
+import com.ibm.icu.text.Collator;
+import org.exist.xquery.Constants.Comparison;
+import org.exist.xquery.Constants.StringTruncationOperator;
+import org.exist.xquery.ValueComparison;
+import org.exist.xquery.XPathException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of atomic values which are distinct according to the {@code eq}
+ * operator, as needed by {@code fn:distinct-values}.
+ *
+ * Values are hashed on a key which is equal for all values that are equal:
+ * numbers on their {@code xs:double} value, and strings, {@code xs:anyURI}
+ * and {@code xs:untypedAtomic} values on their string value when comparing
+ * by codepoint, or on their {@link com.ibm.icu.text.CollationKey} otherwise.
+ * Values which share a key are still compared with {@link ValueComparison#compareAtomic},
+ * so that the type promotion rules of the value comparison are kept.
+ *
+ * Only values for which {@link #isHashable(AtomicValue)} returns true may be added;
+ * these can never be equal to a value of any other type.
+ *
+ * This class is not thread-safe.
+ */
+public final class AtomicValueHashSet {
+
+    @Nullable private final Collator collator;
+
+    /**
+     * Map of key to either an {@link AtomicValue}, or a {@code List<AtomicValue>}
+     * when several distinct values share the same key.
+     */
+    private final Map<Object, Object> values = new HashMap<>();
+
+    /**
+     * xs:decimal values (including xs:integer and its subtypes) are promoted to xs:float
+     * when compared with an xs:float, so once the set holds an xs:float, the xs:decimal values are also kept by
+     * the xs:double value of their xs:float promotion.
+     */
+    @Nullable private Map<Object, Object> decimalsByFloat = null;
+
+    private boolean hasNaN = false;
+
+    /**
+     * @param collator the collator used for comparing strings, or null for codepoint comparison.
+     */
+    public AtomicValueHashSet(@Nullable final Collator collator) {
+        this.collator = collator;
+    }
+
+    /**
+     * Determines if a value can be added to this set.
+     *
+     * @param value the atomic value.
+     *
+     * @return true if the value is numeric or string-like.
+     */
+    public static boolean isHashable(final AtomicValue value) {
+        final int type = value.getType();
+        return Type.subTypeOfUnion(type, Type.NUMBER)
+                || Type.subTypeOf(type, Type.STRING)
+                || type == Type.ANY_URI
+                || type == Type.UNTYPED_ATOMIC;
+    }
+
+    /**
+     * Adds a value to the set, unless the set already holds an equal value.
+     *
+     * Although NaN is not equal to itself, only the first NaN is added.
+     *
+     * @param value the value to add, which must be {@link #isHashable(AtomicValue) hashable}.
+     *
+     * @return true if the value was added, false if the set already held an equal value.
+     *
+     * @throws XPathException if the value cannot be read.
+     */
+    public boolean add(final AtomicValue value) throws XPathException {
+        final int type = value.getType();
+        if (Type.subTypeOfUnion(type, Type.NUMBER)) {
+            return addNumeric(type, (NumericValue) value);
+        }
+
+        if (!isHashable(value)) {
+            throw new IllegalArgumentException("Cannot hash value of type: " + Type.getTypeName(type));
+        }
+
+        final String s = value.getStringValue();
+        final Object key = collator == null ? s : collator.getCollationKey(s);
+        if (contains(values, key, value)) {
+            return false;
+        }
+        put(values, key, value);
+        return true;
+    }
+
+    private boolean addNumeric(final int type, final NumericValue value) throws XPathException {
+        if (value.isNaN()) {
+            if (hasNaN) {
+                return false;
+            }
+            hasNaN = true;
+            return true;
+        }
+
+        final Double key = doubleKey(value);
+        if (contains(values, key, value)) {
+            return false;
+        }
+
+        if (type == Type.FLOAT) {
+            if (decimalsByFloat == null) {
+                indexDecimalsByFloat();
+            }
+            if (contains(decimalsByFloat, key, value)) {
+                return false;
+            }
+        } else if (Type.subTypeOf(type, Type.DECIMAL) && decimalsByFloat != null) {
+            final Double floatKey = doubleKey((NumericValue) value.convertTo(Type.FLOAT));
+            if (contains(values, floatKey, value)) {
+                return false;
+            }
+            put(decimalsByFloat, floatKey, value);
+        }
+
+        put(values, key, value);
+        return true;
+    }
+
+    private void indexDecimalsByFloat() throws XPathException {
+        decimalsByFloat = new HashMap<>();
+        for (final Object entry : values.values()) {
+            if (entry instanceof AtomicValue) {
+                indexDecimalByFloat((AtomicValue) entry);
+            } else {
+                for (final AtomicValue value : asList(entry)) {
+                    indexDecimalByFloat(value);
+                }
+            }
+        }
+    }
+
+    private void indexDecimalByFloat(final AtomicValue value) throws XPathException {
+        if (Type.subTypeOf(value.getType(), Type.DECIMAL)) {
+            put(decimalsByFloat, doubleKey((NumericValue) value.convertTo(Type.FLOAT)), value);
+        }
+    }
+
+    private static Double doubleKey(final NumericValue value) throws XPathException {
+        final double d = value.getDouble();
+        // -0 and +0 share a key
+        return d == 0.0 ? 0.0 : d;
+    }
+
+    private boolean contains(final Map<Object, Object> map, final Object key, final AtomicValue value) {
+        final Object entry = map.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry instanceof AtomicValue) {
+            return isEqual((AtomicValue) entry, value);
+        }
+        for (final AtomicValue other : asList(entry)) {
+            if (isEqual(other, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void put(final Map<Object, Object> map, final Object key, final AtomicValue value) {
+        map.merge(key, value, (existing, v) -> {
+            final List<AtomicValue> list;
+            if (existing instanceof AtomicValue) {
+                list = new ArrayList<>(2);
+                list.add((AtomicValue) existing);
+            } else {
+                list = asList(existing);
+            }
+            list.add((AtomicValue) v);
+            return list;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AtomicValue> asList(final Object entry) {
+        return (List<AtomicValue>) entry;
+    }
+
+    private boolean isEqual(AtomicValue v1, AtomicValue v2) {
+        try {
+            // compareAtomic only promotes xs:decimal itself to xs:float, not the subtypes of xs:decimal
+            if (v1.getType() == Type.FLOAT && Type.subTypeOf(v2.getType(), Type.DECIMAL)) {
+                v2 = v2.convertTo(Type.FLOAT);
+            } else if (v2.getType() == Type.FLOAT && Type.subTypeOf(v1.getType(), Type.DECIMAL)) {
+                v1 = v1.convertTo(Type.FLOAT);
+            }
+            return ValueComparison.compareAtomic(collator, v1, v2, StringTruncationOperator.NONE, Comparison.EQ);
+        } catch (final XPathException e) {
+            // values that cannot be compared are distinct
+            return false;
+        }
+    }
+}
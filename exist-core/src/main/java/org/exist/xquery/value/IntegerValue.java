@@ -313,6 +313,15 @@ public class IntegerValue extends NumericValue {
         return value.longValue();
     }
 
+    /**
+     * Determines if the value can be represented by a long.
+     *
+     * @return true if {@link #getLong()} returns the exact value.
+     */
+    public boolean isLong() {
+        return value.bitLength() < Long.SIZE;
+    }
+
     @Override
     public double getDouble() {
         return value.doubleValue();
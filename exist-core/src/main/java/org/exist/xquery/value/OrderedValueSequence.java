@@ -21,6 +21,8 @@
  */
 package org.exist.xquery.value;
 
+import com.ibm.icu.text.CollationKey;
+import com.ibm.icu.text.Collator;
 import org.exist.dom.memtree.DocumentImpl;
 import org.exist.dom.memtree.NodeImpl;
 import org.exist.dom.persistent.AVLTreeNodeSet;
@@ -314,6 +316,9 @@ public class OrderedValueSequence extends AbstractSequence {
     private class Entry implements Comparable<Entry> {
         Item item;
         AtomicValue values[];
+        // collation keys of the string values which are ordered by a collation, so that
+        // the collation is applied once per value rather than on every comparison
+        CollationKey keys[];
         private final int pos;
 
         /**
@@ -336,6 +341,14 @@ public class OrderedValueSequence extends AbstractSequence {
                             ExpressionDumper.dump(orderSpecs[i].getSortExpression()) +
                             " ; found: " + seq.getItemCount());
                 }
+
+                final Collator collator = orderSpecs[i].getCollator();
+                if (collator != null && values[i] instanceof StringValue) {
+                    if (keys == null) {
+                        keys = new CollationKey[orderSpecs.length];
+                    }
+                    keys[i] = collator.getCollationKey(values[i].getStringValue());
+                }
             }
         }
 
@@ -377,6 +390,8 @@ public class OrderedValueSequence extends AbstractSequence {
                         } else {
                             cmp = Constants.INFERIOR;
                         }
+                    } else if (keys != null && keys[i] != null && other.keys != null && other.keys[i] != null) {
+                        cmp = Integer.signum(keys[i].compareTo(other.keys[i]));
                     } else {
                         cmp = a.compareTo(orderSpecs[i].getCollator(), b);
                     }
@@ -413,6 +428,7 @@ public class OrderedValueSequence extends AbstractSequence {
 
         public void clear() {
             values = null;
+            keys = null;
         }
     }
 
@@ -23,6 +23,8 @@ package org.exist.xslt;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Properties;
+import javax.annotation.Nullable;
 
 import org.exist.dom.persistent.DocumentImpl;
 import org.exist.storage.DBBroker;
@@ -37,12 +39,24 @@ import org.xml.sax.InputSource;
 public class EXistDbInputSource extends InputSource {
     private final DBBroker broker;
     private final DocumentImpl doc;
+    @Nullable private final Properties outputProperties;
     
     public EXistDbInputSource(DBBroker broker, DocumentImpl doc) {
+        this(broker, doc, null);
+    }
+
+    /**
+     * @param broker the database broker
+     * @param doc the document
+     * @param outputProperties properties for the serializer which sends the document,
+     *     or null to use the serializer's defaults
+     */
+    public EXistDbInputSource(DBBroker broker, DocumentImpl doc, @Nullable Properties outputProperties) {
         super();
         
         this.broker = broker;
         this.doc = doc;
+        this.outputProperties = outputProperties;
     }
     
     public DBBroker getBroker() {
@@ -52,6 +66,10 @@ public class EXistDbInputSource extends InputSource {
     public DocumentImpl getDocument() {
         return this.doc;
     }
+
+    public @Nullable Properties getOutputProperties() {
+        return this.outputProperties;
+    }
     
     @Override
     public void setByteStream(InputStream stream) {
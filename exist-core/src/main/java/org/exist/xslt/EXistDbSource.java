@@ -21,6 +21,8 @@
  */
 package org.exist.xslt;
 
+import java.util.Properties;
+import javax.annotation.Nullable;
 import javax.xml.transform.sax.SAXSource;
 import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
@@ -43,7 +45,17 @@ public class EXistDbSource extends SAXSource {
     private InputSource source;
     
     public EXistDbSource(final DBBroker broker, final DocumentImpl doc) {
-        this.source = new EXistDbInputSource(broker, doc);
+        this(broker, doc, null);
+    }
+
+    /**
+     * @param broker the database broker
+     * @param doc the document
+     * @param outputProperties properties for the serializer which sends the document,
+     *     or null to use the serializer's defaults
+     */
+    public EXistDbSource(final DBBroker broker, final DocumentImpl doc, @Nullable final Properties outputProperties) {
+        this.source = new EXistDbInputSource(broker, doc, outputProperties);
     }
 
     @Override
@@ -24,6 +24,7 @@ package org.exist.xslt;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import org.exist.Namespaces;
 import org.exist.storage.serializers.Serializer;
 
 import org.xml.sax.ContentHandler;
@@ -34,6 +35,7 @@ import org.xml.sax.InputSource;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
 
 /**
  * {@link org.xml.sax.XMLReader} that uses an {@link org.exist.storage.serializers.Serializer}
@@ -45,6 +47,7 @@ public class EXistDbXMLReader implements XMLReader, Locator {
     private final static Logger LOG = LogManager.getLogger(EXistDbSource.class);
 
     private ContentHandler contentHandler;
+    private LexicalHandler lexicalHandler;
     private ErrorHandler   errHandler;
     
     private InputSource    source;
@@ -79,6 +82,9 @@ public class EXistDbXMLReader implements XMLReader, Locator {
     
     @Override
     public Object getProperty(final String name) {
+        if (Namespaces.SAX_LEXICAL_HANDLER.equals(name)) {
+            return this.lexicalHandler;
+        }
         return null;
     }
     
@@ -91,8 +97,11 @@ public class EXistDbXMLReader implements XMLReader, Locator {
         final Serializer serializer = source.getBroker().borrowSerializer();
         try {
             this.source = input;  
+            if (source.getOutputProperties() != null) {
+                serializer.setProperties(source.getOutputProperties());
+            }
             this.contentHandler.setDocumentLocator(this);
-            serializer.setSAXHandlers(this.contentHandler, null);
+            serializer.setSAXHandlers(this.contentHandler, this.lexicalHandler);
             serializer.toSAX(source.getDocument());
     
             this.contentHandler.endDocument();
@@ -150,6 +159,9 @@ public class EXistDbXMLReader implements XMLReader, Locator {
     
     @Override
     public void setProperty(final String name, final Object value) {
+        if (Namespaces.SAX_LEXICAL_HANDLER.equals(name)) {
+            this.lexicalHandler = (LexicalHandler) value;
+        }
     }
    
     @Override
@@ -23,12 +23,22 @@ package org.exist.xslt;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import javax.annotation.Nullable;
+import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.URIResolver;
 import javax.xml.transform.sax.SAXTransformerFactory;
 import javax.xml.transform.sax.TemplatesHandler;
@@ -62,8 +72,11 @@ public class StylesheetResolverAndCompiler implements Stylesheet {
 
   SAXTransformerFactory factory;
 
-  long lastModified = -1;
-  Templates templates = null;
+  /**
+   * The compiled stylesheet, together with the last modified time of the stylesheet
+   * and of each stylesheet that it imports or includes, at the time of compilation.
+   */
+  private volatile Compiled compiled = null;
 
   String uri;
   String base;
@@ -90,6 +103,42 @@ public class StylesheetResolverAndCompiler implements Stylesheet {
   public <E extends Exception> Templates templates(DBBroker broker, XSLTErrorsListener<E> errorListener)
       throws E, TransformerConfigurationException, IOException, PermissionDeniedException, SAXException {
 
+    final Compiled current = compiled;
+    if (current != null && current.isUpToDate(broker)) {
+      TemplatesFactory.statsCounter.recordHits(1);
+      return current.templates;
+    }
+
+    // compile at most once for concurrent requesters, those waiting use the result
+    synchronized (this) {
+      final Compiled latest = compiled;
+      if (latest != null && latest != current) {
+        TemplatesFactory.statsCounter.recordHits(1);
+        return latest.templates;
+      }
+      if (current != null) {
+        TemplatesFactory.invalidations.incrementAndGet();
+      }
+
+      TemplatesFactory.statsCounter.recordMisses(1);
+      final long start = System.nanoTime();
+      try {
+        compiled = compile(broker, errorListener);
+        TemplatesFactory.statsCounter.recordLoadSuccess(System.nanoTime() - start);
+      } catch (final Exception e) {
+        TemplatesFactory.statsCounter.recordLoadFailure(System.nanoTime() - start);
+        throw e;
+      }
+      return compiled.templates;
+    }
+  }
+
+  private <E extends Exception> Compiled compile(DBBroker broker, XSLTErrorsListener<E> errorListener)
+      throws E, TransformerConfigurationException, IOException, PermissionDeniedException, SAXException {
+
+    final Dependencies dependencies = new Dependencies();
+    final Templates templates;
+
     if (uri.startsWith(XmldbURI.EMBEDDED_SERVER_URI_PREFIX)) {
       final String docPath = uri.substring(XmldbURI.EMBEDDED_SERVER_URI_PREFIX.length());
       try (final LockedDocument lockedDocument = broker.getXMLResource(XmldbURI.create(docPath), LockMode.READ_LOCK)) {
@@ -97,31 +146,27 @@ public class StylesheetResolverAndCompiler implements Stylesheet {
           throw new IOException("XSL stylesheet not found: "+docPath);
         }
         final DocumentImpl doc = lockedDocument.getDocument();
-        if (templates == null || doc.getLastModified() > lastModified) {
-          if (LOG.isDebugEnabled()) {
-            LOG.debug("compiling stylesheet {}", doc.getURI());
-          }
-          templates = compileTemplates(broker, doc, errorListener);
-          lastModified = doc.getLastModified();
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("compiling stylesheet {}", doc.getURI());
         }
+        dependencies.add(uri, doc.getLastModified());
+        templates = compileTemplates(broker, doc, errorListener, dependencies);
       }
 
     } else {
       final URL url = new URL(uri);
       final URLConnection connection = url.openConnection();
-      long modified = connection.getLastModified();
-      if (templates == null || modified > lastModified || modified == 0) {
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("compiling stylesheet {}", url);
-        }
-        try (final InputStream is = connection.getInputStream()) {
-          templates = factory(broker.getBrokerPool(), errorListener).newTemplates(new StreamSource(is));
-        }
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("compiling stylesheet {}", url);
+      }
+      dependencies.add(uri, connection.getLastModified());
+      try (final InputStream is = connection.getInputStream()) {
+        templates = factory(broker, errorListener, dependencies).newTemplates(new StreamSource(is));
       }
-      lastModified = modified;
     }
 
-    return templates;
+    dependencies.complete();
+    return new Compiled(uri, templates, dependencies);
   }
 
   @Override
@@ -139,12 +184,13 @@ public class StylesheetResolverAndCompiler implements Stylesheet {
   private <E extends Exception> Templates compileTemplates(
       DBBroker broker,
       DocumentImpl stylesheet,
-      XSLTErrorsListener<E> errorListener)
+      XSLTErrorsListener<E> errorListener,
+      Dependencies dependencies)
       throws E, TransformerConfigurationException, SAXException
   {
     //factory.setURIResolver(new EXistURIResolver(broker, stylesheet.getCollection().getURI().toString()));
 
-    final TemplatesHandler handler = factory(broker.getBrokerPool(), errorListener).newTemplatesHandler();
+    final TemplatesHandler handler = factory(broker, errorListener, dependencies).newTemplatesHandler();
     handler.setSystemId(stylesheet.getBaseURI());
     handler.startDocument();
 
@@ -183,7 +229,9 @@ public class StylesheetResolverAndCompiler implements Stylesheet {
     return factory;
   }
 
-  private <E extends Exception> SAXTransformerFactory factory(BrokerPool db, XSLTErrorsListener<E> errorListener) {
+  private <E extends Exception> SAXTransformerFactory factory(DBBroker broker, XSLTErrorsListener<E> errorListener,
+      Dependencies dependencies) {
+    final BrokerPool db = broker.getBrokerPool();
     SAXTransformerFactory newFactory = TransformerFactoryAllocator.getTransformerFactory(db);
 
     if (properties != null) {
@@ -193,11 +241,191 @@ public class StylesheetResolverAndCompiler implements Stylesheet {
       }
     }
 
-    // setup any URI resolvers
+    // setup any URI resolvers, recording the stylesheets which are imported or included
     final URIResolver uriResolver = getXsltURIResolver(db, newFactory.getURIResolver(), base, true);
-    newFactory.setURIResolver(uriResolver);
+    newFactory.setURIResolver(new DependencyRecordingURIResolver(broker, uriResolver, dependencies));
 
     newFactory.setErrorListener(errorListener);
     return newFactory;
   }
+
+  /**
+   * Get the last modified time of a stylesheet.
+   *
+   * @param broker the database broker
+   * @param uri the absolute URI of the stylesheet, or the path of a stylesheet in the database
+   *
+   * @return the last modified time, 0 if it is not known, or -1 if the stylesheet is not available
+   */
+  static long lastModified(final DBBroker broker, final String uri) {
+    try {
+      final String docPath;
+      if (uri.startsWith(XmldbURI.EMBEDDED_SERVER_URI_PREFIX)) {
+        docPath = uri.substring(XmldbURI.EMBEDDED_SERVER_URI_PREFIX.length());
+      } else if (uri.startsWith("/")) {
+        docPath = uri;
+      } else {
+        docPath = null;
+      }
+
+      if (docPath != null) {
+        try (final LockedDocument lockedDocument = broker.getXMLResource(XmldbURI.create(docPath), LockMode.READ_LOCK)) {
+          return lockedDocument == null ? -1 : lockedDocument.getDocument().getLastModified();
+        }
+      }
+
+      final URI u = new URI(uri);
+      if ("file".equals(u.getScheme())) {
+        final Path path = Paths.get(u);
+        return Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : -1;
+      }
+
+      // only the headers are needed
+      final URLConnection connection = u.toURL().openConnection();
+      if (connection instanceof HttpURLConnection httpConnection) {
+        httpConnection.setRequestMethod("HEAD");
+        try {
+          return httpConnection.getLastModified();
+        } finally {
+          httpConnection.disconnect();
+        }
+      }
+      return connection.getLastModified();
+
+    } catch (final PermissionDeniedException | IOException | URISyntaxException | IllegalArgumentException e) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Unable to determine the last modified time of stylesheet {}: {}", uri, e.getMessage());
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Checks whether a stylesheet is stored in the database or in the file system,
+   * where its last modified time can be checked cheaply.
+   *
+   * @param uri the absolute URI of the stylesheet, or the path of a stylesheet in the database
+   *
+   * @return true if the stylesheet is stored locally
+   */
+  private static boolean isLocal(final String uri) {
+    return uri.startsWith(XmldbURI.EMBEDDED_SERVER_URI_PREFIX) || uri.startsWith("/") || uri.startsWith("file:");
+  }
+
+  private static class Compiled {
+    /**
+     * Stylesheets which are not stored locally are checked for modifications at most this often, in milliseconds.
+     */
+    private static final long REMOTE_CHECK_INTERVAL = 10_000;
+
+    private final String uri;
+    private final Templates templates;
+    private final Dependencies dependencies;
+    private volatile long remoteCheckedAt;
+
+    private Compiled(final String uri, final Templates templates, final Dependencies dependencies) {
+      this.uri = uri;
+      this.templates = templates;
+      this.dependencies = dependencies;
+      this.remoteCheckedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks that neither the stylesheet, nor any of the stylesheets that it imports
+     * or includes, have been modified since it was compiled.
+     *
+     * The stylesheet itself is always considered modified if its last modified time
+     * is not known. Imported or included stylesheets whose time is not known are not
+     * recorded, see {@link DependencyRecordingURIResolver}.
+     */
+    private boolean isUpToDate(final DBBroker broker) {
+      final long now = System.currentTimeMillis();
+      final boolean checkRemote = now - remoteCheckedAt >= REMOTE_CHECK_INTERVAL;
+
+      for (final Map.Entry<String, Long> dependency : dependencies.lastModified.entrySet()) {
+        final String dependencyUri = dependency.getKey();
+        final long lastModified = dependency.getValue();
+        if (lastModified <= 0 && dependencyUri.equals(uri)) {
+          return false;
+        }
+        if ((checkRemote || isLocal(dependencyUri)) && lastModified(broker, dependencyUri) != lastModified) {
+          return false;
+        }
+      }
+
+      if (checkRemote) {
+        remoteCheckedAt = now;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The stylesheet and each stylesheet that it imports or includes, with their last
+   * modified times. Only those resolved before the compilation is complete are recorded,
+   * documents resolved later whilst transforming are not dependencies of the stylesheet.
+   */
+  private static class Dependencies {
+    private final Map<String, Long> lastModified = new LinkedHashMap<>();
+    private volatile boolean complete = false;
+
+    private synchronized void add(final String uri, final long lastModified) {
+      if (!complete) {
+        this.lastModified.putIfAbsent(uri, lastModified);
+      }
+    }
+
+    private synchronized void complete() {
+      this.complete = true;
+    }
+  }
+
+  /**
+   * Records the last modified time of each stylesheet resolved
+   * by xsl:import or xsl:include whilst a stylesheet is compiled.
+   */
+  private static class DependencyRecordingURIResolver implements URIResolver {
+    private final DBBroker broker;
+    @Nullable private final URIResolver resolver;
+    private final Dependencies dependencies;
+
+    private DependencyRecordingURIResolver(final DBBroker broker, @Nullable final URIResolver resolver,
+        final Dependencies dependencies) {
+      this.broker = broker;
+      this.resolver = resolver;
+      this.dependencies = dependencies;
+    }
+
+    @Override
+    public Source resolve(final String href, final String base) throws TransformerException {
+      final Source source = resolver == null ? null : resolver.resolve(href, base);
+
+      // the broker may only be used whilst the stylesheet is compiled
+      if (dependencies.complete) {
+        return source;
+      }
+
+      String systemId = source == null ? null : source.getSystemId();
+      if (systemId == null) {
+        try {
+          final URI uri = base == null || base.isEmpty() ? new URI(href) : new URI(base).resolve(href);
+          if (uri.isAbsolute() || uri.getPath().startsWith("/")) {
+            systemId = uri.toString();
+          }
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+          // unable to track this dependency
+        }
+      }
+
+      if (systemId != null) {
+        // a stylesheet whose last modified time is not known cannot be checked, so is not recorded
+        final long lastModified = lastModified(broker, systemId);
+        if (lastModified > 0) {
+          dependencies.add(systemId, lastModified);
+        }
+      }
+
+      return source;
+    }
+  }
 }
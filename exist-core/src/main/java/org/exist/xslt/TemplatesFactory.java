@@ -21,19 +21,26 @@
  */
 package org.exist.xslt;
 
+import java.beans.ConstructorProperties;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.URIResolver;
 import javax.xml.transform.sax.SAXTransformerFactory;
 import javax.xml.transform.sax.TemplatesHandler;
 import javax.xml.transform.sax.TransformerHandler;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
 import net.jcip.annotations.ThreadSafe;
 import org.exist.security.PermissionDeniedException;
 import org.exist.storage.DBBroker;
@@ -53,16 +60,35 @@ import static org.exist.xslt.XsltURIResolverHelper.getXsltURIResolver;
 @ThreadSafe
 public class TemplatesFactory {
 
-  private final static ConcurrentMap<String, StylesheetResolverAndCompiler> cache = new ConcurrentHashMap<>();
+  /**
+   * The maximum number of stylesheets whose compiled form is cached.
+   */
+  public static final int MAX_CACHED_STYLESHEETS = 256;
+
+  // hits, misses and compilations are recorded by the stylesheets themselves, evictions by the cache
+  static final StatsCounter statsCounter = new ConcurrentStatsCounter();
+  static final AtomicLong invalidations = new AtomicLong();
+
+  private final static Cache<String, StylesheetResolverAndCompiler> cache = Caffeine.newBuilder()
+      .maximumSize(MAX_CACHED_STYLESHEETS)
+      .evictionListener((String key, StylesheetResolverAndCompiler value, RemovalCause cause) -> statsCounter.recordEviction(1, cause))
+      .build();
 
   public static Stylesheet stylesheet(String stylesheet, String baseUri, Properties properties, boolean useCache) {
 
-    if (useCache && properties == null) {
+    if (useCache && (properties == null || properties.isEmpty())) {
       return stylesheet(stylesheet, baseUri);
     }
 
     String uri = uri(stylesheet, baseUri);
 
+    if (useCache) {
+      // the factory attributes may change how the stylesheet is compiled, so they are part of the key
+      final Properties attributes = (Properties) properties.clone();
+      return cache.asMap().computeIfAbsent(uri + ' ' + new TreeMap<>(attributes),
+          key -> new StylesheetResolverAndCompiler(uri, attributes));
+    }
+
     return new StylesheetResolverAndCompiler(uri, properties);
   }
 
@@ -70,7 +96,7 @@ public class TemplatesFactory {
 
     String uri = uri(stylesheet, baseUri);
 
-    return cache.computeIfAbsent(uri, StylesheetResolverAndCompiler::new);
+    return cache.asMap().computeIfAbsent(uri, StylesheetResolverAndCompiler::new);
   }
 
   public static Stylesheet stylesheet(String stylesheet, String baseUri, boolean useCache) {
@@ -81,6 +107,18 @@ public class TemplatesFactory {
     }
   }
 
+  /**
+   * Get a snapshot of the statistics of the cached stylesheets.
+   *
+   * @return the statistics
+   */
+  public static Statistics getStatistics() {
+    final CacheStats stats = statsCounter.snapshot();
+    return new Statistics(cache.estimatedSize(), MAX_CACHED_STYLESHEETS, stats.hitCount(), stats.missCount(),
+        stats.loadSuccessCount(), stats.loadFailureCount(), stats.totalLoadTime(), stats.evictionCount(),
+        invalidations.get());
+  }
+
   private static String uri(String stylesheet, String baseUri) {
     String uri = stylesheet;
     if (stylesheet.indexOf(':') == Constants.STRING_NOT_FOUND) {
@@ -155,4 +193,87 @@ public class TemplatesFactory {
       }
     };
   }
+
+  /**
+   * Statistics of the cached stylesheets.
+   *
+   * Hits are requests served by an already compiled stylesheet, misses are
+   * requests which had to compile the stylesheet. Requests which wait whilst
+   * another thread compiles the same stylesheet are counted as hits.
+   */
+  public static class Statistics {
+    private final long size;
+    private final long maximumSize;
+    private final long hitCount;
+    private final long missCount;
+    private final long compileCount;
+    private final long compileFailureCount;
+    private final long totalCompileTime;
+    private final long evictionCount;
+    private final long invalidationCount;
+
+    /**
+     * @param size the number of cached stylesheets
+     * @param maximumSize the maximum number of cached stylesheets
+     * @param hitCount the number of requests served by an already compiled stylesheet
+     * @param missCount the number of requests which had to compile the stylesheet
+     * @param compileCount the number of successful compilations
+     * @param compileFailureCount the number of failed compilations
+     * @param totalCompileTime the total compilation time in nanoseconds (success and failure)
+     * @param evictionCount the number of stylesheets evicted from the cache
+     * @param invalidationCount the number of compiled stylesheets discarded because they,
+     *     or a stylesheet that they import or include, were modified
+     */
+    @ConstructorProperties({"size", "maximumSize", "hitCount", "missCount", "compileCount", "compileFailureCount",
+        "totalCompileTime", "evictionCount", "invalidationCount"})
+    public Statistics(final long size, final long maximumSize, final long hitCount, final long missCount,
+        final long compileCount, final long compileFailureCount, final long totalCompileTime,
+        final long evictionCount, final long invalidationCount) {
+      this.size = size;
+      this.maximumSize = maximumSize;
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.compileCount = compileCount;
+      this.compileFailureCount = compileFailureCount;
+      this.totalCompileTime = totalCompileTime;
+      this.evictionCount = evictionCount;
+      this.invalidationCount = invalidationCount;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    public long getMissCount() {
+      return missCount;
+    }
+
+    public long getCompileCount() {
+      return compileCount;
+    }
+
+    public long getCompileFailureCount() {
+      return compileFailureCount;
+    }
+
+    public long getTotalCompileTime() {
+      return totalCompileTime;
+    }
+
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    public long getInvalidationCount() {
+      return invalidationCount;
+    }
+  }
 }
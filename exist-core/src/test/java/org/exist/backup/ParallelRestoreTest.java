@@ -0,0 +1,140 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.backup;
+
+import org.exist.EXistException;
+import org.exist.backup.restore.listener.LogRestoreListener;
+import org.exist.collections.Collection;
+import org.exist.collections.triggers.TriggerException;
+import org.exist.security.PermissionDeniedException;
+import org.exist.storage.BrokerPool;
+import org.exist.storage.DBBroker;
+import org.exist.storage.txn.Txn;
+import org.exist.test.ExistEmbeddedServer;
+import org.exist.util.LockException;
+import org.exist.util.MimeType;
+import org.exist.util.StringInputSource;
+import org.exist.xmldb.XmldbURI;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.XQuery;
+import org.exist.xquery.value.Sequence;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.exist.test.TestConstants.TEST_COLLECTION_URI;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelRestoreTest {
+
+    private static final int SUB_COLLECTIONS = 4;
+    private static final int DOCUMENTS_PER_COLLECTION = 5;
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @ClassRule
+    public static final ExistEmbeddedServer existEmbeddedServer = new ExistEmbeddedServer(true, true);
+
+    @Test
+    public void restoreParallel() throws EXistException, IOException, PermissionDeniedException, SAXException, TriggerException, XPathException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+
+        final Path backup;
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+            final SystemExport sysexport = new SystemExport(broker, transaction, null, null, true);
+            backup = sysexport.export(temporaryFolder.newFolder().getAbsolutePath(), false, false, null);
+            transaction.commit();
+        }
+
+        clean();
+
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+            final Restore restore = new Restore();
+            restore.restore(broker, transaction, null, backup, new LogRestoreListener(), true, SUB_COLLECTIONS);
+            transaction.commit();
+        }
+
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()))) {
+            assertTrue(broker.isIndexingEnabled());
+
+            for (int i = 0; i < SUB_COLLECTIONS; i++) {
+                final Collection sub = broker.getCollection(TEST_COLLECTION_URI.append("sub" + i));
+                assertNotNull(sub);
+                assertEquals(DOCUMENTS_PER_COLLECTION, sub.getDocumentCount(broker));
+            }
+
+            // the structural index must have been rebuilt after the restore
+            final XQuery xquery = pool.getXQueryService();
+            final Sequence result = xquery.execute(broker, "collection('" + TEST_COLLECTION_URI + "')//item[@id = 'sub2-doc3']", null);
+            assertFalse(result.isEmpty());
+            assertEquals(1, result.getItemCount());
+        }
+    }
+
+    private static void clean() throws PermissionDeniedException, IOException, TriggerException, EXistException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+
+            final Collection test = broker.getCollection(TEST_COLLECTION_URI);
+            if (test != null) {
+                broker.removeCollection(transaction, test);
+            }
+
+            transaction.commit();
+        }
+    }
+
+    @BeforeClass
+    public static void setup() throws EXistException, PermissionDeniedException, IOException, SAXException, LockException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+
+            for (int i = 0; i < SUB_COLLECTIONS; i++) {
+                final XmldbURI subUri = TEST_COLLECTION_URI.append("sub" + i);
+                final Collection sub = broker.getOrCreateCollection(transaction, subUri);
+                broker.saveCollection(transaction, sub);
+
+                for (int j = 0; j < DOCUMENTS_PER_COLLECTION; j++) {
+                    final String xml = "<items><item id=\"sub" + i + "-doc" + j + "\"/></items>";
+                    broker.storeDocument(transaction, XmldbURI.create("doc" + j + ".xml"), new StringInputSource(xml), MimeType.XML_TYPE, sub);
+                }
+            }
+
+            transaction.commit();
+        }
+    }
+}
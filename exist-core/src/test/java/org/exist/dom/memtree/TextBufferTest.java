@@ -0,0 +1,90 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.exist.dom.memtree;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TextBufferTest {
+
+    @Test
+    public void latin1() {
+        final TextBuffer buffer = new TextBuffer();
+        assertEquals(0, buffer.append("hello"));
+        assertEquals(5, buffer.append(" wörld".toCharArray(), 0, 6));
+
+        assertEquals(11, buffer.length());
+        assertEquals("hello wörld", buffer.getString(0, 11));
+        assertEquals("wörld", buffer.getString(6, 5));
+        assertEquals('ö', buffer.charAt(7));
+    }
+
+    @Test
+    public void inflate() {
+        final TextBuffer buffer = new TextBuffer();
+        buffer.append("hello");
+        buffer.append("世界");
+        buffer.append(" world".toCharArray(), 0, 6);
+
+        assertEquals("hello世界 world", buffer.getString(0, 13));
+        assertEquals("o世", buffer.getString(4, 2));
+        assertArrayEquals("界 w".toCharArray(), buffer.getChars(6, 3));
+    }
+
+    @Test
+    public void spansChunks() {
+        final TextBuffer buffer = new TextBuffer();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; expected.length() < TextBuffer.CHUNK_SIZE * 3; i++) {
+            final String s = i % 1000 == 999 ? "été 世界 " : "text node " + i + ' ';
+            assertEquals(expected.length(), buffer.append(s));
+            expected.append(s);
+        }
+
+        assertEquals(expected.length(), buffer.length());
+        assertEquals(expected.toString(), buffer.getString(0, buffer.length()));
+
+        final int offset = TextBuffer.CHUNK_SIZE - 3;
+        assertEquals(expected.substring(offset, offset + 10), buffer.getString(offset, 10));
+        assertArrayEquals(expected.substring(offset, offset + 10).toCharArray(), buffer.getChars(offset, 10));
+
+        final StringBuilder buf = new StringBuilder();
+        buffer.appendTo(buf, offset, 10);
+        assertEquals(expected.substring(offset, offset + 10), buf.toString());
+    }
+
+    @Test
+    public void contentEquals() {
+        final TextBuffer buffer = new TextBuffer();
+        buffer.append("id1 世 id2");
+
+        assertTrue(buffer.contentEquals(0, 3, "id1"));
+        assertTrue(buffer.contentEquals(4, 1, "世"));
+        assertFalse(buffer.contentEquals(6, 3, "id1"));
+        assertFalse(buffer.contentEquals(6, 3, "id"));
+    }
+}
@@ -130,6 +130,26 @@ public class TextImplTest {
         assertEquals("goodbyeworld", text2.getTextContent());
     }
 
+    @Test
+    public void setData_stringValue() {
+        final MemTreeBuilder builder = new MemTreeBuilder();
+        builder.startDocument();
+        builder.startElement(new QName("p", null, null), null);
+        builder.characters("hello");
+        builder.startElement(new QName("span", null, null), null);
+        builder.characters("world");
+        builder.endElement();
+        builder.characters("goodbye");
+        builder.endElement();
+        builder.endDocument();
+
+        final DocumentImpl doc = builder.getDocument();
+        final Text text = (Text) doc.getDocumentElement().getFirstChild();
+        text.setData("\u4f60\u597d");
+
+        assertEquals("\u4f60\u597dworldgoodbye", ((ElementImpl) doc.getDocumentElement()).getStringValue());
+    }
+
     @Test
     public void appendData() {
         final MemTreeBuilder builder = new MemTreeBuilder();
@@ -1484,6 +1484,109 @@ try {
         }
     }
 
+    @Test
+    public void getBinaryRange() throws IOException {
+        final String uri = getCollectionUri() + "/range.bin";
+        putBinary("0123456789", uri);
+
+        HttpURLConnection connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.setRequestProperty("Range", "bytes=2-5");
+            connect.connect();
+            assertEquals(HttpStatus.PARTIAL_CONTENT_206, connect.getResponseCode());
+            assertEquals("bytes 2-5/10", connect.getHeaderField("Content-Range"));
+            assertEquals("2345", new String(connect.getInputStream().readAllBytes(), UTF_8));
+        } finally {
+            connect.disconnect();
+        }
+
+        connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.setRequestProperty("Range", "bytes=-3");
+            connect.connect();
+            assertEquals(HttpStatus.PARTIAL_CONTENT_206, connect.getResponseCode());
+            assertEquals("bytes 7-9/10", connect.getHeaderField("Content-Range"));
+            assertEquals("789", new String(connect.getInputStream().readAllBytes(), UTF_8));
+        } finally {
+            connect.disconnect();
+        }
+
+        connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.setRequestProperty("Range", "bytes=10-");
+            connect.connect();
+            assertEquals(HttpStatus.RANGE_NOT_SATISFIABLE_416, connect.getResponseCode());
+            assertEquals("bytes */10", connect.getHeaderField("Content-Range"));
+        } finally {
+            connect.disconnect();
+        }
+    }
+
+    @Test
+    public void getBinaryIfNoneMatch() throws IOException {
+        final String uri = getCollectionUri() + "/etag.bin";
+        putBinary("some binary content", uri);
+
+        final String etag;
+        HttpURLConnection connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.connect();
+            assertEquals(HttpStatus.OK_200, connect.getResponseCode());
+            assertEquals("bytes", connect.getHeaderField("Accept-Ranges"));
+            etag = connect.getHeaderField("ETag");
+            assertNotNull(etag);
+            assertEquals("some binary content", new String(connect.getInputStream().readAllBytes(), UTF_8));
+        } finally {
+            connect.disconnect();
+        }
+
+        connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.setRequestProperty("If-None-Match", etag);
+            connect.connect();
+            assertEquals(HttpStatus.NOT_MODIFIED_304, connect.getResponseCode());
+        } finally {
+            connect.disconnect();
+        }
+
+        // a stale If-Range sends the whole content
+        connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.setRequestProperty("Range", "bytes=0-3");
+            connect.setRequestProperty("If-Range", "\"stale\"");
+            connect.connect();
+            assertEquals(HttpStatus.OK_200, connect.getResponseCode());
+            assertEquals("some binary content", new String(connect.getInputStream().readAllBytes(), UTF_8));
+        } finally {
+            connect.disconnect();
+        }
+    }
+
+    private void putBinary(final String data, final String uri) throws IOException {
+        final HttpURLConnection connect = getConnection(uri);
+        try {
+            connect.setRequestProperty("Authorization", "Basic " + credentials);
+            connect.setRequestMethod("PUT");
+            connect.setDoOutput(true);
+            connect.setRequestProperty("Content-Type", "application/octet-stream");
+            try (final OutputStream os = connect.getOutputStream()) {
+                os.write(data.getBytes(UTF_8));
+            }
+
+            connect.connect();
+            final int r = connect.getResponseCode();
+            assertEquals("putBinary: Server returned response code " + r, HttpStatus.CREATED_201, r);
+        } finally {
+            connect.disconnect();
+        }
+    }
+
     private void chmod(final String resourcePath, final String mode) throws IOException {
         final String uri = getCollectionUri() +"?_query=" + URLEncoder.encode(
                 "sm:chmod(xs:anyURI('" + resourcePath + "'), '" + mode + "')",
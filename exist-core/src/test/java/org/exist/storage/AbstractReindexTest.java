@@ -0,0 +1,138 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import org.exist.EXistException;
+import org.exist.collections.Collection;
+import org.exist.collections.CollectionConfigurationException;
+import org.exist.collections.triggers.TriggerException;
+import org.exist.security.PermissionDeniedException;
+import org.exist.storage.lock.Lock;
+import org.exist.storage.txn.Txn;
+import org.exist.test.ExistEmbeddedServer;
+import org.exist.util.LockException;
+import org.exist.util.MimeType;
+import org.exist.util.StringInputSource;
+import org.exist.xmldb.XmldbURI;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.value.Sequence;
+import org.junit.AfterClass;
+import org.junit.ClassRule;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Collections of documents with an {@code @id} attribute, which are reindexed by the tests.
+ */
+public abstract class AbstractReindexTest {
+
+    @ClassRule
+    public static ExistEmbeddedServer existEmbeddedServer = new ExistEmbeddedServer(true, true);
+
+    protected static final XmldbURI TEST_COLLECTION = XmldbURI.create("/db/reindex-test");
+    protected static final XmldbURI SUB_COLLECTION = TEST_COLLECTION.append("sub");
+
+    // more than one batch per collection
+    protected static final int DOCUMENTS_PER_COLLECTION = ParallelReindexExecutor.BATCH_SIZE * 2 + 7;
+
+    private static final String COLLECTION_CONFIG =
+            "<collection xmlns=\"http://exist-db.org/collection-config/1.0\">" +
+            "    <index>" +
+            "        <create qname=\"@id\" type=\"xs:string\"/>" +
+            "    </index>" +
+            "</collection>";
+
+    // sums the number of occurrences of each key, so that entries which were not replaced would be counted twice
+    private static final String INDEX_ENTRIES_QUERY =
+            "sum(util:index-keys(collection('" + TEST_COLLECTION + "')//item/@id, '', function($key, $count) { $count[1] }, -1))";
+
+    protected static int indexEntries() throws EXistException, PermissionDeniedException, XPathException {
+        return Integer.parseInt(query(INDEX_ENTRIES_QUERY).getStringValue());
+    }
+
+    protected static Sequence query(final String query) throws EXistException, PermissionDeniedException, XPathException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()))) {
+            return pool.getXQueryService().execute(broker, query, null);
+        }
+    }
+
+    protected static void configureIndex() throws EXistException, PermissionDeniedException, IOException, LockException, TriggerException, CollectionConfigurationException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+            final Collection collection = broker.getOrCreateCollection(transaction, TEST_COLLECTION);
+            broker.saveCollection(transaction, collection);
+            pool.getConfigurationManager().addConfiguration(transaction, broker, collection, COLLECTION_CONFIG);
+            transaction.commit();
+        }
+    }
+
+    protected static void reindex(final int parallelism, final boolean online) throws EXistException, PermissionDeniedException, IOException, LockException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+            broker.reindexCollection(transaction, TEST_COLLECTION, parallelism, online);
+            transaction.commit();
+        }
+    }
+
+    protected static void storeDocuments() throws PermissionDeniedException, IOException, SAXException, EXistException, LockException {
+        storeDocuments(TEST_COLLECTION, "doc");
+        storeDocuments(SUB_COLLECTION, "sub");
+    }
+
+    private static void storeDocuments(final XmldbURI collectionUri, final String prefix)
+            throws PermissionDeniedException, IOException, SAXException, EXistException, LockException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+
+            final Collection collection = broker.getOrCreateCollection(transaction, collectionUri);
+            broker.saveCollection(transaction, collection);
+
+            for (int i = 0; i < DOCUMENTS_PER_COLLECTION; i++) {
+                final String xml = "<items><item id=\"" + prefix + "-" + i + "\"/></items>";
+                broker.storeDocument(transaction, XmldbURI.create("doc" + i + ".xml"), new StringInputSource(xml), MimeType.XML_TYPE, collection);
+            }
+
+            transaction.commit();
+        }
+    }
+
+    @AfterClass
+    public static void cleanup() throws LockException, TriggerException, PermissionDeniedException, EXistException, IOException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+             final Txn transaction = pool.getTransactionManager().beginTransaction();
+             final Collection collection = broker.openCollection(TEST_COLLECTION, Lock.LockMode.WRITE_LOCK)) {
+
+            if (collection != null) {
+                broker.removeCollection(transaction, collection);
+            }
+
+            transaction.commit();
+        }
+    }
+}
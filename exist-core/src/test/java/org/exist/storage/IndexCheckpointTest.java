@@ -0,0 +1,119 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import org.exist.indexing.AbstractIndex;
+import org.exist.indexing.IndexWorker;
+import org.exist.storage.btree.DBException;
+import org.exist.storage.journal.JournalManager;
+import org.exist.storage.sync.Sync;
+import org.exist.test.ExistEmbeddedServer;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexCheckpointTest {
+
+    @ClassRule
+    public static ExistEmbeddedServer existEmbeddedServer = new ExistEmbeddedServer(true, true);
+
+    @Test
+    public void failedIndexCheckpointSuppressesJournalCheckpoint() throws Exception {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        final JournalManager journalManager = pool.getJournalManager().get();
+
+        final AtomicBoolean checkpointed = new AtomicBoolean();
+        journalManager.listen(txnId -> {
+            checkpointed.set(true);
+            return true;
+        });
+
+        // the broker is acquired before the index is registered, so it does not need a worker for it
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()))) {
+            final FailingCheckpointIndex index = new FailingCheckpointIndex();
+            pool.getIndexManager().registerIndex(index);
+            try {
+                checkpointed.set(false);
+                pool.sync(broker, Sync.MAJOR);
+                assertFalse(checkpointed.get());
+            } finally {
+                pool.getIndexManager().unregisterIndex(index);
+            }
+
+            pool.sync(broker, Sync.MAJOR);
+            assertTrue(checkpointed.get());
+        }
+    }
+
+    private static class FailingCheckpointIndex extends AbstractIndex {
+
+        @Override
+        public String getIndexId() {
+            return "FailingCheckpointIndex";
+        }
+
+        @Override
+        public String getIndexName() {
+            return "FailingCheckpointIndex";
+        }
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void sync() {
+        }
+
+        @Override
+        public void checkpoint() throws DBException {
+            throw new DBException("Failed to checkpoint the index");
+        }
+
+        @Override
+        public void remove() {
+        }
+
+        @Override
+        public IndexWorker getWorker(final DBBroker broker) {
+            final IndexWorker worker = createNiceMock(IndexWorker.class);
+            expect(worker.getIndexId()).andStubReturn(getIndexId());
+            replay(worker);
+            return worker;
+        }
+
+        @Override
+        public boolean checkIndex(final DBBroker broker) {
+            return false;
+        }
+    }
+}
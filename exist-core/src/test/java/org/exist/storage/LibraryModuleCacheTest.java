@@ -0,0 +1,102 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import org.exist.EXistException;
+import org.exist.collections.Collection;
+import org.exist.dom.persistent.BinaryDocument;
+import org.exist.dom.persistent.LockedDocument;
+import org.exist.security.PermissionDeniedException;
+import org.exist.source.DBSource;
+import org.exist.source.StringSource;
+import org.exist.storage.lock.Lock.LockMode;
+import org.exist.storage.txn.Txn;
+import org.exist.test.ExistEmbeddedServer;
+import org.exist.util.DatabaseConfigurationException;
+import org.exist.util.LockException;
+import org.exist.util.MimeType;
+import org.exist.util.StringInputSource;
+import org.exist.xmldb.XmldbURI;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.XQuery;
+import org.exist.xquery.XQueryContext;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryModuleCacheTest {
+
+    private static final XmldbURI MODULE_URI = XmldbURI.ROOT_COLLECTION_URI.append("prewarm.xqm");
+
+    private static final String MODULE =
+            "module namespace pw = \"http://example.com/prewarm\";\n" +
+            "declare function pw:f() { 1 };\n";
+
+    private static final String QUERY =
+            "import module namespace pw = \"http://example.com/prewarm\" at \"xmldb:exist://" + MODULE_URI + "\";\n" +
+            "pw:f()";
+
+    @Rule
+    public final ExistEmbeddedServer existEmbeddedServer = new ExistEmbeddedServer(createConfigProperties(), true, true);
+
+    @Test
+    public void prewarmAfterRestart() throws EXistException, PermissionDeniedException, IOException, SAXException, LockException, XPathException, DatabaseConfigurationException {
+        BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()))) {
+            try (final Txn transaction = pool.getTransactionManager().beginTransaction();
+                    final Collection root = broker.openCollection(XmldbURI.ROOT_COLLECTION_URI, LockMode.WRITE_LOCK)) {
+                broker.storeDocument(transaction, MODULE_URI.lastSegment(), new StringInputSource(MODULE.getBytes(UTF_8)), MimeType.XQUERY_TYPE, root);
+                transaction.commit();
+            }
+
+            final XQuery xquery = pool.getXQueryService();
+            xquery.compile(new XQueryContext(pool), new StringSource(QUERY));
+        }
+        assertTrue(isCached(pool));
+
+        existEmbeddedServer.restart();
+
+        pool = existEmbeddedServer.getBrokerPool();
+        assertTrue(isCached(pool));
+    }
+
+    private static boolean isCached(final BrokerPool pool) throws EXistException, PermissionDeniedException {
+        try (final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+                final LockedDocument lockedDoc = broker.getXMLResource(MODULE_URI, LockMode.READ_LOCK)) {
+            final DBSource source = new DBSource(pool, (BinaryDocument) lockedDoc.getDocument(), true);
+            return pool.getLibraryModuleCache().get(source) != null;
+        }
+    }
+
+    private static Properties createConfigProperties() {
+        final Properties configProperties = new Properties();
+        configProperties.put(LibraryModuleCache.PROPERTY_MODULE_CACHE_PREWARM, Boolean.TRUE);
+        return configProperties;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import org.exist.EXistException;
+import org.exist.collections.CollectionConfigurationException;
+import org.exist.collections.triggers.TriggerException;
+import org.exist.security.PermissionDeniedException;
+import org.exist.util.LockException;
+import org.exist.xquery.XPathException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OnlineReindexTest extends AbstractReindexTest {
+
+    @Test
+    public void reindexOnline() throws EXistException, PermissionDeniedException, IOException, LockException, XPathException {
+        reindexOnline(1);
+    }
+
+    @Test
+    public void reindexOnlineParallel() throws EXistException, PermissionDeniedException, IOException, LockException, XPathException {
+        reindexOnline(4);
+    }
+
+    @Test
+    public void queryDuringReindex() throws EXistException, PermissionDeniedException, XPathException, InterruptedException, ExecutionException {
+        final int parallelism = 4;
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Void> reindex = executorService.submit(() -> {
+                reindex(parallelism, true);
+                return null;
+            });
+
+            do {
+                // each thread only removes the entries of the one document that it is reindexing
+                final int entries = indexEntries();
+                assertTrue("Only " + entries + " index entries found whilst reindexing",
+                        entries >= DOCUMENTS_PER_COLLECTION * 2 - parallelism);
+            } while (!reindex.isDone());
+
+            reindex.get();
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(DOCUMENTS_PER_COLLECTION * 2, indexEntries());
+    }
+
+    private static void reindexOnline(final int parallelism) throws EXistException, PermissionDeniedException, IOException, LockException, XPathException {
+        assertEquals(DOCUMENTS_PER_COLLECTION * 2, indexEntries());
+
+        reindex(parallelism, true);
+
+        // the entries of each document were replaced, not duplicated
+        assertEquals(DOCUMENTS_PER_COLLECTION * 2, indexEntries());
+        assertEquals(1, query("collection('" + TEST_COLLECTION + "')//item[@id = 'sub-" + (DOCUMENTS_PER_COLLECTION - 1) + "']").getItemCount());
+    }
+
+    @BeforeClass
+    public static void setup() throws LockException, SAXException, PermissionDeniedException, EXistException, IOException, TriggerException, CollectionConfigurationException {
+        configureIndex();
+        storeDocuments();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.storage;
+
+import org.exist.EXistException;
+import org.exist.collections.CollectionConfigurationException;
+import org.exist.collections.triggers.TriggerException;
+import org.exist.security.PermissionDeniedException;
+import org.exist.util.LockException;
+import org.exist.xquery.XPathException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelReindexTest extends AbstractReindexTest {
+
+    @Test
+    public void reindexParallel() throws EXistException, PermissionDeniedException, IOException, LockException, XPathException, TriggerException, CollectionConfigurationException {
+        // the documents were stored before the index was configured
+        assertEquals(0, indexEntries());
+
+        configureIndex();
+        reindex(4, false);
+
+        assertEquals(DOCUMENTS_PER_COLLECTION * 2, indexEntries());
+        assertEquals(1, query("collection('" + TEST_COLLECTION + "')//item[@id = 'sub-" + (DOCUMENTS_PER_COLLECTION - 1) + "']").getItemCount());
+    }
+
+    @BeforeClass
+    public static void setup() throws LockException, SAXException, PermissionDeniedException, EXistException, IOException {
+        storeDocuments();
+    }
+}
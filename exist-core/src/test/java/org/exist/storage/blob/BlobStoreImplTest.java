@@ -63,6 +63,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class BlobStoreImplTest {
 
@@ -133,6 +134,39 @@ public class BlobStoreImplTest {
         assertEquals(expectedBlobDbxLen, actualBlobDbxLen);
     }
 
+    @Test
+    public void addDuplicatesStatistics() throws IOException {
+        final Path blobDbx = temporaryFolder.getRoot().toPath().resolve("blob.dbx");
+        final Path blobDir = temporaryFolder.newFolder("blob").toPath();
+
+        final Tuple2<byte[], MessageDigest> testFile1 = generateTestFile();
+        final Tuple2<byte[], MessageDigest> testFile2 = generateTestFile();
+
+        final BlobStore blobStore = newBlobStore(blobDbx, blobDir);
+        try {
+            blobStore.open();
+
+            addAndVerify(blobStore, testFile1);
+            addAndVerify(blobStore, testFile2);
+            addAndVerify(blobStore, testFile1);
+            addAndVerify(blobStore, testFile1);
+
+            final BlobStore.Statistics statistics = blobStore.getStatistics();
+            assertEquals(4, statistics.getAddCount());
+            assertEquals(2, statistics.getDeduplicatedCount());
+            assertEquals(testFile1._1.length * 2L, statistics.getDeduplicatedBytes());
+            assertEquals(0.5, statistics.getDeduplicationRate(), 0);
+        } finally {
+            blobStore.close();
+        }
+
+        // all reference count updates are written by the time the blob store has closed
+        final BlobStore.Statistics statistics = blobStore.getStatistics();
+        assertEquals(4, statistics.getPersistEntryCount());
+        assertTrue(statistics.getPersistBatchCount() >= 1);
+        assertTrue(statistics.getPersistBatchCount() <= 4);
+    }
+
     @Test
     public void getNonExistent() throws IOException {
         final Path blobDbx = temporaryFolder.getRoot().toPath().resolve("blob.dbx");
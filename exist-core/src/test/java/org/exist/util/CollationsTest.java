@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import static junit.framework.TestCase.assertFalse;
 import static org.exist.util.Collations.HTML_ASCII_CASE_INSENSITIVE_COLLATION_URI;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class CollationsTest {
@@ -41,4 +42,13 @@ public class CollationsTest {
         assertTrue(Collations.contains(collator,"h&#244;tel", "h&#244;t"));
         assertFalse(Collations.contains(collator, "h&#244;tel", "H&#212;T"));
     }
+
+    @Test
+    public void collatorIsSharedForSameUri() throws XPathException {
+        final Collator collator = Collations.getCollationFromURI("http://www.w3.org/2013/collation/UCA?lang=de;strength=primary", null);
+
+        assertTrue(collator.isFrozen());
+        assertSame(collator, Collations.getCollationFromURI("http://www.w3.org/2013/collation/UCA?lang=de;strength=primary", null));
+        assertTrue(Collations.equals(collator, "Straße", "STRASSE"));
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.util.serializer;
+
+import java.io.StringWriter;
+
+import org.exist.dom.QName;
+import org.exist.util.XMLString;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class XMLWriterTest {
+
+    private XMLWriter writer;
+    private StringWriter targetWriter;
+
+    @Before
+    public void setUp() {
+        targetWriter = new StringWriter();
+        writer = new XMLWriter(targetWriter);
+    }
+
+    @Test
+    public void escapedText() throws Exception {
+        final QName elQName = new QName("text");
+        writer.startElement(elQName);
+        writer.characters("a < b & c");
+        writer.characters(new XMLString("d > e".toCharArray()));
+        writer.endElement(elQName);
+
+        assertEquals("<text>a &lt; b &amp; cd &gt; e</text>", targetWriter.toString());
+    }
+
+    @Test
+    public void escapedAttribute() throws Exception {
+        final QName elQName = new QName("text");
+        writer.startElement(elQName);
+        writer.attribute(new QName("value"), new XMLString("\"a\"\tb".toCharArray()));
+        writer.endElement(elQName);
+
+        assertEquals("<text value=\"&#34;a&#34;&#x9;b\"/>", targetWriter.toString());
+    }
+
+    @Test
+    public void longText() throws Exception {
+        final StringBuilder expected = new StringBuilder();
+        final XMLString text = new XMLString();
+        for (int i = 0; i < 1000; i++) {
+            text.append("text " + i + (i % 100 == 0 ? "&" : ""));
+            expected.append("text ").append(i).append(i % 100 == 0 ? "&amp;" : "");
+        }
+
+        final QName elQName = new QName("text");
+        writer.startElement(elQName);
+        writer.characters(text);
+        writer.endElement(elQName);
+
+        assertEquals("<text>" + expected + "</text>", targetWriter.toString());
+    }
+}
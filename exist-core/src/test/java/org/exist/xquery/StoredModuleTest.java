@@ -396,6 +396,31 @@ public class StoredModuleTest {
         
     }
 
+    @Test
+    public void moduleSharedBetweenQueries() throws XMLDBException {
+        final String collectionName = "moduleShared";
+        final String importDecl = "import module namespace shared = 'urn:shared' " +
+                "at 'xmldb:exist:/" + collectionName + "/shared.xqm'; ";
+
+        Collection c = createCollection(collectionName);
+        writeModule(c, "shared.xqm", "module namespace shared = 'urn:shared';" +
+                "declare function shared:showMe($s as xs:string) as xs:string { 'a: ' || $s };");
+
+        // each query compiles the module into its own context, from the same parsed module
+        ResourceSet rs = existEmbeddedServer.executeQuery(importDecl + "shared:showMe('1')");
+        assertEquals("a: 1", rs.getResource(0).getContent());
+        rs = existEmbeddedServer.executeQuery(importDecl + "shared:showMe('2')");
+        assertEquals("a: 2", rs.getResource(0).getContent());
+
+        // the parsed module must not be used once the module has changed
+        c = createCollection(collectionName);
+        writeModule(c, "shared.xqm", "module namespace shared = 'urn:shared';" +
+                "declare function shared:showMe($s as xs:string) as xs:string { 'b: ' || $s };");
+
+        rs = existEmbeddedServer.executeQuery(importDecl + "shared:showMe('3')");
+        assertEquals("b: 3", rs.getResource(0).getContent());
+    }
+
     private void writeFile(final Path path, final String module) throws IOException {
         //assertTrue(Files.isWritable(path));
         try (final PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
@@ -22,6 +22,7 @@
 package org.exist.xquery.functions.transform;
 
 import com.evolvedbinary.j8fu.tuple.Tuple2;
+import com.sun.net.httpserver.HttpServer;
 import org.exist.EXistException;
 import org.exist.collections.Collection;
 import org.exist.collections.triggers.TriggerException;
@@ -41,6 +42,7 @@ import org.exist.xquery.XQuery;
 import org.exist.xquery.value.Item;
 import org.exist.xquery.value.Sequence;
 import org.exist.xquery.value.Type;
+import org.exist.xslt.TemplatesFactory;
 import org.junit.*;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -53,9 +55,14 @@ import org.xmlunit.diff.Diff;
 
 import javax.xml.transform.Source;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.evolvedbinary.j8fu.tuple.Tuple.Tuple;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -208,6 +215,40 @@ public class TransformTest {
                 "\ttransform:transform($xml, $xsl, ())";
 
 
+    private static final XmldbURI TEST_IMPORT_COLLECTION = XmldbURI.create("/db/transform-import-test");
+    private static final XmldbURI IMPORTING_XSLT_NAME = XmldbURI.create("importing.xsl");
+    private static final XmldbURI IMPORTED_XSLT_NAME = XmldbURI.create("imported.xsl");
+
+    private static final XmldbURI TEST_REMOTE_IMPORT_COLLECTION = XmldbURI.create("/db/transform-remote-import-test");
+
+    private static final String IMPORTING_XSLT = getImportingXslt(IMPORTED_XSLT_NAME.toString());
+
+    private static String getImportingXslt(final String href) {
+        return
+                "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"2.0\">\n" +
+                "\t<xsl:import href=\"" + href + "\"/>\n" +
+                "</xsl:stylesheet>";
+    }
+
+    private static String getImportedXslt(final String value) {
+        return
+                "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"2.0\">\n" +
+                "\t<xsl:template match=\"/\">\n" +
+                "\t\t<imported>" + value + "</imported>\n" +
+                "\t</xsl:template>\n" +
+                "</xsl:stylesheet>";
+    }
+
+    private static String getImportingXsltQuery(final XmldbURI collectionUri) {
+        return
+                "import module namespace transform=\"http://exist-db.org/xquery/transform\";\n" +
+                "\n" +
+                "let $xsl := doc('" + collectionUri.append(IMPORTING_XSLT_NAME).getRawCollectionPath() + "')\n" +
+                "return\n" +
+                "\ttransform:transform(<a/>, $xsl, ())/string()";
+    }
+
+
     /**
      * {@see https://github.com/eXist-db/exist/issues/1506}
      */
@@ -302,6 +343,98 @@ public class TransformTest {
         transform_twoNodesCountDescendants();
     }
 
+    @Test
+    public void modifiedImportIsRecompiled() throws EXistException, PermissionDeniedException, XPathException, IOException, SAXException, LockException {
+        final TemplatesFactory.Statistics before = TemplatesFactory.getStatistics();
+
+        assertEquals("1", transformImporting(TEST_IMPORT_COLLECTION));
+        assertEquals("1", transformImporting(TEST_IMPORT_COLLECTION));
+
+        final TemplatesFactory.Statistics compiled = TemplatesFactory.getStatistics();
+        assertEquals(before.getCompileCount() + 1, compiled.getCompileCount());
+        assertTrue(compiled.getHitCount() > before.getHitCount());
+
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try(final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+            final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+            createCollection(broker, transaction, TEST_IMPORT_COLLECTION,
+                    Tuple(IMPORTED_XSLT_NAME, getImportedXslt("2"))
+            );
+            transaction.commit();
+        }
+
+        assertEquals("2", transformImporting(TEST_IMPORT_COLLECTION));
+
+        final TemplatesFactory.Statistics recompiled = TemplatesFactory.getStatistics();
+        assertEquals(compiled.getCompileCount() + 1, recompiled.getCompileCount());
+        assertEquals(compiled.getInvalidationCount() + 1, recompiled.getInvalidationCount());
+    }
+
+    @Test
+    public void importWithUnknownLastModifiedIsCached() throws EXistException, PermissionDeniedException, XPathException, IOException, SAXException, LockException, TriggerException {
+        // serves the imported stylesheet without a Last-Modified header
+        final AtomicInteger requests = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/" + IMPORTED_XSLT_NAME, exchange -> {
+            requests.incrementAndGet();
+            final byte[] body = getImportedXslt("remote").getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                try (final OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        try {
+            try(final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+                final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+                final String href = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/" + IMPORTED_XSLT_NAME;
+                createCollection(broker, transaction, TEST_REMOTE_IMPORT_COLLECTION,
+                        Tuple(IMPORTING_XSLT_NAME, getImportingXslt(href))
+                );
+                transaction.commit();
+            }
+
+            final TemplatesFactory.Statistics before = TemplatesFactory.getStatistics();
+
+            assertEquals("remote", transformImporting(TEST_REMOTE_IMPORT_COLLECTION));
+            final int compileRequests = requests.get();
+            assertEquals("remote", transformImporting(TEST_REMOTE_IMPORT_COLLECTION));
+
+            // compiled once, and the import was not requested again to check it
+            assertEquals(before.getCompileCount() + 1, TemplatesFactory.getStatistics().getCompileCount());
+            assertEquals(compileRequests, requests.get());
+
+        } finally {
+            server.stop(0);
+
+            try(final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()));
+                final Txn transaction = pool.getTransactionManager().beginTransaction()) {
+                deleteCollection(broker, transaction, TEST_REMOTE_IMPORT_COLLECTION);
+                transaction.commit();
+            }
+        }
+    }
+
+    private static String transformImporting(final XmldbURI collectionUri) throws EXistException, PermissionDeniedException, XPathException {
+        final BrokerPool pool = existEmbeddedServer.getBrokerPool();
+        final XQuery xquery = pool.getXQueryService();
+        try(final DBBroker broker = pool.get(Optional.of(pool.getSecurityManager().getSystemSubject()))) {
+            final Sequence sequence = xquery.execute(broker, getImportingXsltQuery(collectionUri), null);
+
+            assertNotNull(sequence);
+            assertTrue(sequence.hasOne());
+            return sequence.itemAt(0).getStringValue();
+        }
+    }
+
     private static void transform1(final XmldbURI collectionUri) throws EXistException, PermissionDeniedException, XPathException {
         final BrokerPool pool = existEmbeddedServer.getBrokerPool();
         final XQuery xquery = pool.getXQueryService();
@@ -412,6 +545,11 @@ public class TransformTest {
                     Tuple(COUNT_DESCENDANTS_TWO_NODES_XSLT_NAME, COUNT_DESCENDANTS_TWO_NODES_XSLT)
             );
 
+            createCollection(broker, transaction, TEST_IMPORT_COLLECTION,
+                    Tuple(IMPORTING_XSLT_NAME, IMPORTING_XSLT),
+                    Tuple(IMPORTED_XSLT_NAME, getImportedXslt("1"))
+            );
+
             transaction.commit();
         }
     }
@@ -447,6 +585,7 @@ public class TransformTest {
             deleteCollection(broker, transaction, TEST_SIMPLE_XML_WITH_COMMENT_COLLECTION);
             deleteCollection(broker, transaction, TEST_SIMPLE_XML_WITH_TWO_COMMENTS_COLLECTION);
             deleteCollection(broker, transaction, TEST_TWO_NODES_COLLECTION);
+            deleteCollection(broker, transaction, TEST_IMPORT_COLLECTION);
 
             transaction.commit();
         }
@@ -0,0 +1,121 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.exist.xquery.value;
+
+import com.ibm.icu.text.Collator;
+import org.exist.util.Collations;
+import org.exist.xquery.XPathException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AtomicValueHashSetTest {
+
+    @Test
+    public void strings() throws XPathException {
+        final AtomicValueHashSet set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new StringValue("a")));
+        assertTrue(set.add(new StringValue("A")));
+        assertFalse(set.add(new StringValue("a")));
+        assertFalse(set.add(new UntypedAtomicValue("a")));
+        assertFalse(set.add(new AnyURIValue("A")));
+        assertTrue(set.add(new StringValue("b")));
+    }
+
+    @Test
+    public void stringsWithCollation() throws XPathException {
+        final Collator collator = Collations.getCollationFromURI(Collations.UCA_COLLATION_URI + "?strength=primary");
+        final AtomicValueHashSet set = new AtomicValueHashSet(collator);
+        assertTrue(set.add(new StringValue("a")));
+        assertFalse(set.add(new StringValue("A")));
+        assertFalse(set.add(new UntypedAtomicValue("A")));
+        assertTrue(set.add(new StringValue("b")));
+    }
+
+    @Test
+    public void numbers() throws XPathException {
+        final AtomicValueHashSet set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new IntegerValue(1)));
+        assertFalse(set.add(new DoubleValue(1.0)));
+        assertFalse(set.add(new DecimalValue(new BigDecimal("1.00"))));
+        assertFalse(set.add(new FloatValue(1.0f)));
+        assertTrue(set.add(new DoubleValue(1.5)));
+        assertFalse(set.add(new DecimalValue(new BigDecimal("1.5"))));
+    }
+
+    @Test
+    public void decimalPromotedToFloat() throws XPathException {
+        // 0.1 is promoted to the xs:float 0.1, but to an xs:double which is not equal to that xs:float
+        AtomicValueHashSet set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new DecimalValue(new BigDecimal("0.1"))));
+        assertFalse(set.add(new FloatValue(0.1f)));
+
+        set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new FloatValue(0.1f)));
+        assertFalse(set.add(new DecimalValue(new BigDecimal("0.1"))));
+
+        set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new FloatValue(0.1f)));
+        assertTrue(set.add(new DoubleValue(0.1)));
+    }
+
+    @Test
+    public void integerPromotedToFloat() throws XPathException {
+        // 16777217 is promoted to the xs:float 16777216, as it cannot be represented exactly as an xs:float
+        AtomicValueHashSet set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new IntegerValue(16777217)));
+        assertFalse(set.add(new FloatValue(16777216f)));
+
+        set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new FloatValue(16777216f)));
+        assertFalse(set.add(new IntegerValue(16777217, Type.LONG)));
+
+        set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new IntegerValue(16777217)));
+        assertTrue(set.add(new DoubleValue(16777216)));
+    }
+
+    @Test
+    public void numbersAreNotStrings() throws XPathException {
+        final AtomicValueHashSet set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new IntegerValue(1)));
+        assertTrue(set.add(new StringValue("1")));
+        assertFalse(set.add(new UntypedAtomicValue("1")));
+    }
+
+    @Test
+    public void singleNaN() throws XPathException {
+        final AtomicValueHashSet set = new AtomicValueHashSet(null);
+        assertTrue(set.add(new DoubleValue(Double.NaN)));
+        assertFalse(set.add(new DoubleValue(Double.NaN)));
+        assertFalse(set.add(new FloatValue(Float.NaN)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notHashable() throws XPathException {
+        new AtomicValueHashSet(null).add(BooleanValue.TRUE);
+    }
+}
@@ -64,6 +64,9 @@ public class LuceneIndex extends AbstractIndex implements RawBackupSupport {
 	private static final String DIR_NAME = "lucene";
 	private static final String TAXONOMY_DIR_NAME = "taxonomy";
 
+    private static final String COMMIT_ATTRIBUTE = "commit";
+    private static final String COMMIT_ON_CHECKPOINT = "checkpoint";
+
     protected Directory directory;
     protected Directory taxoDirectory;
 
@@ -71,6 +74,13 @@ public class LuceneIndex extends AbstractIndex implements RawBackupSupport {
 
     protected double bufferSize = IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB;
 
+    /**
+     * If true, the index is only committed at checkpoints instead of on every sync.
+     * Queries see the uncommitted changes through near-real-time readers, and
+     * recovery reindexes the database if it has to replay the journal.
+     */
+    protected boolean commitOnCheckpoint = false;
+
     protected IndexWriter cachedWriter = null;
     protected DirectoryTaxonomyWriter cachedTaxonomyWriter = null;
 
@@ -97,6 +107,14 @@ public class LuceneIndex extends AbstractIndex implements RawBackupSupport {
 
         if (LOG.isDebugEnabled())
             LOG.debug("Using buffer size: {}", bufferSize);
+
+        if (COMMIT_ON_CHECKPOINT.equals(config.getAttribute(COMMIT_ATTRIBUTE))) {
+            if (pool.isRecoveryEnabled()) {
+                commitOnCheckpoint = true;
+            } else {
+                LOG.warn("Lucene index is committed on every sync, as commit on checkpoint requires recovery to be enabled");
+            }
+        }
         
         NodeList nl = config.getElementsByTagName("analyzer");
         if (nl.getLength() > 0) {
@@ -173,8 +191,19 @@ public class LuceneIndex extends AbstractIndex implements RawBackupSupport {
 
     @Override
     public synchronized void sync() throws DBException {
-        //Nothing special to do
-        commit();
+        if (!commitOnCheckpoint) {
+            commit();
+        }
+    }
+
+    @Override
+    public synchronized void checkpoint() throws DBException {
+        // the journal checkpoint must not be written unless the index was committed
+        try {
+            commitOrThrow();
+        } catch (final IOException e) {
+            throw new DBException("Failed to commit Lucene index at checkpoint: " + e.getMessage());
+        }
     }
 
     @Override
@@ -224,18 +253,8 @@ public class LuceneIndex extends AbstractIndex implements RawBackupSupport {
     }
 
     protected void commit() {
-    	if (!needsCommit) {
-            return;
-        }
         try {
-            if(LOG.isDebugEnabled()) {
-                LOG.debug("Committing Lucene index");
-            }
-        	if (cachedWriter != null) {
-                cachedTaxonomyWriter.commit();
-                cachedWriter.commit();
-            }
-            needsCommit = false;
+            commitOrThrow();
         } catch(CorruptIndexException cie) {
             LOG.error("Detected corrupt Lucene index on writer release and commit: {}", cie.getMessage(), cie);
         } catch(IOException ioe) {
@@ -243,6 +262,25 @@ public class LuceneIndex extends AbstractIndex implements RawBackupSupport {
         }
     }
 
+    /**
+     * Commits the pending changes of the index, if any.
+     *
+     * @throws IOException if the index could not be committed
+     */
+    protected void commitOrThrow() throws IOException {
+        if (!needsCommit) {
+            return;
+        }
+        if(LOG.isDebugEnabled()) {
+            LOG.debug("Committing Lucene index");
+        }
+        if (cachedWriter != null) {
+            cachedTaxonomyWriter.commit();
+            cachedWriter.commit();
+        }
+        needsCommit = false;
+    }
+
     public <R> R withReader(FunctionE<IndexReader, R, IOException> fn) throws IOException {
         readerManager.maybeRefreshBlocking();
         final DirectoryReader reader = readerManager.acquire();
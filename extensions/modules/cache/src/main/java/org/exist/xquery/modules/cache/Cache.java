@@ -22,63 +22,110 @@
 package org.exist.xquery.modules.cache;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.exist.xquery.XPathException;
+import org.exist.xquery.XQueryContext;
 import org.exist.xquery.value.Sequence;
 import org.exist.xquery.value.StringValue;
 import org.exist.xquery.value.ValueSequence;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.concurrent.TimeUnit;
 
 /**
  * The cache itself.
  *
  * Just a small wrapper around {@link com.github.benmanes.caffeine.cache.Cache} to manage
- * translating to/from sequences
+ * translating to/from sequences.
+ *
+ * If the cache is configured with a maximum weight, values are stored as
+ * {@link SerializedSequence}s and weighed by their size in bytes, otherwise
+ * the sequences themselves are stored.
  */
 class Cache {
 
+    /**
+     * Approximate number of bytes used by the cache for each entry,
+     * in addition to the key and the serialized value.
+     */
+    private static final int ENTRY_OVERHEAD = 64;
+
+	private final String name;
 	private final CacheConfig config;
-	private final com.github.benmanes.caffeine.cache.Cache<String, Sequence> store;
+	private final com.github.benmanes.caffeine.cache.Cache<String, Object> store;
 
-	public Cache(final CacheConfig config) {
+	public Cache(final String name, final CacheConfig config) {
+		this.name = name;
 		this.config = config;
-        final Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder();
+        final Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder().recordStats();
 
-        config.maximumSize().map(cacheBuilder::maximumSize);
+        if (config.maximumWeight().isPresent()) {
+            cacheBuilder.maximumWeight(config.maximumWeight().get())
+                    .weigher((final String key, final Object value) -> weigh(key, (SerializedSequence) value));
+        } else {
+            config.maximumSize().map(cacheBuilder::maximumSize);
+        }
         config.expireAfterAccess().map(ms -> cacheBuilder.expireAfterAccess(ms, TimeUnit.MILLISECONDS));
         config.expireAfterWrite().map(ms -> cacheBuilder.expireAfterWrite(ms, TimeUnit.MILLISECONDS));
 
         this.store = cacheBuilder.build();
 	}
 
+	private static int weigh(final String key, final SerializedSequence value) {
+	    final long weight = ENTRY_OVERHEAD + (key.length() * 2L) + value.size();
+	    return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+	public String getName() {
+	    return name;
+    }
+
 	public CacheConfig getConfig() {
 		return config;
 	}
 
-    public Sequence put(final String key, final Sequence value) {
-	    final Sequence previous = store.asMap().put(key, value);
-	    if (previous != null) {
-	        return previous;
+    private boolean isSerialized() {
+	    return config.maximumWeight().isPresent();
+    }
+
+    private Object store(final XQueryContext context, final Sequence value) throws XPathException {
+	    if (isSerialized()) {
+	        return SerializedSequence.serialize(context, value, config.offHeap());
+        }
+	    return value;
+    }
+
+    private static Sequence retrieve(final XQueryContext context, final Object value) throws XPathException {
+	    if (value == null) {
+	        return Sequence.EMPTY_SEQUENCE;
+        } else if (value instanceof SerializedSequence) {
+	        return ((SerializedSequence) value).deserialize(context);
+        } else {
+	        return (Sequence) value;
         }
-	    return Sequence.EMPTY_SEQUENCE;
     }
 
-    public Sequence list(final String[] keys) throws XPathException {
+    public Sequence put(final XQueryContext context, final String key, final Sequence value) throws XPathException {
+	    final Object previous = store.asMap().put(key, store(context, value));
+	    return retrieve(context, previous);
+    }
+
+    public Sequence list(final XQueryContext context, final String[] keys) throws XPathException {
 	    final ValueSequence values = new ValueSequence();
 
 	    if(keys.length == 0) {
 	        // all keys
-            for(final Sequence value : store.asMap().values()) {
-                values.addAll(value);
+            for(final Object value : store.asMap().values()) {
+                values.addAll(retrieve(context, value));
             }
         } else {
 	        // just the specified keys
-            final Map<String, Sequence> entries = store.getAllPresent(Arrays.asList(keys));
+            final Map<String, Object> entries = store.getAllPresent(Arrays.asList(keys));
 
-            for (final Sequence value : entries.values()) {
-                values.addAll(value);
+            for (final Object value : entries.values()) {
+                values.addAll(retrieve(context, value));
             }
         }
 
@@ -93,22 +140,12 @@ class Cache {
         return keys;
     }
 
-    public Sequence get(final String key) {
-	    final Sequence value = store.getIfPresent(key);
-	    if(value == null) {
-	        return Sequence.EMPTY_SEQUENCE;
-        } else {
-	        return value;
-        }
+    public Sequence get(final XQueryContext context, final String key) throws XPathException {
+	    return retrieve(context, store.getIfPresent(key));
     }
 
-    public Sequence remove(final String key) {
-        final Sequence prevValue = store.asMap().remove(key);
-        if(prevValue == null) {
-            return Sequence.EMPTY_SEQUENCE;
-        } else {
-            return prevValue;
-        }
+    public Sequence remove(final XQueryContext context, final String key) throws XPathException {
+        return retrieve(context, store.asMap().remove(key));
     }
 
     public void clear() {
@@ -118,4 +155,23 @@ class Cache {
     public void cleanup() {
 	    store.cleanUp();
     }
+
+    public long estimatedSize() {
+        return store.estimatedSize();
+    }
+
+    /**
+     * Get the weighted size of the cache.
+     *
+     * @return the total weight of the entries in bytes, or empty if the cache is not bounded by weight
+     */
+    public OptionalLong weightedSize() {
+        return store.policy().eviction()
+                .map(eviction -> eviction.weightedSize())
+                .orElse(OptionalLong.empty());
+    }
+
+    public CacheStats stats() {
+        return store.stats();
+    }
 }
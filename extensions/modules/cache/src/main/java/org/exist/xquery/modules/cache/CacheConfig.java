@@ -29,11 +29,15 @@ import java.util.Optional;
  * @author <a href="mailto:adam@evolvedbinary.com">Adam Retter</a>
  */
 public record CacheConfig(Optional<Permissions> permissions, Optional<Long> maximumSize,
+                          Optional<Long> maximumWeight, boolean offHeap,
                           Optional<Long> expireAfterAccess, Optional<Long> expireAfterWrite) {
 
     /**
      * @param permissions       Any restrictions on cache operations
      * @param maximumSize       The maximimum number of entries in the cache
+     * @param maximumWeight     The maximum size in bytes of the entries in the cache. If set, entries are stored
+     *                          in a serialized form, and maximumSize is ignored
+     * @param offHeap           true if serialized entries should be stored outside the Java heap
      * @param expireAfterAccess The time in milliseconds after the entry is last accessed, that it should expire
      * @param expireAfterWrite  The time in milliseconds after the entry is last modified, that it should expire
      */
@@ -62,7 +62,7 @@ public class CacheFunctions extends BasicFunction {
             "Explicitly create a cache with a specific configuration",
             returns(Type.BOOLEAN, "true if the cache was created, false if the cache already exists"),
             FS_PARAM_CACHE_NAME,
-            param("config", Type.MAP, "A map with configuration for the cache. At present cache LRU and permission groups may be specified, for operations on the cache. `maximumSize` is optional and specifies the maximum number of entries. `expireAfterAccess` is optional and specifies the expiry period for infrequently accessed entries (in milliseconds). `expireAfterWrite` is optional and specifies the expiry period after the entry's creation, or the most recent replacement of its value (in milliseconds). If a permission group is not specified for an operation, then permissions are not checked for that operation. Should have the format: map { \"maximumSize\": 1000, \"expireAfterAccess\": 120000, \"expireAfterWrite\": 240000, \"permissions\": map { \"put-group\": \"group1\", \"get-group\": \"group2\", \"remove-group\": \"group3\", \"clear-group\": \"group4\"} }")
+            param("config", Type.MAP, "A map with configuration for the cache. At present cache LRU and permission groups may be specified, for operations on the cache. `maximumSize` is optional and specifies the maximum number of entries. `maximumWeight` is optional and specifies the maximum size of the entries in bytes; when it is set, entries are stored in a serialized form which is deserialized when they are retrieved, and `maximumSize` is ignored. `offHeap` is optional and, when true, stores the serialized entries outside of the Java heap. `expireAfterAccess` is optional and specifies the expiry period for infrequently accessed entries (in milliseconds). `expireAfterWrite` is optional and specifies the expiry period after the entry's creation, or the most recent replacement of its value (in milliseconds). If a permission group is not specified for an operation, then permissions are not checked for that operation. Should have the format: map { \"maximumSize\": 1000, \"maximumWeight\": 10485760, \"offHeap\": false, \"expireAfterAccess\": 120000, \"expireAfterWrite\": 240000, \"permissions\": map { \"put-group\": \"group1\", \"get-group\": \"group2\", \"remove-group\": \"group3\", \"clear-group\": \"group4\"} }")
     );
 
     private static final String FS_NAMES_NAME = "names";
@@ -234,6 +234,7 @@ public class CacheFunctions extends BasicFunction {
                 // destroy specific cache
                 final Cache oldCache = CacheModule.caches.remove(cacheName);
                 if(oldCache != null) {
+                    CacheModule.unregisterStatistics(oldCache);
                     // only clear the cache after we have removed it
                     oldCache.clear();
                 }
@@ -268,6 +269,18 @@ public class CacheFunctions extends BasicFunction {
             maximumSize = Optional.empty();
         }
 
+        final Sequence maximumWeightSeq = configMap.get(new StringValue(this, "maximumWeight"));
+        final Optional<Long> maximumWeight;
+        if(maximumWeightSeq != null && maximumWeightSeq.getItemCount() == 1) {
+            final long l = maximumWeightSeq.itemAt(0).toJavaObject(Long.class);
+            maximumWeight = Optional.of(l);
+        } else {
+            maximumWeight = Optional.empty();
+        }
+
+        final Sequence offHeapSeq = configMap.get(new StringValue(this, "offHeap"));
+        final boolean offHeap = offHeapSeq != null && offHeapSeq.getItemCount() == 1 && offHeapSeq.effectiveBooleanValue();
+
         final Sequence expireAfterAccessSeq = configMap.get(new StringValue(this, "expireAfterAccess"));
         final Optional<Long> expireAfterAccess;
         if(expireAfterAccessSeq != null && expireAfterAccessSeq.getItemCount() == 1) {
@@ -286,7 +299,7 @@ public class CacheFunctions extends BasicFunction {
             expireAfterWrite = Optional.empty();
         }
 
-        return new CacheConfig(permissions, maximumSize, expireAfterAccess, expireAfterWrite);
+        return new CacheConfig(permissions, maximumSize, maximumWeight, offHeap, expireAfterAccess, expireAfterWrite);
     }
 
     private Optional<String> getStringValue(final String key, final AbstractMapType map) {
@@ -295,10 +308,14 @@ public class CacheFunctions extends BasicFunction {
 
     private boolean createCache(final String cacheName, final CacheConfig config) {
         // we must test for preemption, i.e the cache may have already been created
-        final Cache newOrExisting = CacheModule.caches.computeIfAbsent(cacheName, key -> new Cache(config));
+        final Cache newOrExisting = CacheModule.caches.computeIfAbsent(cacheName, key -> new Cache(key, config));
 
         // is new
-        return newOrExisting.getConfig() == config;
+        final boolean created = newOrExisting.getConfig() == config;
+        if (created) {
+            CacheModule.registerStatistics(newOrExisting);
+        }
+        return created;
     }
 
     private void lazilyCreateCache(final String cacheName) throws XPathException {
@@ -333,7 +350,7 @@ public class CacheFunctions extends BasicFunction {
             }
         }
 
-        return cache.put(key, value);
+        return cache.put(context, key, value);
     }
 
     private Sequence list(final String cacheName, final String[] keys) throws XPathException {
@@ -349,7 +366,7 @@ public class CacheFunctions extends BasicFunction {
             }
         }
 
-        return cache.list(keys);
+        return cache.list(context, keys);
     }
 
     private Sequence listKeys(final String cacheName) throws XPathException {
@@ -381,7 +398,7 @@ public class CacheFunctions extends BasicFunction {
             }
         }
 
-        return cache.get(key);
+        return cache.get(context, key);
     }
 
     private Sequence remove(final String cacheName, final String key) throws XPathException {
@@ -397,7 +414,7 @@ public class CacheFunctions extends BasicFunction {
             }
         }
 
-        return cache.remove(key);
+        return cache.remove(context, key);
     }
 
     private void clearAll() throws XPathException {
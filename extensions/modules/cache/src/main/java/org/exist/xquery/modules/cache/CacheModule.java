@@ -29,6 +29,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.exist.dom.QName;
+import org.exist.management.AgentFactory;
+import org.exist.util.DatabaseConfigurationException;
 import org.exist.xquery.*;
 import org.exist.xquery.value.FunctionParameterSequenceType;
 import org.exist.xquery.value.FunctionReturnSequenceType;
@@ -70,6 +72,8 @@ public class CacheModule extends AbstractInternalModule {
 
     private static final String PARAM_NAME_ENABLE_LAZY_CREATION = "enableLazyCreation";
     private static final String PARAM_NAME_LAZY_MAXIMUM_SIZE = "lazy.maximumSize";
+    private static final String PARAM_NAME_LAZY_MAXIMUM_WEIGHT = "lazy.maximumWeight";
+    private static final String PARAM_NAME_LAZY_OFF_HEAP = "lazy.offHeap";
     private static final String PARAM_NAME_LAZY_EXPIRE_AFTER_ACCESS = "lazy.expireAfterAccess";
     private static final String PARAM_NAME_LAZY_EXPIRE_AFTER_WRITE = "lazy.expireAfterWrite";
     private static final String PARAM_NAME_LAZY_PUT_GROUP = "lazy.putGroup";
@@ -159,6 +163,20 @@ public class CacheModule extends AbstractInternalModule {
                     }
                 });
 
+        final Optional<Long> maximumWeight = getFirstString(parameters, PARAM_NAME_LAZY_MAXIMUM_WEIGHT)
+                .flatMap(s -> {
+                    try {
+                        return Optional.of(Long.parseLong(s));
+                    } catch (final NumberFormatException e) {
+                        LOG.warn("Unable to set {} to: {}. Using {} instead", PARAM_NAME_LAZY_MAXIMUM_WEIGHT, s, PARAM_NAME_LAZY_MAXIMUM_SIZE);
+                        return Optional.empty();
+                    }
+                });
+
+        final boolean offHeap = getFirstString(parameters, PARAM_NAME_LAZY_OFF_HEAP)
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+
         final Optional<Long> expireAfterAccess = getFirstString(parameters, PARAM_NAME_LAZY_EXPIRE_AFTER_ACCESS)
                 .map(s -> {
                     try {
@@ -180,7 +198,7 @@ public class CacheModule extends AbstractInternalModule {
                 });
 
 
-        return Optional.of(new CacheConfig(permissions, maximumSize, expireAfterAccess, expireAfterWrite));
+        return Optional.of(new CacheConfig(permissions, maximumSize, maximumWeight, offHeap, expireAfterAccess, expireAfterWrite));
     }
 
     private static Optional<String> getFirstString(final Map<String, List<?>> parameters, final String paramName) {
@@ -194,4 +212,26 @@ public class CacheModule extends AbstractInternalModule {
     Optional<CacheConfig> getLazyCacheConfig() {
         return lazyCacheConfig;
     }
+
+    /**
+     * Register a JMX MXBean which reports the statistics of a cache.
+     *
+     * @param cache the cache
+     */
+    static void registerStatistics(final Cache cache) {
+        try {
+            AgentFactory.getInstance().addMBean(new CacheStatistics(cache));
+        } catch (final DatabaseConfigurationException e) {
+            LOG.warn("Unable to register JMX MXBean for cache: {}", cache.getName(), e);
+        }
+    }
+
+    /**
+     * Unregister the JMX MXBean which reports the statistics of a cache.
+     *
+     * @param cache the cache
+     */
+    static void unregisterStatistics(final Cache cache) {
+        AgentFactory.getInstance().removeMBean(new CacheStatistics(cache));
+    }
 }
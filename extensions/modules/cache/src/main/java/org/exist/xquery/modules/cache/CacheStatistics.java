@@ -0,0 +1,105 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery.modules.cache;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * JMX MXBean for examining a cache of the Cache Module.
+ *
+ * Caches are shared by all database instances, so the MXBean
+ * is not bound to an instance.
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+    private final Cache cache;
+
+    CacheStatistics(final Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public ObjectName getName() throws MalformedObjectNameException {
+        return new ObjectName("org.exist.management:type=XQueryCache,name=" + ObjectName.quote(cache.getName()));
+    }
+
+    @Override
+    public String getInstanceId() {
+        return null;
+    }
+
+    @Override
+    public String getCacheName() {
+        return cache.getName();
+    }
+
+    @Override
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return cache.weightedSize().orElse(-1);
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return cache.getConfig().maximumSize().orElse(-1L);
+    }
+
+    @Override
+    public long getMaximumWeight() {
+        return cache.getConfig().maximumWeight().orElse(-1L);
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return cache.getConfig().offHeap();
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public long getEvictionWeight() {
+        return cache.stats().evictionWeight();
+    }
+}
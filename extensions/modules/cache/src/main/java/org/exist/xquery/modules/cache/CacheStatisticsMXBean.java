@@ -0,0 +1,57 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery.modules.cache;
+
+import org.exist.management.impl.PerInstanceMBean;
+
+/**
+ * JMX MXBean interface for examining a cache of the Cache Module
+ */
+public interface CacheStatisticsMXBean extends PerInstanceMBean {
+
+    String getCacheName();
+
+    long getEstimatedSize();
+
+    /**
+     * Get the total weight of the entries in the cache.
+     *
+     * @return the weight in bytes, or -1 if the cache is not bounded by weight
+     */
+    long getWeightedSize();
+
+    long getMaximumSize();
+
+    long getMaximumWeight();
+
+    boolean isOffHeap();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    long getEvictionWeight();
+}
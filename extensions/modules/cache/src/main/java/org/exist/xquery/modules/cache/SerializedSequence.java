@@ -0,0 +1,461 @@
+/*
+ * eXist-db Open Source Native XML Database
+ * Copyright (C) 2001 The eXist-db Authors
+ *
+ * info@exist-db.org
+ * http://www.exist-db.org
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.exist.xquery.modules.cache;
+
+import org.exist.dom.QName;
+import org.exist.dom.memtree.MemTreeBuilder;
+import org.exist.dom.memtree.NodeImpl;
+import org.exist.dom.persistent.DocumentImpl;
+import org.exist.dom.persistent.IStoredNode;
+import org.exist.dom.persistent.LockedDocument;
+import org.exist.dom.persistent.NodeProxy;
+import org.exist.numbering.NodeId;
+import org.exist.security.PermissionDeniedException;
+import org.exist.storage.lock.Lock.LockMode;
+import org.exist.storage.serializers.Serializer;
+import org.exist.xmldb.XmldbURI;
+import org.exist.xquery.XPathException;
+import org.exist.xquery.XQueryContext;
+import org.exist.xquery.functions.array.ArrayType;
+import org.exist.xquery.functions.map.AbstractMapType;
+import org.exist.xquery.functions.map.MapType;
+import org.exist.xquery.modules.ModuleUtils;
+import org.exist.xquery.value.*;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.annotation.Nullable;
+import javax.xml.transform.OutputKeys;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A sequence stored in a compact serialized form, which is
+ * deserialized each time it is retrieved from the cache.
+ *
+ * Atomic values are stored by their type and value, and in-memory
+ * nodes as XML. Persistent nodes are stored by the URI of their
+ * document and their node id, so that a cached node does not hold
+ * on to its document; when the document has been removed from the
+ * database, or no longer holds a node of the same kind and name at
+ * that id, the node is dropped from the sequence. Maps and arrays
+ * are stored by their entries and members. Function items cannot be
+ * serialized.
+ */
+final class SerializedSequence {
+
+    private static final byte ATOMIC = 0;
+    private static final byte PERSISTENT_NODE = 1;
+    private static final byte IN_MEMORY_NODE = 2;
+    private static final byte MAP = 3;
+    private static final byte ARRAY = 4;
+
+    private static final Properties OUTPUT_PROPERTIES = new Properties();
+    static {
+        OUTPUT_PROPERTIES.setProperty(OutputKeys.INDENT, "no");
+        OUTPUT_PROPERTIES.setProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+    }
+
+    private final ByteBuffer data;
+
+    private SerializedSequence(final ByteBuffer data) {
+        this.data = data;
+    }
+
+    /**
+     * Serialize a sequence.
+     *
+     * @param context the XQuery context
+     * @param sequence the sequence to serialize
+     * @param offHeap true if the serialized form should be stored outside the Java heap
+     *
+     * @return the serialized sequence
+     *
+     * @throws XPathException if the sequence contains items which cannot be serialized
+     */
+    static SerializedSequence serialize(final XQueryContext context, final Sequence sequence, final boolean offHeap) throws XPathException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (final DataOutputStream os = new DataOutputStream(bos)) {
+            writeSequence(context, os, sequence);
+        } catch (final IOException | SAXException e) {
+            throw new XPathException("Unable to serialize the value for the cache: " + e.getMessage(), e);
+        }
+
+        final byte[] bytes = bos.toByteArray();
+        final ByteBuffer data;
+        if (offHeap) {
+            data = ByteBuffer.allocateDirect(bytes.length);
+            data.put(bytes);
+            data.flip();
+        } else {
+            data = ByteBuffer.wrap(bytes);
+        }
+        return new SerializedSequence(data.asReadOnlyBuffer());
+    }
+
+    /**
+     * Get the size of the serialized sequence.
+     *
+     * @return the size in bytes
+     */
+    int size() {
+        return data.capacity();
+    }
+
+    /**
+     * Deserialize the sequence.
+     *
+     * @param context the XQuery context
+     *
+     * @return the sequence
+     *
+     * @throws XPathException if the sequence cannot be deserialized
+     */
+    Sequence deserialize(final XQueryContext context) throws XPathException {
+        final byte[] bytes;
+        final ByteBuffer buffer = data.duplicate();
+        if (buffer.hasArray()) {
+            bytes = buffer.array();
+        } else {
+            bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+        }
+
+        try (final DataInputStream is = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readSequence(context, is);
+        } catch (final IOException | SAXException e) {
+            throw new XPathException("Unable to deserialize the value from the cache: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeSequence(final XQueryContext context, final DataOutputStream os, final Sequence sequence) throws IOException, SAXException, XPathException {
+        os.writeInt(sequence.getItemCount());
+        for (final SequenceIterator i = sequence.iterate(); i.hasNext(); ) {
+            writeItem(context, os, i.nextItem());
+        }
+    }
+
+    private static void writeItem(final XQueryContext context, final DataOutputStream os, final Item item) throws IOException, SAXException, XPathException {
+        final int type = item.getType();
+        if (Type.subTypeOf(type, Type.NODE)) {
+            final NodeValue node = (NodeValue) item;
+            if (node.getImplementationType() == NodeValue.PERSISTENT_NODE) {
+                final NodeProxy proxy = (NodeProxy) node;
+                os.writeByte(PERSISTENT_NODE);
+                writeString(os, proxy.getOwnerDocument().getURI().toString());
+                final short nodeType;
+                if (proxy.isDocument()) {
+                    nodeType = Node.DOCUMENT_NODE;
+                } else if (proxy.getNodeType() == NodeProxy.UNKNOWN_NODE_TYPE) {
+                    nodeType = proxy.getNode().getNodeType();
+                } else {
+                    nodeType = proxy.getNodeType();
+                }
+                os.writeShort(nodeType);
+                if (proxy.isDocument()) {
+                    os.writeShort(-1);
+                } else {
+                    final NodeId nodeId = proxy.getNodeId();
+                    final byte[] id = new byte[nodeId.size()];
+                    nodeId.serialize(id, 0);
+                    os.writeShort(nodeId.units());
+                    os.writeShort(id.length);
+                    os.write(id);
+                    writeString(os, hasName(nodeType) ? proxy.getQName().getStringValue() : "");
+                }
+            } else {
+                writeInMemoryNode(context, os, (NodeImpl) node);
+            }
+
+        } else if (type == Type.MAP) {
+            final AbstractMapType map = (AbstractMapType) item;
+            os.writeByte(MAP);
+            final Sequence keys = map.keys();
+            os.writeInt(keys.getItemCount());
+            for (final SequenceIterator i = keys.iterate(); i.hasNext(); ) {
+                final AtomicValue key = (AtomicValue) i.nextItem();
+                writeAtomic(os, key);
+                writeSequence(context, os, map.get(key));
+            }
+
+        } else if (type == Type.ARRAY) {
+            final ArrayType array = (ArrayType) item;
+            os.writeByte(ARRAY);
+            os.writeInt(array.getSize());
+            for (int i = 0; i < array.getSize(); i++) {
+                writeSequence(context, os, array.get(i));
+            }
+
+        } else if (Type.subTypeOf(type, Type.ATOMIC) && type != Type.JAVA_OBJECT) {
+            writeAtomic(os, (AtomicValue) item);
+
+        } else {
+            throw new XPathException("Items of type " + Type.getTypeName(type) + " cannot be stored in a cache with a maximum weight");
+        }
+    }
+
+    private static void writeAtomic(final DataOutputStream os, final AtomicValue value) throws IOException, XPathException {
+        final int type = value.getType();
+        os.writeByte(ATOMIC);
+        os.writeInt(type);
+        switch (type) {
+            case Type.DOUBLE:
+                os.writeDouble(((DoubleValue) value).getValue());
+                break;
+
+            case Type.FLOAT:
+                os.writeFloat(((FloatValue) value).getValue());
+                break;
+
+            case Type.BOOLEAN:
+                os.writeBoolean(((BooleanValue) value).getValue());
+                break;
+
+            case Type.QNAME:
+                final QName qname = ((QNameValue) value).getQName();
+                writeString(os, qname.getLocalPart());
+                writeString(os, qname.getNamespaceURI());
+                writeString(os, qname.getPrefix() == null ? "" : qname.getPrefix());
+                break;
+
+            default:
+                writeString(os, value.getStringValue());
+                break;
+        }
+    }
+
+    private static void writeInMemoryNode(final XQueryContext context, final DataOutputStream os, final NodeImpl node) throws IOException, SAXException, XPathException {
+        final short nodeType = node.getNodeType();
+        os.writeByte(IN_MEMORY_NODE);
+        os.writeShort(nodeType);
+        switch (nodeType) {
+            case Node.DOCUMENT_NODE:
+            case Node.ELEMENT_NODE:
+                final Serializer serializer = context.getBroker().borrowSerializer();
+                try {
+                    serializer.setProperties(OUTPUT_PROPERTIES);
+                    writeString(os, serializer.serialize(node));
+                } finally {
+                    context.getBroker().returnSerializer(serializer);
+                }
+                break;
+
+            case Node.ATTRIBUTE_NODE:
+                final QName qname = node.getQName();
+                writeString(os, qname.getLocalPart());
+                writeString(os, qname.getNamespaceURI());
+                writeString(os, qname.getPrefix() == null ? "" : qname.getPrefix());
+                writeString(os, node.getNodeValue());
+                break;
+
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                writeString(os, node.getNodeName());
+                writeString(os, node.getNodeValue());
+                break;
+
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+            case Node.COMMENT_NODE:
+                writeString(os, node.getNodeValue());
+                break;
+
+            default:
+                throw new XPathException("Nodes of type " + Type.getTypeName(node.getType()) + " cannot be stored in a cache with a maximum weight");
+        }
+    }
+
+    private static Sequence readSequence(final XQueryContext context, final DataInputStream is) throws IOException, SAXException, XPathException {
+        final int count = is.readInt();
+        if (count == 0) {
+            return Sequence.EMPTY_SEQUENCE;
+        }
+
+        final ValueSequence sequence = new ValueSequence(count);
+        for (int i = 0; i < count; i++) {
+            final Item item = readItem(context, is);
+            if (item != null) {
+                sequence.add(item);
+            }
+        }
+        return sequence;
+    }
+
+    private static Item readItem(final XQueryContext context, final DataInputStream is) throws IOException, SAXException, XPathException {
+        final byte tag = is.readByte();
+        switch (tag) {
+            case ATOMIC:
+                return readAtomic(context, is);
+
+            case PERSISTENT_NODE:
+                return readPersistentNode(context, is);
+
+            case IN_MEMORY_NODE:
+                return readInMemoryNode(context, is);
+
+            case MAP:
+                final MapType map = new MapType(context);
+                final int size = is.readInt();
+                for (int i = 0; i < size; i++) {
+                    is.readByte();  // ATOMIC
+                    final AtomicValue key = readAtomic(context, is);
+                    map.add(key, readSequence(context, is));
+                }
+                return map;
+
+            case ARRAY:
+                final int members = is.readInt();
+                final List<Sequence> items = new ArrayList<>(members);
+                for (int i = 0; i < members; i++) {
+                    items.add(readSequence(context, is));
+                }
+                return new ArrayType(context, items);
+
+            default:
+                throw new IOException("Unknown item tag: " + tag);
+        }
+    }
+
+    private static AtomicValue readAtomic(final XQueryContext context, final DataInputStream is) throws IOException, XPathException {
+        final int type = is.readInt();
+        switch (type) {
+            case Type.DOUBLE:
+                return new DoubleValue(is.readDouble());
+
+            case Type.FLOAT:
+                return new FloatValue(is.readFloat());
+
+            case Type.BOOLEAN:
+                return BooleanValue.valueOf(is.readBoolean());
+
+            case Type.QNAME:
+                final String localPart = readString(is);
+                final String namespaceURI = readString(is);
+                final String prefix = readString(is);
+                return new QNameValue(context, new QName(localPart, namespaceURI, prefix.isEmpty() ? null : prefix));
+
+            case Type.STRING:
+                return new StringValue(readString(is));
+
+            case Type.UNTYPED_ATOMIC:
+                return new UntypedAtomicValue(readString(is));
+
+            default:
+                return new StringValue(readString(is)).convertTo(type);
+        }
+    }
+
+    private static @Nullable Item readPersistentNode(final XQueryContext context, final DataInputStream is) throws IOException, XPathException {
+        final XmldbURI docUri = XmldbURI.create(readString(is));
+        final short nodeType = is.readShort();
+        final int units = is.readShort();
+        final NodeId nodeId;
+        final String name;
+        if (units == -1) {
+            nodeId = NodeId.DOCUMENT_NODE;
+            name = null;
+        } else {
+            final byte[] id = new byte[is.readShort()];
+            is.readFully(id);
+            nodeId = context.getBroker().getBrokerPool().getNodeFactory().createFromData(units, id, 0);
+            name = readString(is);
+        }
+
+        try (final LockedDocument lockedDoc = context.getBroker().getXMLResource(docUri, LockMode.READ_LOCK)) {
+            if (lockedDoc == null) {
+                // the document has been removed
+                return null;
+            }
+            final DocumentImpl doc = lockedDoc.getDocument();
+            if (name != null) {
+                // the document may have been replaced or updated since, so the node id
+                // may now be unused or belong to a different node
+                final IStoredNode node = context.getBroker().objectWith(doc, nodeId);
+                if (node == null || node.getNodeType() != nodeType
+                        || (hasName(nodeType) && !node.getQName().getStringValue().equals(name))) {
+                    return null;
+                }
+            }
+            return new NodeProxy(null, doc, nodeId, nodeType);
+        } catch (final PermissionDeniedException e) {
+            throw new XPathException("Permission denied to read cached node from: " + docUri, e);
+        }
+    }
+
+    private static boolean hasName(final short nodeType) {
+        return nodeType == Node.ELEMENT_NODE || nodeType == Node.ATTRIBUTE_NODE;
+    }
+
+    private static Item readInMemoryNode(final XQueryContext context, final DataInputStream is) throws IOException, SAXException, XPathException {
+        final short nodeType = is.readShort();
+        switch (nodeType) {
+            case Node.DOCUMENT_NODE:
+                return ModuleUtils.stringToXML(context, readString(is));
+
+            case Node.ELEMENT_NODE:
+                final org.exist.dom.memtree.DocumentImpl doc = (org.exist.dom.memtree.DocumentImpl) ModuleUtils.stringToXML(context, readString(is));
+                return (NodeImpl) doc.getDocumentElement();
+
+            default:
+                context.pushDocumentContext();
+                try {
+                    final MemTreeBuilder builder = context.getDocumentBuilder();
+                    switch (nodeType) {
+                        case Node.ATTRIBUTE_NODE:
+                            final String localPart = readString(is);
+                            final String namespaceURI = readString(is);
+                            final String prefix = readString(is);
+                            final QName qname = new QName(localPart, namespaceURI, prefix.isEmpty() ? null : prefix);
+                            return builder.getDocument().getAttribute(builder.addAttribute(qname, readString(is)));
+
+                        case Node.PROCESSING_INSTRUCTION_NODE:
+                            final String target = readString(is);
+                            return builder.getDocument().getNode(builder.processingInstruction(target, readString(is)));
+
+                        case Node.COMMENT_NODE:
+                            return builder.getDocument().getNode(builder.comment(readString(is)));
+
+                        default:
+                            return builder.getDocument().getNode(builder.characters(readString(is)));
+                    }
+                } finally {
+                    context.popDocumentContext();
+                }
+        }
+    }
+
+    private static void writeString(final DataOutputStream os, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(UTF_8);
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+
+    private static String readString(final DataInputStream is) throws IOException {
+        final byte[] bytes = new byte[is.readInt()];
+        is.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}